@@ -0,0 +1,88 @@
+package com.sparky.benchmarks.ecs;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sparky.ecs.CollisionComponent;
+import com.sparky.ecs.CollisionSystem;
+import com.sparky.ecs.Entity;
+import com.sparky.ecs.EntityManager;
+import com.sparky.ecs.MovementSystem;
+import com.sparky.ecs.PositionComponent;
+import com.sparky.ecs.VelocityComponent;
+
+/**
+ * Порівняння тіку колізій з широкою фазою на хеш-сітці і з перебором усіх пар.
+ * <p>
+ * Крім часу тіку звітує кількість перевірок пар ({@code pairTests}) на операцію.
+ * Сутності рухаються між тіками, тож вимірюється і інкрементальне оновлення сітки.
+ *
+ * @author Андрій Будильников
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    
+    @Param({"1000", "5000", "10000"})
+    private int colliderCount;
+    
+    @Param({"true", "false"})
+    private boolean broadphase;
+    
+    private CollisionSystem collisionSystem;
+    private MovementSystem movementSystem;
+    
+    /**
+     * Лічильник перевірок пар, який JMH виводить поруч із часом.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PairCounter {
+        public long pairTests;
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        EntityManager entityManager = new EntityManager();
+        Random random = new Random(42);
+        // Щільність близько одного колайдера на 16 квадратних одиниць
+        float worldSize = (float) Math.sqrt(colliderCount * 16.0);
+        for (int i = 0; i < colliderCount; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(random.nextFloat() * worldSize, random.nextFloat() * worldSize, 0));
+            entity.addComponent(new VelocityComponent(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, 0));
+            entity.addComponent(new CollisionComponent());
+        }
+        
+        collisionSystem = new CollisionSystem();
+        collisionSystem.setEntityManager(entityManager);
+        collisionSystem.setBroadphaseEnabled(broadphase);
+        movementSystem = new MovementSystem();
+        movementSystem.setEntityManager(entityManager);
+    }
+    
+    @Benchmark
+    public void tick(PairCounter counter) {
+        movementSystem.update();
+        collisionSystem.update();
+        counter.pairTests += collisionSystem.getPairTestCount();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.sparky.benchmarks.ecs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sparky.ecs.Entity;
+import com.sparky.ecs.EntityManager;
+import com.sparky.ecs.MovementSystem;
+import com.sparky.ecs.PositionComponent;
+import com.sparky.ecs.VelocityComponent;
+
+/**
+ * Порівняння оновлення руху для об'єктних компонентів і упакованих колонок.
+ * <p>
+ * Запуск: {@code mvn -pl sparky-benchmarks -am package && java -jar sparky-benchmarks/target/benchmarks.jar MovementBenchmark}
+ *
+ * @author Андрій Будильников
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MovementBenchmark {
+    
+    @Param({"10000", "100000", "1000000"})
+    private int entityCount;
+    
+    private MovementSystem objectSystem;
+    private MovementSystem packedSystem;
+    private float[] x, y, z, dx, dy, dz;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectSystem = createSystem(new EntityManager(false));
+        packedSystem = createSystem(new EntityManager(true));
+        
+        x = new float[entityCount];
+        y = new float[entityCount];
+        z = new float[entityCount];
+        dx = new float[entityCount];
+        dy = new float[entityCount];
+        dz = new float[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            x[i] = i;
+            dx[i] = 1;
+            dy[i] = i % 7;
+            dz[i] = -1;
+        }
+    }
+    
+    private MovementSystem createSystem(EntityManager entityManager) {
+        for (int i = 0; i < entityCount; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(i, 0, 0));
+            entity.addComponent(new VelocityComponent(1, i % 7, -1));
+        }
+        MovementSystem system = new MovementSystem();
+        system.setEntityManager(entityManager);
+        return system;
+    }
+    
+    /**
+     * Поточний шлях: компонент-об'єкт на сутність, доступ через гетери та сетери.
+     */
+    @Benchmark
+    public void objectComponents() {
+        objectSystem.update();
+    }
+    
+    /**
+     * Упаковане зберігання в колонках архетипу з пакетним ядром інтеграції.
+     */
+    @Benchmark
+    public void packedComponents() {
+        packedSystem.update();
+    }
+    
+    /**
+     * Саме ядро інтеграції на голих масивах - нижня межа для упакованого шляху.
+     */
+    @Benchmark
+    public void rawKernel() {
+        MovementSystem.integrate(x, y, z, dx, dy, dz, 1.0f / 60.0f, 0, entityCount);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.sparky.benchmarks.ecs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sparky.ecs.Entity;
+import com.sparky.ecs.EntityManager;
+import com.sparky.ecs.PhysicsComponent;
+import com.sparky.ecs.PositionComponent;
+import com.sparky.ecs.VelocityComponent;
+import com.sparky.ecs.WorldSnapshot;
+
+/**
+ * Збереження та відновлення світу через двійковий знімок у файлі.
+ * <p>
+ * Запуск: {@code mvn -pl sparky-benchmarks -am package && java -jar sparky-benchmarks/target/benchmarks.jar SnapshotBenchmark}
+ *
+ * @author Андрій Будильников
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SnapshotBenchmark {
+    
+    @Param({"100000", "500000"})
+    private int entityCount;
+    
+    private EntityManager entityManager;
+    private WorldSnapshot snapshot;
+    private Path writeFile;
+    private Path readFile;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        entityManager = new EntityManager(true);
+        for (int i = 0; i < entityCount; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(i, i % 100, 0));
+            entity.addComponent(new VelocityComponent(1, 0, -1));
+            if (i % 4 == 0) {
+                entity.addComponent(new PhysicsComponent());
+            }
+        }
+        snapshot = new WorldSnapshot();
+        writeFile = Files.createTempFile("sparky-write", ".snapshot");
+        readFile = Files.createTempFile("sparky-read", ".snapshot");
+        snapshot.write(entityManager, readFile);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(writeFile);
+        Files.deleteIfExists(readFile);
+    }
+    
+    @Benchmark
+    public void write() throws IOException {
+        snapshot.write(entityManager, writeFile);
+    }
+    
+    @Benchmark
+    public EntityManager read() throws IOException {
+        return snapshot.read(readFile);
+    }
+}
\ No newline at end of file
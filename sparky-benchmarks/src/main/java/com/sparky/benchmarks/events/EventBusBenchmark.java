@@ -0,0 +1,100 @@
+package com.sparky.benchmarks.events;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sparky.events.EventBus;
+import com.sparky.events.Subscribe;
+
+/**
+ * Порівняння відправки подій через скомпільовані обробники і через {@link Method#invoke}.
+ * <p>
+ * Запуск: {@code mvn -pl sparky-benchmarks -am package && java -jar sparky-benchmarks/target/benchmarks.jar EventBusBenchmark}
+ *
+ * @author Андрій Будильников
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+    
+    private final EventBus eventBus = EventBus.getInstance();
+    private final DamageEvent event = new DamageEvent(5);
+    private Listener listener;
+    private List<Method> methods;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        listener = new Listener();
+        eventBus.registerListener(listener);
+        methods = List.of(
+                Listener.class.getDeclaredMethod("onDamage", DamageEvent.class),
+                Listener.class.getDeclaredMethod("onDamageLogged", DamageEvent.class),
+                Listener.class.getDeclaredMethod("onDamageAudited", DamageEvent.class));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.unregisterListener(listener);
+    }
+    
+    /**
+     * Поточний шлях: скомпільовані обробники.
+     */
+    @Benchmark
+    public long compiledPost() {
+        eventBus.post(event);
+        return listener.total;
+    }
+    
+    /**
+     * Попередній шлях: setAccessible і Method.invoke на кожен обробник для кожної події.
+     */
+    @Benchmark
+    public long reflectivePost() throws ReflectiveOperationException {
+        for (Method method : methods) {
+            method.setAccessible(true);
+            method.invoke(listener, event);
+        }
+        return listener.total;
+    }
+    
+    public record DamageEvent(int amount) {
+    }
+    
+    public static class Listener {
+        long total;
+        
+        @Subscribe
+        public void onDamage(DamageEvent event) {
+            total += event.amount();
+        }
+        
+        @Subscribe(priority = 1)
+        public void onDamageLogged(DamageEvent event) {
+            total ^= event.amount();
+        }
+        
+        @Subscribe(priority = 2)
+        private void onDamageAudited(DamageEvent event) {
+            total--;
+        }
+    }
+}
\ No newline at end of file
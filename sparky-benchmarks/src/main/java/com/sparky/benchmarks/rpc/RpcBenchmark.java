@@ -0,0 +1,150 @@
+package com.sparky.benchmarks.rpc;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sparky.rpc.RpcClient;
+import com.sparky.rpc.RpcCodec;
+import com.sparky.rpc.RpcMessage;
+import com.sparky.rpc.RpcServer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+
+/**
+ * Затримка і пропускна здатність RPC викликів через loopback з'єднання
+ * для двійкового та JSON кодеків, з пакетуванням запису і без нього,
+ * з одним і кількома з'єднаннями пулу, а також вартість самого кодування.
+ * <p>
+ * Запуск: {@code mvn -pl sparky-benchmarks -am package && java -jar sparky-benchmarks/target/benchmarks.jar RpcBenchmark}
+ *
+ * @author Андрій Будильников
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RpcBenchmark {
+    private static final int BATCH = 256;
+    
+    @Param({"binary", "json"})
+    private String codecName;
+    
+    @Param({"true", "false"})
+    private boolean writeBatching;
+    
+    @Param({"1", "4"})
+    private int poolSize;
+    
+    private RpcCodec codec;
+    private RpcServer server;
+    private RpcClient client;
+    private RpcMessage request;
+    private List<RpcMessage> batch;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        codec = "json".equals(codecName) ? RpcCodec.json() : RpcCodec.binary();
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new RpcServer(port, codec);
+        server.registerHandler("echo", message -> message);
+        server.start();
+        client = new RpcClient("127.0.0.1", port, codec);
+        client.setWriteBatching(writeBatching);
+        client.setPoolSize(poolSize);
+        client.connect();
+        
+        Map<String, Object> component = new LinkedHashMap<>();
+        component.put("x", 128.5);
+        component.put("y", 64.0);
+        component.put("z", -12.25);
+        component.put("world", "overworld");
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("entityId", 4711);
+        params.put("componentData", component);
+        request = new RpcMessage("echo", params, null);
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(request);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+    
+    /**
+     * Один виклик з очікуванням відповіді.
+     */
+    @Benchmark
+    public RpcMessage latency() {
+        return client.call("echo", request).join();
+    }
+    
+    /**
+     * Серія викликів без очікування між ними; результат - час на один виклик.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public RpcMessage throughput() {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            futures[i] = client.call("echo", request);
+        }
+        CompletableFuture.allOf(futures).join();
+        return (RpcMessage) futures[BATCH - 1].join();
+    }
+    
+    /**
+     * Та сама серія, надіслана через {@link RpcClient#callBatch} одним записом.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public RpcMessage callBatch() {
+        List<CompletableFuture<RpcMessage>> futures = client.callBatch(batch);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        return futures.get(BATCH - 1).join();
+    }
+    
+    /**
+     * Кодування і декодування повідомлення в буфері з пулу без мережі.
+     */
+    @Benchmark
+    public RpcMessage codec() throws Exception {
+        ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer();
+        try {
+            codec.encode(request, buffer);
+            return codec.decode(buffer);
+        } finally {
+            buffer.release();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.sparky.benchmarks.scheduler;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.sparky.scheduler.Scheduler;
+import com.sparky.scheduler.SimpleScheduler;
+import com.sparky.scheduler.TickProfiler;
+import com.sparky.scheduler.TimingWheelScheduler;
+
+/**
+ * Порівняння {@link SimpleScheduler} і {@link TimingWheelScheduler} на великій
+ * кількості коротких повторюваних таймерів (перезарядки, ефекти).
+ * <p>
+ * Параметр {@code profiler} вимірює накладні витрати {@link TickProfiler} на тік:
+ * {@code off} - без профілювальника, {@code sampled} - час кожної 64-ї задачі,
+ * {@code full} - час кожної задачі. Ціль для {@code sampled} - менше 1% до {@code off}.
+ * <p>
+ * Запуск: {@code mvn -pl sparky-benchmarks -am package && java -jar sparky-benchmarks/target/benchmarks.jar SchedulerBenchmark}
+ *
+ * @author Андрій Будильников
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+    
+    @Param({"simple", "wheel"})
+    private String implementation;
+    
+    @Param({"10000", "100000"})
+    private int timers;
+    
+    @Param({"off", "sampled", "full"})
+    private String profiler;
+    
+    private Scheduler scheduler;
+    private Scheduler cancelScheduler;
+    private long executed;
+    private int operations;
+    private final Runnable task = () -> executed++;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        scheduler = createScheduler();
+        if (!"off".equals(profiler)) {
+            TickProfiler tickProfiler = new TickProfiler("sampled".equals(profiler) ? 64 : 1);
+            if (scheduler instanceof SimpleScheduler simple) {
+                simple.setProfiler(tickProfiler);
+            } else {
+                ((TimingWheelScheduler) scheduler).setProfiler(tickProfiler);
+            }
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < timers; i++) {
+            scheduler.scheduleRepeating(task, random.nextInt(40), 1 + random.nextInt(40));
+        }
+        // Стільки ж довгих таймерів, які не спрацюють під час вимірювання
+        cancelScheduler = createScheduler();
+        for (int i = 0; i < timers; i++) {
+            cancelScheduler.schedule(task, (1L << 40) + i);
+        }
+    }
+    
+    private Scheduler createScheduler() {
+        return "wheel".equals(implementation) ? new TimingWheelScheduler() : new SimpleScheduler();
+    }
+    
+    /**
+     * Один тік з повторюваними таймерами періодом 1-40 тіків.
+     */
+    @Benchmark
+    public long tick() {
+        scheduler.tick();
+        return executed;
+    }
+    
+    /**
+     * Планування і скасування одноразової задачі, як при перериванні перезарядки.
+     * Кожна 64-та операція просуває тік, щоб скасовані задачі не накопичувались безкінечно.
+     */
+    @Benchmark
+    public int scheduleAndCancel() {
+        int taskId = cancelScheduler.schedule(task, 20 + (operations & 1023));
+        cancelScheduler.cancel(taskId);
+        if ((++operations & 63) == 0) {
+            cancelScheduler.tick();
+        }
+        return taskId;
+    }
+}
\ No newline at end of file
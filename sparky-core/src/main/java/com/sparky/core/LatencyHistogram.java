@@ -0,0 +1,139 @@
+package com.sparky.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гістограма затримок з логарифмічно-лінійними кошиками, як у HdrHistogram.
+ * <p>
+ * Кожен степінь двійки ділиться на {@code 2^precisionBits} рівних кошиків,
+ * тому відносна похибка значення не перевищує {@code 2^-precisionBits}.
+ * Усі лічильники виділяються при створенні, запис значення не виділяє
+ * пам'яті і безпечний з кількох потоків. Значення, більші за
+ * {@link #getHighestTrackableValue()}, потрапляють в останній кошик.
+ *
+ * @author Андрій Будильников
+ */
+public class LatencyHistogram {
+    private final int precisionBits;
+    private final int subBucketCount;
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+    
+    /**
+     * Створює гістограму для значень у наносекундах до однієї хвилини з похибкою близько 3%.
+     */
+    public LatencyHistogram() {
+        this(TimeUnit.MINUTES.toNanos(1), 5);
+    }
+    
+    /**
+     * @param highestTrackableValue найбільше значення, яке розрізняє гістограма
+     * @param precisionBits кількість бітів точності всередині степеня двійки (1-16)
+     */
+    public LatencyHistogram(long highestTrackableValue, int precisionBits) {
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("Precision bits must be between 1 and 16: " + precisionBits);
+        }
+        if (highestTrackableValue < 1) {
+            throw new IllegalArgumentException("Highest trackable value must be positive: " + highestTrackableValue);
+        }
+        this.precisionBits = precisionBits;
+        this.subBucketCount = 1 << precisionBits;
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(indexOf(highestTrackableValue) + 1);
+    }
+    
+    /**
+     * Записує значення; від'ємні значення записуються як нуль.
+     */
+    public void record(long value) {
+        long clamped = Math.max(0, Math.min(value, highestTrackableValue));
+        counts.incrementAndGet(indexOf(clamped));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(clamped);
+        if (clamped > maxValue.get()) {
+            maxValue.accumulateAndGet(clamped, Math::max);
+        }
+    }
+    
+    public long getCount() {
+        return totalCount.get();
+    }
+    
+    /**
+     * Повертає суму записаних значень.
+     */
+    public long getTotal() {
+        return totalValue.get();
+    }
+    
+    public long getMax() {
+        return maxValue.get();
+    }
+    
+    public double getMean() {
+        long count = totalCount.get();
+        return count == 0 ? 0.0 : (double) totalValue.get() / count;
+    }
+    
+    /**
+     * Повертає значення, не менше за яке є {@code percentile} відсотків записаних значень.
+     * Результат - верхня межа відповідного кошика, але не більше за максимум.
+     *
+     * @param percentile відсоток від 0 до 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+    
+    /**
+     * Скидає всі лічильники. Значення, записані одночасно зі скиданням, можуть бути частково втрачені.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+    
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+    
+    private int indexOf(long value) {
+        // Значення до 2 * subBucketCount зберігаються точно
+        if (value < 2L * subBucketCount) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+        return shift * subBucketCount + (int) (value >>> shift);
+    }
+    
+    private long highestValueAt(int index) {
+        if (index < 2 * subBucketCount) {
+            return index;
+        }
+        int shift = index / subBucketCount - 1;
+        long subBucket = index % subBucketCount + subBucketCount;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
\ No newline at end of file
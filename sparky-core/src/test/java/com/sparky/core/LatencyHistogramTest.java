@@ -0,0 +1,53 @@
+package com.sparky.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тести для класу LatencyHistogram.
+ *
+ * @author Андрій Будильников
+ */
+class LatencyHistogramTest {
+    
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram(1_000_000, 5);
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(50, histogram.getValueAtPercentile(100));
+        assertEquals(25.5, histogram.getMean(), 1e-9);
+        assertEquals(1275, histogram.getTotal());
+    }
+    
+    @Test
+    void testPercentilesStayWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1_000; value <= 1_000_000; value += 1_000) {
+            histogram.record(value);
+        }
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(Math.abs(p99 - 990_000) <= 990_000 / 32, "p99 was " + p99);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(Math.abs(p50 - 500_000) <= 500_000 / 32, "p50 was " + p50);
+        assertEquals(1_000_000, histogram.getMax());
+    }
+    
+    @Test
+    void testValuesOutsideRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram(10_000, 4);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(10_000, histogram.getMax());
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+        
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,346 @@
+package com.sparky.ecs;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Архетип - група сутностей з однаковим набором компонентів.
+ * <p>
+ * Компоненти кожного типу зберігаються у власній щільній колонці,
+ * тому системи можуть обходити їх послідовно без пошуку в мапах
+ * кожної сутності. Рядок {@code i} кожної колонки належить сутності
+ * {@link #getEntity(int) getEntity(i)}. Дійсні рядки лежать в діапазоні
+ * {@code [0, size())}.
+ * <p>
+ * В архетипі з упакованим зберіганням примітивні поля компонентів
+ * {@link PackedComponent} (позиція, швидкість) додатково лежать у масивах
+ * {@code float[]} по одному на поле ({@link #getFloatColumn(Class, int)}),
+ * що дозволяє системам обробляти їх пакетними циклами.
+ * <p>
+ * Для кожної колонки архетип також зберігає тіки додавання та останньої
+ * зміни компонента в кожному рядку (див. {@link EntityManager#getChangeTick()}),
+ * на яких побудовані фільтри змінених і доданих компонентів {@link Query}.
+ *
+ * @author Андрій Будильников
+ */
+public final class Archetype {
+    private static final int INITIAL_CAPACITY = 16;
+    
+    private final int id;
+    private final ComponentMask mask;
+    private final Class<? extends Component>[] types;
+    private final int[] columnByTypeId;
+    private final Component[][] columns;
+    private final boolean[] packable;
+    private final FloatColumns[] packed;
+    private final long[][] addedTicks;
+    private final long[][] changedTicks;
+    private final Map<Class<? extends Component>, Archetype> addEdges = new HashMap<>();
+    private final Map<Class<? extends Component>, Archetype> removeEdges = new HashMap<>();
+    private Entity[] entities;
+    private int size;
+    
+    Archetype(int id, ComponentMask mask, Class<? extends Component>[] types, boolean packedStorage) {
+        this.id = id;
+        this.mask = mask;
+        this.types = types;
+        this.columns = new Component[types.length][];
+        this.packable = new boolean[types.length];
+        this.packed = new FloatColumns[types.length];
+        this.addedTicks = new long[types.length][INITIAL_CAPACITY];
+        this.changedTicks = new long[types.length][INITIAL_CAPACITY];
+        
+        int maxTypeId = -1;
+        for (Class<? extends Component> type : types) {
+            maxTypeId = Math.max(maxTypeId, ComponentType.idOf(type));
+        }
+        this.columnByTypeId = new int[maxTypeId + 1];
+        Arrays.fill(columnByTypeId, -1);
+        for (int column = 0; column < types.length; column++) {
+            columnByTypeId[ComponentType.idOf(types[column])] = column;
+            columns[column] = (Component[]) Array.newInstance(types[column], INITIAL_CAPACITY);
+            packable[column] = packedStorage && PackedComponent.class.isAssignableFrom(types[column]);
+        }
+        this.entities = new Entity[INITIAL_CAPACITY];
+    }
+    
+    /**
+     * Отримує ідентифікатор архетипу в межах менеджера сутностей.
+     */
+    public int getId() {
+        return id;
+    }
+    
+    /**
+     * Отримує кількість сутностей в архетипі.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Перевіряє, чи порожній архетип.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Отримує сутність у вказаному рядку.
+     *
+     * @param row номер рядка
+     * @return сутність
+     */
+    public Entity getEntity(int row) {
+        return entities[row];
+    }
+    
+    /**
+     * Перевіряє, чи містить архетип компонент вказаного типу.
+     *
+     * @param componentType тип компонента
+     * @return true, якщо сутності архетипу мають цей компонент
+     */
+    public boolean has(Class<? extends Component> componentType) {
+        return columnOf(componentType) >= 0;
+    }
+    
+    /**
+     * Отримує колонку компонентів вказаного типу.
+     * <p>
+     * Повертається сам масив сховища без копіювання, його довжина може
+     * перевищувати {@link #size()}. Масив дійсний лише до наступної
+     * структурної зміни (додавання/видалення сутностей чи компонентів).
+     *
+     * @param componentType тип компонента
+     * @return колонка компонентів або null, якщо архетип не містить цей тип
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Component> T[] getColumn(Class<T> componentType) {
+        int column = columnOf(componentType);
+        return column >= 0 ? (T[]) columns[column] : null;
+    }
+    
+    /**
+     * Отримує упаковану колонку одного поля компонента.
+     * <p>
+     * Для {@link PositionComponent} поля 0, 1, 2 - це x, y, z, для
+     * {@link VelocityComponent} - dx, dy, dz. Як і {@link #getColumn(Class)},
+     * повертає сам масив сховища, дійсний до наступної структурної зміни.
+     *
+     * @param componentType тип компонента
+     * @param field номер поля
+     * @return масив значень поля або null, якщо тип не зберігається упаковано
+     */
+    public float[] getFloatColumn(Class<? extends Component> componentType, int field) {
+        int column = columnOf(componentType);
+        if (column < 0 || packed[column] == null) {
+            return null;
+        }
+        return packed[column].fields[field];
+    }
+    
+    /**
+     * Отримує тік останньої зміни компонента в рядку.
+     *
+     * @param componentType тип компонента
+     * @param row номер рядка
+     * @return тік зміни або 0, якщо архетип не містить цей тип
+     */
+    public long getChangedTick(Class<? extends Component> componentType, int row) {
+        int column = columnOf(componentType);
+        return column >= 0 ? changedTicks[column][row] : 0;
+    }
+    
+    /**
+     * Отримує тік додавання компонента в рядку.
+     *
+     * @param componentType тип компонента
+     * @param row номер рядка
+     * @return тік додавання або 0, якщо архетип не містить цей тип
+     */
+    public long getAddedTick(Class<? extends Component> componentType, int row) {
+        int column = columnOf(componentType);
+        return column >= 0 ? addedTicks[column][row] : 0;
+    }
+    
+    /**
+     * Отримує набір типів компонентів архетипу.
+     */
+    public Set<Class<? extends Component>> getComponentTypes() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(types)));
+    }
+    
+    ComponentMask getMask() {
+        return mask;
+    }
+    
+    Class<? extends Component>[] getTypes() {
+        return types;
+    }
+    
+    int columnOf(Class<? extends Component> componentType) {
+        int typeId = ComponentType.findId(componentType);
+        return typeId >= 0 && typeId < columnByTypeId.length ? columnByTypeId[typeId] : -1;
+    }
+    
+    Component get(int column, int row) {
+        return columns[column][row];
+    }
+    
+    void set(int column, int row, Component component) {
+        if (packable[column]) {
+            FloatColumns store = packed[column];
+            if (store == null) {
+                store = new FloatColumns(((PackedComponent) component).packedWidth(), entities.length);
+                packed[column] = store;
+            }
+            Component previous = columns[column][row];
+            if (previous != null && previous != component) {
+                ((PackedComponent) previous).unpack(store);
+            }
+            ((PackedComponent) component).pack(store, row);
+        }
+        columns[column][row] = component;
+        component.owner = entities[row];
+    }
+    
+    /**
+     * Отримує масив тіків змін колонки. Як і колонки компонентів, масив
+     * дійсний лише до наступної структурної зміни.
+     */
+    long[] getChangedTicks(int column) {
+        return changedTicks[column];
+    }
+    
+    long[] getAddedTicks(int column) {
+        return addedTicks[column];
+    }
+    
+    /**
+     * Записує тік появи компонента в рядку; додавання вважається і зміною.
+     */
+    void markAdded(int column, int row, long tick) {
+        addedTicks[column][row] = tick;
+        changedTicks[column][row] = tick;
+    }
+    
+    void markChanged(int column, int row, long tick) {
+        changedTicks[column][row] = tick;
+    }
+    
+    /**
+     * Записує тік зміни компонента, якщо він лежить у вказаному рядку.
+     */
+    void markChanged(Component component, int row, long tick) {
+        int typeId = component.getTypeId();
+        if (typeId < columnByTypeId.length) {
+            int column = columnByTypeId[typeId];
+            if (column >= 0 && columns[column][row] == component) {
+                changedTicks[column][row] = tick;
+            }
+        }
+    }
+    
+    /**
+     * Копіює тіки компонента з рядка іншого архетипу при переміщенні сутності.
+     */
+    void copyTicks(int column, int row, Archetype source, int sourceColumn, int sourceRow) {
+        addedTicks[column][row] = source.addedTicks[sourceColumn][sourceRow];
+        changedTicks[column][row] = source.changedTicks[sourceColumn][sourceRow];
+    }
+    
+    Archetype getAddEdge(Class<? extends Component> componentType) {
+        return addEdges.get(componentType);
+    }
+    
+    void setAddEdge(Class<? extends Component> componentType, Archetype target) {
+        addEdges.put(componentType, target);
+    }
+    
+    Archetype getRemoveEdge(Class<? extends Component> componentType) {
+        return removeEdges.get(componentType);
+    }
+    
+    void setRemoveEdge(Class<? extends Component> componentType, Archetype target) {
+        removeEdges.put(componentType, target);
+    }
+    
+    /**
+     * Додає сутність у кінець архетипу. Колонки нового рядка лишаються порожніми
+     * і мають бути заповнені викликаючим кодом.
+     *
+     * @return номер нового рядка
+     */
+    int addRow(Entity entity) {
+        if (size == entities.length) {
+            grow();
+        }
+        int row = size++;
+        entities[row] = entity;
+        entity.attach(this, row);
+        return row;
+    }
+    
+    /**
+     * Видаляє рядок, переміщуючи на його місце останній рядок архетипу.
+     */
+    void removeRow(int row) {
+        int last = --size;
+        for (int column = 0; column < columns.length; column++) {
+            Component removed = columns[column][row];
+            if (packed[column] != null && removed != null) {
+                // Компонент зберігає свої значення після видалення рядка
+                ((PackedComponent) removed).unpack(packed[column]);
+            }
+        }
+        if (row != last) {
+            Entity moved = entities[last];
+            entities[row] = moved;
+            moved.attach(this, row);
+            for (int column = 0; column < columns.length; column++) {
+                Component component = columns[column][last];
+                columns[column][row] = component;
+                addedTicks[column][row] = addedTicks[column][last];
+                changedTicks[column][row] = changedTicks[column][last];
+                if (packed[column] != null) {
+                    packed[column].copyRow(last, row);
+                    if (component != null) {
+                        ((PackedComponent) component).moveTo(packed[column], row);
+                    }
+                }
+            }
+        }
+        entities[last] = null;
+        for (Component[] column : columns) {
+            column[last] = null;
+        }
+    }
+    
+    private void grow() {
+        int capacity = entities.length * 2;
+        entities = Arrays.copyOf(entities, capacity);
+        for (int column = 0; column < columns.length; column++) {
+            columns[column] = Arrays.copyOf(columns[column], capacity);
+            addedTicks[column] = Arrays.copyOf(addedTicks[column], capacity);
+            changedTicks[column] = Arrays.copyOf(changedTicks[column], capacity);
+            if (packed[column] != null) {
+                packed[column].grow(capacity);
+            }
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "Archetype{" +
+                "id=" + id +
+                ", types=" + Arrays.toString(types) +
+                ", size=" + size +
+                '}';
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.sparky.ecs;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -8,43 +9,193 @@ import java.util.Set;
  * Система виявлення колізій.
  * <p>
  * Перевіряє перетини між сутностями з компонентами колізій.
+ * <p>
+ * Широка фаза використовує {@link SpatialHashGrid}: обмежувальні прямокутники
+ * колайдерів реєструються в клітинках сітки, і до
+ * {@link CollisionComponent#intersects} доходять лише пари зі спільною
+ * клітинкою. Колайдери ідентифікуються в сітці своїм номером у зібраному
+ * за тік списку; поки порядок сутностей в архетипах не змінюється, сітка
+ * оновлюється лише для тих, хто перетнув межу клітинки.
  *
  * @author Андрій Будильников
  */
 public class CollisionSystem extends System {
+    /**
+     * Розмір клітинки сітки за замовчуванням - удвічі більший за стандартний колайдер.
+     */
+    public static final float DEFAULT_CELL_SIZE = 2.0f;
+    
+    // Буфери колайдерів, зібраних з колонок архетипів; перевикористовуються між тіками
+    private Entity[] colliderEntities = new Entity[0];
+    private CollisionComponent[] colliderShapes = new CollisionComponent[0];
+    private PositionComponent[] colliderPositions = new PositionComponent[0];
+    
+    private final SpatialHashGrid grid = new SpatialHashGrid(DEFAULT_CELL_SIZE);
+    private final SpatialHashGrid.PairConsumer pairTest = this::testPair;
+    private int gridColliderCount;
+    private boolean broadphaseEnabled = true;
+    private long pairTestCount;
     
     @Override
     public void update(List<Entity> entities) {
-        // Перевіряємо колізії між усіма парами сутностей
-        for (int i = 0; i < entities.size(); i++) {
-            Entity entityA = entities.get(i);
-            
-            // Перевіряємо, чи має сутність необхідні компоненти
-            if (!entityA.hasComponent(CollisionComponent.class) || !entityA.hasComponent(PositionComponent.class)) {
+        // Збираємо сутності з необхідними компонентами у ті самі буфери, що й шлях через колонки
+        ensureCapacity(entities.size());
+        int count = 0;
+        for (Entity entity : entities) {
+            CollisionComponent collision = entity.getComponent(CollisionComponent.class);
+            PositionComponent position = entity.getComponent(PositionComponent.class);
+            if (collision == null || position == null) {
                 continue;
             }
-            
-            CollisionComponent collisionA = entityA.getComponent(CollisionComponent.class);
-            PositionComponent positionA = entityA.getComponent(PositionComponent.class);
-            
-            for (int j = i + 1; j < entities.size(); j++) {
-                Entity entityB = entities.get(j);
-                
-                // Перевіряємо, чи має сутність необхідні компоненти
-                if (!entityB.hasComponent(CollisionComponent.class) || !entityB.hasComponent(PositionComponent.class)) {
-                    continue;
-                }
-                
-                CollisionComponent collisionB = entityB.getComponent(CollisionComponent.class);
-                PositionComponent positionB = entityB.getComponent(PositionComponent.class);
-                
-                // Перевіряємо перетин
-                if (collisionA.intersects(collisionB, positionA, positionB)) {
-                    // Обробляємо колізію
-                    handleCollision(entityA, entityB, collisionA, collisionB, positionA, positionB);
+            colliderEntities[count] = entity;
+            colliderShapes[count] = collision;
+            colliderPositions[count] = position;
+            count++;
+        }
+        detectCollisions(count);
+    }
+    
+    /**
+     * Перевіряє колізії, збираючи колайдери з колонок архетипів без пошуку компонентів у сутностях.
+     */
+    @Override
+    public void update() {
+        if (entityManager == null) {
+            return;
+        }
+        
+        detectCollisions(collectColliders());
+    }
+    
+    /**
+     * Перевіряє колізії між зібраними колайдерами {@code [0, count)}.
+     */
+    private void detectCollisions(int count) {
+        pairTestCount = 0;
+        if (broadphaseEnabled) {
+            for (int i = 0; i < count; i++) {
+                updateBounds(i);
+            }
+            // Колайдери, яких цього тіку менше, ніж минулого, видаляємо з сітки
+            for (int i = count; i < gridColliderCount; i++) {
+                grid.remove(i);
+            }
+            gridColliderCount = count;
+            grid.forEachCandidatePair(pairTest);
+        } else {
+            for (int i = 0; i < count; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    testPair(i, j);
                 }
             }
         }
+        
+        // Не утримуємо посилання на сутності між тіками
+        Arrays.fill(colliderEntities, 0, count, null);
+        Arrays.fill(colliderShapes, 0, count, null);
+        Arrays.fill(colliderPositions, 0, count, null);
+    }
+    
+    private void testPair(int i, int j) {
+        pairTestCount++;
+        if (colliderShapes[i].intersects(colliderShapes[j], colliderPositions[i], colliderPositions[j])) {
+            handleCollision(colliderEntities[i], colliderEntities[j], colliderShapes[i], colliderShapes[j],
+                    colliderPositions[i], colliderPositions[j]);
+        }
+    }
+    
+    /**
+     * Оновлює обмежувальний прямокутник колайдера в сітці.
+     */
+    private void updateBounds(int index) {
+        CollisionComponent shape = colliderShapes[index];
+        PositionComponent position = colliderPositions[index];
+        float halfWidth;
+        float halfHeight;
+        if (shape.getShape() == CollisionComponent.Shape.RECTANGLE || shape.getShape() == CollisionComponent.Shape.BOX) {
+            halfWidth = shape.getWidth() / 2;
+            halfHeight = shape.getHeight() / 2;
+        } else {
+            halfWidth = shape.getRadius();
+            halfHeight = shape.getRadius();
+        }
+        float centerX = position.getX() + shape.getOffsetX();
+        float centerY = position.getY() + shape.getOffsetY();
+        grid.update(index, centerX - halfWidth, centerY - halfHeight, centerX + halfWidth, centerY + halfHeight);
+    }
+    
+    /**
+     * Збирає всі сутності з компонентами колізії та позиції у внутрішні буфери.
+     *
+     * @return кількість зібраних колайдерів
+     */
+    private int collectColliders() {
+        Query query = getQuery();
+        int count = 0;
+        for (int i = 0, archetypeCount = query.getArchetypeCount(); i < archetypeCount; i++) {
+            Archetype archetype = query.getArchetype(i);
+            int size = archetype.size();
+            ensureCapacity(count + size);
+            CollisionComponent[] shapes = archetype.getColumn(CollisionComponent.class);
+            PositionComponent[] positions = archetype.getColumn(PositionComponent.class);
+            java.lang.System.arraycopy(shapes, 0, colliderShapes, count, size);
+            java.lang.System.arraycopy(positions, 0, colliderPositions, count, size);
+            for (int row = 0; row < size; row++) {
+                colliderEntities[count + row] = archetype.getEntity(row);
+            }
+            count += size;
+        }
+        return count;
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (colliderEntities.length < capacity) {
+            int newCapacity = Math.max(capacity, colliderEntities.length * 2);
+            colliderEntities = Arrays.copyOf(colliderEntities, newCapacity);
+            colliderShapes = Arrays.copyOf(colliderShapes, newCapacity);
+            colliderPositions = Arrays.copyOf(colliderPositions, newCapacity);
+        }
+    }
+    
+    /**
+     * Встановлює розмір клітинки сітки широкої фази.
+     * <p>
+     * Оптимально - близько розміру типового колайдера або трохи більше.
+     *
+     * @param cellSize розмір клітинки
+     */
+    public void setCellSize(float cellSize) {
+        grid.setCellSize(cellSize);
+        gridColliderCount = 0;
+    }
+    
+    /**
+     * Отримує розмір клітинки сітки широкої фази.
+     */
+    public float getCellSize() {
+        return grid.getCellSize();
+    }
+    
+    /**
+     * Вмикає або вимикає широку фазу. Без неї перевіряються всі пари колайдерів.
+     *
+     * @param broadphaseEnabled true для використання просторової сітки
+     */
+    public void setBroadphaseEnabled(boolean broadphaseEnabled) {
+        this.broadphaseEnabled = broadphaseEnabled;
+        grid.clear();
+        gridColliderCount = 0;
+    }
+    
+    public boolean isBroadphaseEnabled() {
+        return broadphaseEnabled;
+    }
+    
+    /**
+     * Отримує кількість перевірок {@link CollisionComponent#intersects} за останнє оновлення.
+     */
+    public long getPairTestCount() {
+        return pairTestCount;
     }
     
     /**
@@ -108,4 +259,30 @@ public class CollisionSystem extends System {
         required.add(PositionComponent.class);
         return required;
     }
+    
+    /**
+     * Отримує набір компонентів, які система лише читає.
+     *
+     * @return набір компонентів для читання
+     */
+    @Override
+    public Set<Class<? extends Component>> getReadComponents() {
+        Set<Class<? extends Component>> read = new HashSet<>();
+        read.add(CollisionComponent.class);
+        read.add(PositionComponent.class);
+        read.add(PhysicsComponent.class);
+        return read;
+    }
+    
+    /**
+     * Отримує набір компонентів, які система змінює.
+     *
+     * @return набір компонентів для запису
+     */
+    @Override
+    public Set<Class<? extends Component>> getWriteComponents() {
+        Set<Class<? extends Component>> write = new HashSet<>();
+        write.add(VelocityComponent.class);
+        return write;
+    }
 }
\ No newline at end of file
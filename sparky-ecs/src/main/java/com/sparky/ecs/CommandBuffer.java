@@ -0,0 +1,174 @@
+package com.sparky.ecs;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Буфер відкладених структурних змін ECS.
+ * <p>
+ * Системи, що обходять запити, не повинні створювати чи видаляти сутності
+ * і змінювати набір їхніх компонентів напряму - це переміщує сутності між
+ * архетипами під час обходу. Замість цього зміни записуються в буфер і
+ * застосовуються разом у точці синхронізації ({@link #playback()}).
+ * <p>
+ * Зміни однієї сутності об'єднуються: повторне додавання компонента
+ * замінює попереднє, видалення скасовує додавання, а видалення сутності
+ * скасовує всі її зміни. Під час відтворення кожна сутність переноситься
+ * в кінцевий архетип не більше одного разу.
+ * <p>
+ * Буфер не є потокобезпечним: для паралельного обходу кожна частина
+ * повинна мати власний буфер ({@link EntityManager#createCommandBuffer()}).
+ *
+ * @author Андрій Будильников
+ */
+public class CommandBuffer {
+    private final EntityManager entityManager;
+    private final Map<Integer, PendingChange> changes = new LinkedHashMap<>();
+    
+    CommandBuffer(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+    
+    /**
+     * Резервує ідентифікатор і записує створення нової сутності.
+     * <p>
+     * Повернута сутність не керується менеджером до відтворення буфера;
+     * компоненти можна додавати до неї напряму або через
+     * {@link #addComponent(Entity, Component)}.
+     *
+     * @return нова сутність
+     */
+    public Entity createEntity() {
+        Entity entity = new Entity(entityManager.reserveEntityId());
+        PendingChange change = new PendingChange(entity);
+        change.created = true;
+        changes.put(entity.getId(), change);
+        return entity;
+    }
+    
+    /**
+     * Записує видалення сутності.
+     *
+     * @param entity сутність
+     */
+    public void destroyEntity(Entity entity) {
+        PendingChange change = changeFor(entity);
+        change.destroyed = true;
+        change.added.clear();
+        change.removed.clear();
+    }
+    
+    /**
+     * Записує додавання компонента до сутності.
+     *
+     * @param entity сутність
+     * @param component компонент
+     */
+    public void addComponent(Entity entity, Component component) {
+        PendingChange change = changeFor(entity);
+        if (change.destroyed) {
+            return;
+        }
+        change.removed.remove(component.getClass());
+        change.added.put(component.getClass(), component);
+    }
+    
+    /**
+     * Записує видалення компонента з сутності.
+     *
+     * @param entity сутність
+     * @param componentType тип компонента
+     */
+    public void removeComponent(Entity entity, Class<? extends Component> componentType) {
+        PendingChange change = changeFor(entity);
+        if (change.destroyed) {
+            return;
+        }
+        change.added.remove(componentType);
+        if (change.created) {
+            // Нова сутність ще від'єднана, тож її власні компоненти можна прибрати одразу
+            entity.removeComponent(componentType);
+        } else {
+            change.removed.add(componentType);
+        }
+    }
+    
+    /**
+     * Перевіряє, чи немає записаних змін.
+     */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+    
+    /**
+     * Отримує кількість сутностей, для яких записані зміни.
+     */
+    public int size() {
+        return changes.size();
+    }
+    
+    /**
+     * Відкидає всі записані зміни.
+     */
+    public void clear() {
+        changes.clear();
+    }
+    
+    /**
+     * Застосовує всі записані зміни в порядку першого запису для кожної
+     * сутності і очищує буфер.
+     * <p>
+     * Має викликатися з потоку, що виконує структурні зміни менеджера,
+     * коли жодна система не обходить сутності.
+     */
+    public void playback() {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<PendingChange> pending = new ArrayList<>(changes.values());
+        changes.clear();
+        for (PendingChange change : pending) {
+            if (change.created) {
+                if (!change.destroyed) {
+                    entityManager.insertEntity(change.entity, change.added.values());
+                } else {
+                    entityManager.releaseEntityId(change.entity.getId());
+                }
+            } else if (change.destroyed) {
+                if (entityManager.getEntity(change.entity.getId()) == change.entity) {
+                    entityManager.removeEntity(change.entity.getId());
+                }
+            } else {
+                entityManager.applyComponentChanges(change.entity, change.added, change.removed);
+            }
+        }
+    }
+    
+    private PendingChange changeFor(Entity entity) {
+        PendingChange change = changes.get(entity.getId());
+        if (change == null) {
+            change = new PendingChange(entity);
+            changes.put(entity.getId(), change);
+        }
+        return change;
+    }
+    
+    /**
+     * Об'єднані зміни однієї сутності.
+     */
+    private static final class PendingChange {
+        final Entity entity;
+        final Map<Class<? extends Component>, Component> added = new LinkedHashMap<>();
+        final Set<Class<? extends Component>> removed = new HashSet<>();
+        boolean created;
+        boolean destroyed;
+        
+        PendingChange(Entity entity) {
+            this.entity = entity;
+        }
+    }
+}
\ No newline at end of file
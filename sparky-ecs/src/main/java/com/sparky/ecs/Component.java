@@ -2,11 +2,19 @@ package com.sparky.ecs;
 
 /**
  * Базовий клас для компонентів ECS.
+ * <p>
+ * Компонент, що лежить в архетипі, знає свою сутність, тож сетери можуть
+ * позначати його зміненим через {@link #markChanged()}. Позначка потрапляє
+ * в тіки змін колонки архетипу, за якими працюють фільтри
+ * {@link Query#forEachChanged(Class, long, java.util.function.Consumer)}.
  *
  * @author Андрій Будильников
  */
 public abstract class Component {
     private int entityId;
+    // Сутність, в рядку якої лежить компонент; встановлюється архетипом
+    Entity owner;
+    private int typeId = -1;
     
     public int getEntityId() {
         return entityId;
@@ -15,4 +23,26 @@ public abstract class Component {
     public void setEntityId(int entityId) {
         this.entityId = entityId;
     }
+    
+    /**
+     * Позначає компонент зміненим у поточному тіку менеджера сутностей.
+     * <p>
+     * Вбудовані компоненти позиції та швидкості викликають цей метод зі
+     * своїх сетерів, коли значення дійсно змінюється. Інші компоненти мають
+     * викликати його самі після зміни своїх полів. Для компонента поза
+     * менеджером виклик нічого не робить.
+     */
+    public void markChanged() {
+        Entity entity = owner;
+        if (entity != null) {
+            entity.markChanged(this);
+        }
+    }
+    
+    int getTypeId() {
+        if (typeId < 0) {
+            typeId = ComponentType.idOf(getClass());
+        }
+        return typeId;
+    }
 }
\ No newline at end of file
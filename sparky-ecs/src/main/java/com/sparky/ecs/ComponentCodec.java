@@ -0,0 +1,46 @@
+package com.sparky.ecs;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Двійковий кодек компонента для знімків світу ({@link WorldSnapshot}).
+ * <p>
+ * Кодек записує лише поля компонента; ідентифікатор сутності та тип
+ * компонента зберігає сам знімок. Буфери, що передаються кодеку, мають
+ * порядок байтів little-endian.
+ *
+ * @param <T> тип компонента
+ * @author Андрій Будильников
+ */
+public interface ComponentCodec<T extends Component> {
+    
+    /**
+     * Отримує розмір закодованого компонента в байтах.
+     * <p>
+     * Знімок гарантує, що перед {@link #encode} у буфері є щонайменше
+     * стільки вільного місця.
+     *
+     * @param component компонент
+     * @return розмір у байтах
+     */
+    int encodedSize(T component);
+    
+    /**
+     * Записує поля компонента в буфер.
+     *
+     * @param component компонент
+     * @param buffer буфер для запису
+     */
+    void encode(T component, ByteBuffer buffer);
+    
+    /**
+     * Створює компонент з полів, записаних {@link #encode}.
+     * <p>
+     * На пошкоджених даних кодек може кинути будь-який неперевірюваний
+     * виняток; знімок повідомляє про нього як про {@link java.io.IOException}.
+     *
+     * @param buffer буфер для читання
+     * @return новий компонент
+     */
+    T decode(ByteBuffer buffer);
+}
\ No newline at end of file
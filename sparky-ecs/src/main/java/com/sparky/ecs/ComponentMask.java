@@ -0,0 +1,109 @@
+package com.sparky.ecs;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Незмінна бітова маска набору типів компонентів.
+ *
+ * @author Андрій Будильников
+ */
+final class ComponentMask {
+    static final ComponentMask EMPTY = new ComponentMask(new long[0]);
+    
+    private final long[] words;
+    private final int hash;
+    
+    private ComponentMask(long[] words) {
+        this.words = words;
+        this.hash = Arrays.hashCode(words);
+    }
+    
+    /**
+     * Створює маску з набору класів компонентів.
+     */
+    static ComponentMask of(Collection<Class<? extends Component>> types) {
+        ComponentMask mask = EMPTY;
+        for (Class<? extends Component> type : types) {
+            mask = mask.with(ComponentType.idOf(type));
+        }
+        return mask;
+    }
+    
+    boolean has(int typeId) {
+        int word = typeId >>> 6;
+        return word < words.length && (words[word] & (1L << typeId)) != 0;
+    }
+    
+    ComponentMask with(int typeId) {
+        if (has(typeId)) {
+            return this;
+        }
+        long[] copy = Arrays.copyOf(words, Math.max(words.length, (typeId >>> 6) + 1));
+        copy[typeId >>> 6] |= 1L << typeId;
+        return new ComponentMask(copy);
+    }
+    
+    ComponentMask without(int typeId) {
+        if (!has(typeId)) {
+            return this;
+        }
+        long[] copy = words.clone();
+        copy[typeId >>> 6] &= ~(1L << typeId);
+        // Обрізаємо нульові слова, щоб рівні маски мали однакове представлення
+        int length = copy.length;
+        while (length > 0 && copy[length - 1] == 0) {
+            length--;
+        }
+        return new ComponentMask(length == copy.length ? copy : Arrays.copyOf(copy, length));
+    }
+    
+    /**
+     * Перевіряє, чи містить ця маска всі біти іншої маски.
+     */
+    boolean containsAll(ComponentMask other) {
+        if (other.words.length > words.length) {
+            for (int i = words.length; i < other.words.length; i++) {
+                if (other.words[i] != 0) {
+                    return false;
+                }
+            }
+        }
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            if ((words[i] & other.words[i]) != other.words[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Перевіряє, чи має ця маска хоча б один спільний біт з іншою.
+     */
+    boolean intersects(ComponentMask other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    boolean isEmpty() {
+        return words.length == 0;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof ComponentMask)) return false;
+        return Arrays.equals(words, ((ComponentMask) obj).words);
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
\ No newline at end of file
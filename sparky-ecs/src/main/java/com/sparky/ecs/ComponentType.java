@@ -0,0 +1,45 @@
+package com.sparky.ecs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реєстр числових ідентифікаторів типів компонентів.
+ * <p>
+ * Кожному класу компонента призначається невеликий послідовний номер,
+ * який використовується як індекс у масках та таблицях колонок архетипів.
+ *
+ * @author Андрій Будильников
+ */
+final class ComponentType {
+    private static final Map<Class<? extends Component>, Integer> ids = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextId = new AtomicInteger();
+    
+    private ComponentType() {}
+    
+    /**
+     * Отримує ідентифікатор типу компонента, реєструючи його за потреби.
+     *
+     * @param type клас компонента
+     * @return ідентифікатор типу
+     */
+    static int idOf(Class<? extends Component> type) {
+        Integer id = ids.get(type);
+        if (id != null) {
+            return id;
+        }
+        return ids.computeIfAbsent(type, k -> nextId.getAndIncrement());
+    }
+    
+    /**
+     * Отримує ідентифікатор типу без реєстрації.
+     *
+     * @param type клас компонента
+     * @return ідентифікатор типу або -1, якщо тип ще не зареєстровано
+     */
+    static int findId(Class<? extends Component> type) {
+        Integer id = ids.get(type);
+        return id != null ? id : -1;
+    }
+}
\ No newline at end of file
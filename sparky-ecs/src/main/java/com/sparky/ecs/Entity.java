@@ -5,12 +5,19 @@ import java.util.Map;
 
 /**
  * Представляє сутність в ECS.
+ * <p>
+ * Сутність, створена через {@link EntityManager}, не зберігає компоненти
+ * сама - вона є фасадом над рядком свого {@link Archetype}. Сутність,
+ * створена напряму, зберігає компоненти у власній мапі.
  *
  * @author Андрій Будильников
  */
 public class Entity {
     private final int id;
-    private final Map<Class<? extends Component>, Component> components = new HashMap<>();
+    private Map<Class<? extends Component>, Component> components = new HashMap<>();
+    private EntityManager manager;
+    private Archetype archetype;
+    private int row = -1;
     
     public Entity(int id) {
         this.id = id;
@@ -21,19 +28,34 @@ public class Entity {
     }
     
     public <T extends Component> void addComponent(T component) {
+        if (manager != null) {
+            manager.addComponentToEntity(this, component);
+            return;
+        }
         component.setEntityId(id);
         components.put(component.getClass(), component);
     }
     
     public <T extends Component> T getComponent(Class<T> componentClass) {
+        if (archetype != null) {
+            int column = archetype.columnOf(componentClass);
+            return column >= 0 ? componentClass.cast(archetype.get(column, row)) : null;
+        }
         return componentClass.cast(components.get(componentClass));
     }
     
     public <T extends Component> boolean hasComponent(Class<T> componentClass) {
+        if (archetype != null) {
+            return archetype.has(componentClass);
+        }
         return components.containsKey(componentClass);
     }
     
     public <T extends Component> void removeComponent(Class<T> componentClass) {
+        if (manager != null) {
+            manager.removeComponentFromEntity(this, componentClass);
+            return;
+        }
         components.remove(componentClass);
     }
     
@@ -43,6 +65,14 @@ public class Entity {
      * @return мапа компонентів
      */
     public Map<Class<? extends Component>, Component> getComponents() {
+        if (archetype != null) {
+            Class<? extends Component>[] types = archetype.getTypes();
+            Map<Class<? extends Component>, Component> result = new HashMap<>();
+            for (int column = 0; column < types.length; column++) {
+                result.put(types[column], archetype.get(column, row));
+            }
+            return result;
+        }
         return new HashMap<>(components);
     }
     
@@ -52,9 +82,66 @@ public class Entity {
      * @return кількість компонентів
      */
     public int getComponentCount() {
+        if (archetype != null) {
+            return archetype.getTypes().length;
+        }
         return components.size();
     }
     
+    /**
+     * Отримує архетип, в якому зберігаються компоненти сутності.
+     *
+     * @return архетип або null, якщо сутність не керується менеджером
+     */
+    public Archetype getArchetype() {
+        return archetype;
+    }
+    
+    /**
+     * Прив'язує сутність до менеджера. Компоненти, додані до прив'язки,
+     * мають бути перенесені менеджером у сховище архетипів.
+     */
+    void bind(EntityManager manager) {
+        this.manager = manager;
+        this.components = null;
+    }
+    
+    /**
+     * Від'єднує сутність від менеджера, копіюючи компоненти в локальну мапу,
+     * щоб застарілі посилання на сутність залишались працездатними.
+     */
+    void unbind() {
+        Map<Class<? extends Component>, Component> snapshot = getComponents();
+        this.manager = null;
+        this.archetype = null;
+        this.row = -1;
+        this.components = snapshot;
+    }
+    
+    EntityManager getManager() {
+        return manager;
+    }
+    
+    void attach(Archetype archetype, int row) {
+        this.archetype = archetype;
+        this.row = row;
+    }
+    
+    int getRow() {
+        return row;
+    }
+    
+    /**
+     * Записує поточний тік менеджера як тік зміни компонента, якщо він
+     * досі лежить у рядку цієї сутності.
+     */
+    void markChanged(Component component) {
+        Archetype current = archetype;
+        if (current != null) {
+            current.markChanged(component, row, manager.getChangeTick());
+        }
+    }
+    
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -72,7 +159,7 @@ public class Entity {
     public String toString() {
         return "Entity{" +
                 "id=" + id +
-                ", components=" + components.size() +
+                ", components=" + getComponentCount() +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.sparky.ecs;
+
+/**
+ * Упаковка ідентифікаторів сутностей з поколіннями.
+ * <p>
+ * Ідентифікатор сутності - додатний int, у якому молодші 22 біти є
+ * індексом слота в менеджері, а наступні 9 бітів - поколінням слота.
+ * Коли сутність видаляється, її індекс повторно використовується з
+ * наступним поколінням, тому застарілий ідентифікатор не знаходить нову
+ * сутність у тому самому слоті. Перше покоління дорівнює нулю, тож
+ * ідентифікатор сутності, що вперше займає слот, збігається з індексом.
+ * <p>
+ * Покоління повертається до нуля після 512 перевикористань слота.
+ *
+ * @author Андрій Будильников
+ */
+public final class EntityId {
+    /**
+     * Кількість бітів індексу.
+     */
+    public static final int INDEX_BITS = 22;
+    
+    /**
+     * Кількість бітів покоління.
+     */
+    public static final int GENERATION_BITS = 9;
+    
+    /**
+     * Максимальний індекс слота.
+     */
+    public static final int MAX_INDEX = (1 << INDEX_BITS) - 1;
+    
+    private static final int GENERATION_MASK = (1 << GENERATION_BITS) - 1;
+    
+    private EntityId() {
+    }
+    
+    /**
+     * Пакує індекс і покоління в ідентифікатор.
+     *
+     * @param index індекс слота
+     * @param generation покоління слота
+     * @return ідентифікатор сутності
+     */
+    public static int of(int index, int generation) {
+        return ((generation & GENERATION_MASK) << INDEX_BITS) | (index & MAX_INDEX);
+    }
+    
+    /**
+     * Отримує індекс слота з ідентифікатора.
+     */
+    public static int indexOf(int id) {
+        return id & MAX_INDEX;
+    }
+    
+    /**
+     * Отримує покоління з ідентифікатора.
+     */
+    public static int generationOf(int id) {
+        return (id >>> INDEX_BITS) & GENERATION_MASK;
+    }
+    
+    /**
+     * Отримує ідентифікатор того самого слота в наступному поколінні.
+     */
+    public static int nextGeneration(int id) {
+        return of(indexOf(id), generationOf(id) + 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.sparky.ecs;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Виділяє ідентифікатори сутностей без глобального блокування.
+ * <p>
+ * Звільнені ідентифікатори (вже з наступним поколінням) спершу
+ * накопичуються у списку очікування, який змінює лише потік структурних
+ * змін. Для видачі вони публікуються блоком: потоки, що резервують
+ * ідентифікатори, забирають елементи блоку атомарним курсором, а коли
+ * блок вичерпано - беруть новий індекс з лічильника. Заміна блоку
+ * закриває старий курсор через getAndSet, тому кожен ідентифікатор буде
+ * виданий рівно один раз, а невидані повертаються в список очікування.
+ * <p>
+ * Список очікування захищений монітором алокатора. Потік структурних змін
+ * бере його без конкуренції, а потоки резервування - лише коли простір
+ * індексів вичерпано: тоді вони публікують список очікування самі, щоб
+ * не відмовити, поки звільнені ідентифікатори ще не видані.
+ *
+ * @author Андрій Будильников
+ */
+final class EntityIdAllocator {
+    // Значення курсора закритого блоку; достатньо велике, щоб паралельні інкременти не переповнили int
+    private static final int CLOSED = Integer.MAX_VALUE >> 1;
+    
+    private final AtomicInteger nextIndex = new AtomicInteger(1);
+    private final AtomicReference<FreeBlock> freeBlock = new AtomicReference<>(new FreeBlock(new int[0]));
+    private int[] pending = new int[16];
+    private int pendingCount;
+    
+    /**
+     * Резервує ідентифікатор. Може викликатися з будь-якого потоку.
+     *
+     * @return новий ідентифікатор
+     * @throws IllegalStateException якщо вичерпано простір індексів
+     */
+    int allocate() {
+        FreeBlock block = freeBlock.get();
+        int slot = block.cursor.getAndIncrement();
+        if (slot < block.ids.length) {
+            return block.ids[slot];
+        }
+        
+        // Після вичерпання лічильник не інкрементується, щоб повторні спроби не переповнили його
+        if (nextIndex.get() <= EntityId.MAX_INDEX) {
+            int index = nextIndex.getAndIncrement();
+            if (index <= EntityId.MAX_INDEX) {
+                return index;
+            }
+        }
+        return allocatePending();
+    }
+    
+    /**
+     * Видає ідентифікатор зі списку очікування, коли нових індексів не лишилося.
+     */
+    private synchronized int allocatePending() {
+        while (true) {
+            FreeBlock block = freeBlock.get();
+            int slot = block.cursor.getAndIncrement();
+            if (slot < block.ids.length) {
+                return block.ids[slot];
+            }
+            if (pendingCount == 0) {
+                throw new IllegalStateException("Entity index space exhausted: " + EntityId.MAX_INDEX
+                        + " live entities");
+            }
+            publish();
+        }
+    }
+    
+    /**
+     * Повертає ідентифікатор видаленої сутності для повторного використання
+     * з наступним поколінням. Викликається лише з потоку структурних змін.
+     *
+     * @param id ідентифікатор видаленої сутності
+     */
+    synchronized void release(int id) {
+        if (pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, pendingCount * 2);
+        }
+        pending[pendingCount++] = EntityId.nextGeneration(id);
+        refresh();
+    }
+    
+    /**
+     * Публікує звільнені ідентифікатори для видачі, коли їх накопичилося
+     * не менше, ніж лишилося в поточному блоці. Так кожен ідентифікатор
+     * копіюється в середньому сталу кількість разів. Викликається лише з
+     * потоку структурних змін.
+     */
+    synchronized void refresh() {
+        FreeBlock block = freeBlock.get();
+        int remaining = block.ids.length - Math.min(block.cursor.get(), block.ids.length);
+        if (pendingCount > 0 && pendingCount >= remaining) {
+            publish();
+        }
+    }
+    
+    /**
+     * Публікує звільнені ідентифікатори для видачі, замінюючи поточний блок.
+     * Викликається лише з потоку структурних змін.
+     */
+    synchronized void publish() {
+        if (pendingCount == 0) {
+            return;
+        }
+        FreeBlock old = freeBlock.get();
+        // Закриваємо старий блок і дізнаємося, скільки з нього вже забрали
+        int claimed = Math.min(old.cursor.getAndSet(CLOSED), old.ids.length);
+        int leftover = old.ids.length - claimed;
+        
+        int[] ids = new int[leftover + pendingCount];
+        java.lang.System.arraycopy(old.ids, claimed, ids, 0, leftover);
+        java.lang.System.arraycopy(pending, 0, ids, leftover, pendingCount);
+        pendingCount = 0;
+        freeBlock.set(new FreeBlock(ids));
+    }
+    
+    /**
+     * Верхня межа індексів, виданих на цей момент (виключно).
+     */
+    int indexBound() {
+        return Math.min(nextIndex.get(), EntityId.MAX_INDEX + 1);
+    }
+    
+    /**
+     * Отримує звільнені ідентифікатори, які ще не видані повторно.
+     * Викликається лише з потоку структурних змін.
+     */
+    synchronized int[] freeIds() {
+        FreeBlock block = freeBlock.get();
+        int claimed = Math.min(block.cursor.get(), block.ids.length);
+        int leftover = block.ids.length - claimed;
+        int[] ids = new int[leftover + pendingCount];
+        java.lang.System.arraycopy(block.ids, claimed, ids, 0, leftover);
+        java.lang.System.arraycopy(pending, 0, ids, leftover, pendingCount);
+        return ids;
+    }
+    
+    /**
+     * Відновлює стан виділення зі знімка. Викликається лише з потоку
+     * структурних змін, поки жоден ідентифікатор ще не виданий.
+     *
+     * @param indexBound межа виданих індексів
+     * @param freeIds звільнені ідентифікатори, готові до повторної видачі
+     */
+    synchronized void restore(int indexBound, int[] freeIds) {
+        nextIndex.set(indexBound);
+        pending = Arrays.copyOf(freeIds, Math.max(16, freeIds.length));
+        pendingCount = freeIds.length;
+        freeBlock.set(new FreeBlock(new int[0]));
+        publish();
+    }
+    
+    /**
+     * Опублікований блок звільнених ідентифікаторів.
+     */
+    private static final class FreeBlock {
+        final int[] ids;
+        final AtomicInteger cursor = new AtomicInteger();
+        
+        FreeBlock(int[] ids) {
+            this.ids = ids;
+        }
+    }
+}
\ No newline at end of file
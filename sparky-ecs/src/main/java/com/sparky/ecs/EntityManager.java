@@ -1,10 +1,16 @@
 package com.sparky.ecs;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -15,6 +21,21 @@ import com.sparky.core.SparkyLogger;
  * <p>
  * Відповідає за створення, зберігання та видалення сутностей.
  * Також відповідає за отримання сутностей для систем.
+ * <p>
+ * Компоненти зберігаються за архетипами: сутності з однаковим набором
+ * компонентів ділять один {@link Archetype}, де кожен тип компонента
+ * лежить у власній колонці. Структурні зміни (створення та видалення
+ * сутностей, додавання та видалення компонентів) мають виконуватися
+ * з одного потоку; системи записують їх у {@link CommandBuffer}.
+ * <p>
+ * Ідентифікатори сутностей містять індекс слота і покоління ({@link EntityId}).
+ * Індекси видалених сутностей перевикористовуються з новим поколінням, а
+ * сутності зберігаються в щільному масиві за індексом слота.
+ * <p>
+ * Менеджер веде лічильник тіків змін. Архетипи записують поточний тік,
+ * коли компонент додається чи змінюється, а системи запам'ятовують тік
+ * свого попереднього виконання ({@link System#getLastRunTick()}), тож можуть
+ * обробляти лише змінені сутності.
  *
  * @author Андрій Будильников
  * @author Богдан Кравчук
@@ -22,10 +43,30 @@ import com.sparky.core.SparkyLogger;
 public class EntityManager {
     private static final SparkyLogger logger = SparkyLogger.getLogger(EntityManager.class);
     
-    private final Map<Integer, Entity> entities = new ConcurrentHashMap<>();
-    private final Map<Class<? extends Component>, Set<Integer>> componentIndex = new ConcurrentHashMap<>();
-    private int nextEntityId = 1;
-    private boolean indexDirty = false;
+    private final EntityIdAllocator idAllocator = new EntityIdAllocator();
+    private Entity[] slots = new Entity[64];
+    private int entityCount;
+    private final List<Archetype> archetypes = new ArrayList<>();
+    private final Map<ComponentMask, Archetype> archetypeIndex = new HashMap<>();
+    private final Map<QueryKey, Query> queries = new ConcurrentHashMap<>();
+    private final Archetype emptyArchetype;
+    private final boolean packedStorage;
+    private final AtomicLong changeTick = new AtomicLong(1);
+    
+    public EntityManager() {
+        this(false);
+    }
+    
+    /**
+     * Створює менеджер сутностей.
+     *
+     * @param packedStorage зберігати поля позиції та швидкості в колонках
+     *                      {@code float[]} архетипів (struct-of-arrays)
+     */
+    public EntityManager(boolean packedStorage) {
+        this.packedStorage = packedStorage;
+        this.emptyArchetype = getOrCreateArchetype(ComponentMask.EMPTY, newTypeArray(0));
+    }
     
     /**
      * Створює нову сутність.
@@ -33,28 +74,189 @@ public class EntityManager {
      * @return нова сутність
      */
     public Entity createEntity() {
-        int id = nextEntityId++;
+        idAllocator.refresh();
+        int id = reserveEntityId();
         Entity entity = new Entity(id);
-        entities.put(id, entity);
+        entity.bind(this);
+        emptyArchetype.addRow(entity);
+        putEntity(entity);
         logger.debug("Created entity with ID: " + id);
         return entity;
     }
     
+    /**
+     * Створює буфер відкладених структурних змін для цього менеджера.
+     *
+     * @return новий порожній буфер
+     */
+    public CommandBuffer createCommandBuffer() {
+        return new CommandBuffer(this);
+    }
+    
+    /**
+     * Резервує ідентифікатор нової сутності. Може викликатися з будь-якого потоку.
+     */
+    int reserveEntityId() {
+        return idAllocator.allocate();
+    }
+    
+    /**
+     * Повертає зарезервований, але так і не доданий ідентифікатор.
+     */
+    void releaseEntityId(int id) {
+        idAllocator.release(id);
+    }
+    
+    /**
+     * Додає до менеджера сутність, створену через {@link CommandBuffer},
+     * одразу розміщуючи її в кінцевому архетипі.
+     *
+     * @param entity від'єднана сутність з зарезервованим ідентифікатором
+     * @param extra компоненти, записані в буфер для цієї сутності
+     */
+    void insertEntity(Entity entity, Collection<Component> extra) {
+        Map<Class<? extends Component>, Component> components = entity.getComponents();
+        for (Component component : extra) {
+            components.put(component.getClass(), component);
+        }
+        
+        Class<? extends Component>[] types = components.keySet().toArray(newTypeArray(0));
+        Archetype archetype = getOrCreateArchetype(ComponentMask.of(components.keySet()), types);
+        entity.bind(this);
+        int row = archetype.addRow(entity);
+        Class<? extends Component>[] columnTypes = archetype.getTypes();
+        long tick = getChangeTick();
+        for (int column = 0; column < columnTypes.length; column++) {
+            Component component = components.get(columnTypes[column]);
+            component.setEntityId(entity.getId());
+            archetype.set(column, row, component);
+            archetype.markAdded(column, row, tick);
+        }
+        putEntity(entity);
+        logger.debug("Created entity with ID: " + entity.getId());
+    }
+    
+    /**
+     * Отримує або створює архетип з вказаним набором типів компонентів.
+     */
+    Archetype archetypeFor(Class<? extends Component>[] types) {
+        return getOrCreateArchetype(ComponentMask.of(Arrays.asList(types)), types.clone());
+    }
+    
+    /**
+     * Додає сутність з відомим ідентифікатором у кінець архетипу під час
+     * відновлення знімка. Колонки нового рядка заповнює викликаючий код.
+     *
+     * @return номер рядка сутності в архетипі
+     */
+    int restoreEntity(int id, Archetype archetype) {
+        Entity entity = new Entity(id);
+        entity.bind(this);
+        int row = archetype.addRow(entity);
+        putEntity(entity);
+        return row;
+    }
+    
+    /**
+     * Отримує межу виданих індексів слотів (виключно).
+     */
+    int getIndexBound() {
+        return idAllocator.indexBound();
+    }
+    
+    int[] getFreeEntityIds() {
+        return idAllocator.freeIds();
+    }
+    
+    /**
+     * Відновлює стан виділення ідентифікаторів зі знімка.
+     */
+    void restoreIdAllocation(int indexBound, int[] freeIds) {
+        idAllocator.restore(indexBound, freeIds);
+    }
+    
+    /**
+     * Застосовує об'єднані зміни компонентів сутності одним переміщенням між архетипами.
+     *
+     * @param entity сутність
+     * @param added компоненти для додавання або заміни
+     * @param removed типи компонентів для видалення
+     */
+    void applyComponentChanges(Entity entity, Map<Class<? extends Component>, Component> added,
+                               Set<Class<? extends Component>> removed) {
+        if (entity.getManager() != this) {
+            // Сутність не керується цим менеджером, змінюємо її напряму
+            for (Class<? extends Component> type : removed) {
+                entity.removeComponent(type);
+            }
+            for (Component component : added.values()) {
+                entity.addComponent(component);
+            }
+            return;
+        }
+        
+        Archetype source = entity.getArchetype();
+        ComponentMask mask = source.getMask();
+        for (Class<? extends Component> type : removed) {
+            if (source.has(type)) {
+                mask = mask.without(ComponentType.idOf(type));
+            }
+        }
+        for (Class<? extends Component> type : added.keySet()) {
+            mask = mask.with(ComponentType.idOf(type));
+        }
+        
+        Archetype target = source;
+        int row = entity.getRow();
+        if (!mask.equals(source.getMask())) {
+            target = archetypeIndex.get(mask);
+            if (target == null) {
+                List<Class<? extends Component>> types = new ArrayList<>();
+                for (Class<? extends Component> type : source.getTypes()) {
+                    if (!removed.contains(type)) {
+                        types.add(type);
+                    }
+                }
+                for (Class<? extends Component> type : added.keySet()) {
+                    if (!source.has(type)) {
+                        types.add(type);
+                    }
+                }
+                target = getOrCreateArchetype(mask, types.toArray(newTypeArray(0)));
+            }
+            row = moveEntity(entity, source, target);
+        }
+        
+        long tick = getChangeTick();
+        for (Component component : added.values()) {
+            component.setEntityId(entity.getId());
+            int column = target.columnOf(component.getClass());
+            target.set(column, row, component);
+            if (source.has(component.getClass())) {
+                target.markChanged(column, row, tick);
+            } else {
+                target.markAdded(column, row, tick);
+            }
+        }
+    }
+    
     /**
      * Видаляє сутність за ідентифікатором.
      *
      * @param id ідентифікатор сутності
      */
     public void removeEntity(int id) {
-        Entity entity = entities.remove(id);
+        Entity entity = getEntity(id);
         if (entity != null) {
-            // Оновлюємо індекс компонентів
-            for (Class<? extends Component> componentType : entity.getComponents().keySet()) {
-                Set<Integer> entityIds = componentIndex.get(componentType);
-                if (entityIds != null) {
-                    entityIds.remove(id);
-                }
-            }
+            slots[EntityId.indexOf(id)] = null;
+            entityCount--;
+            idAllocator.release(id);
+            
+            // Звільняємо рядок в архетипі, зберігаючи компоненти у від'єднаній сутності
+            Archetype archetype = entity.getArchetype();
+            int row = entity.getRow();
+            entity.unbind();
+            archetype.removeRow(row);
             logger.debug("Removed entity with ID: " + id);
         } else {
             logger.warn("Attempted to remove non-existent entity with ID: " + id);
@@ -68,7 +270,26 @@ public class EntityManager {
      * @return сутність або null, якщо не знайдено
      */
     public Entity getEntity(int id) {
-        return entities.get(id);
+        int index = EntityId.indexOf(id);
+        if (index >= slots.length) {
+            return null;
+        }
+        Entity entity = slots[index];
+        // Слот міг бути перевикористаний новою сутністю з іншим поколінням
+        return entity != null && entity.getId() == id ? entity : null;
+    }
+    
+    /**
+     * Перевіряє, чи існує сутність з цим ідентифікатором.
+     * <p>
+     * Повертає false для ідентифікаторів видалених сутностей, навіть якщо
+     * їхній слот вже зайняла інша сутність.
+     *
+     * @param id ідентифікатор сутності
+     * @return true, якщо сутність жива
+     */
+    public boolean isAlive(int id) {
+        return getEntity(id) != null;
     }
     
     /**
@@ -77,7 +298,13 @@ public class EntityManager {
      * @return список всіх сутностей
      */
     public List<Entity> getAllEntities() {
-        return new ArrayList<>(entities.values());
+        List<Entity> result = new ArrayList<>(entityCount);
+        for (int index = 1, bound = Math.min(slots.length, idAllocator.indexBound()); index < bound; index++) {
+            if (slots[index] != null) {
+                result.add(slots[index]);
+            }
+        }
+        return result;
     }
     
     /**
@@ -97,8 +324,8 @@ public class EntityManager {
             return getAllEntities();
         }
         
-        // Використовуємо індекс для ефіцієнтного фільтрування
-        return getEntitiesWithComponents(requiredComponents);
+        // Використовуємо закешований запит замість перетину множин
+        return getQuery(requiredComponents).toList();
     }
     
     /**
@@ -112,39 +339,7 @@ public class EntityManager {
             return getAllEntities();
         }
         
-        // Перевіряємо, чи індекс потрібно оновити
-        ensureComponentIndexUpToDate();
-        
-        // Знаходимо множину ідентифікаторів сутностей, які мають всі необхідні компоненти
-        Set<Integer> candidateIds = null;
-        
-        for (Class<? extends Component> componentType : componentTypes) {
-            Set<Integer> entityIds = componentIndex.get(componentType);
-            if (entityIds == null || entityIds.isEmpty()) {
-                // Якщо для будь-якого типу компонентів немає сутностей, повертаємо порожній список
-                return new ArrayList<>();
-            }
-            
-            if (candidateIds == null) {
-                candidateIds = new java.util.HashSet<>(entityIds);
-            } else {
-                // Зберігаємо лише ті ідентифікатори, які присутні в усіх множинах
-                candidateIds.retainAll(entityIds);
-            }
-        }
-        
-        // Перетворюємо ідентифікатори в сутності
-        List<Entity> result = new ArrayList<>();
-        if (candidateIds != null) {
-            for (Integer id : candidateIds) {
-                Entity entity = entities.get(id);
-                if (entity != null) {
-                    result.add(entity);
-                }
-            }
-        }
-        
-        return result;
+        return getQuery(componentTypes).toList();
     }
     
     /**
@@ -154,23 +349,51 @@ public class EntityManager {
      * @return список сутностей з вказаним компонентом
      */
     public <T extends Component> List<Entity> getEntitiesWithComponent(Class<T> componentType) {
-        // Перевіряємо, чи індекс потрібно оновити
-        ensureComponentIndexUpToDate();
-        
-        Set<Integer> entityIds = componentIndex.get(componentType);
-        if (entityIds == null || entityIds.isEmpty()) {
-            return new ArrayList<>();
+        return getQuery(Collections.<Class<? extends Component>>singleton(componentType)).toList();
+    }
+    
+    /**
+     * Отримує зареєстрований запит для сутностей з усіма вказаними компонентами.
+     *
+     * @param allTypes типи компонентів, які сутність повинна мати
+     * @return запит, спільний для всіх викликів з тим самим набором типів
+     */
+    public Query getQuery(Set<Class<? extends Component>> allTypes) {
+        return getQuery(allTypes, Collections.emptySet(), Collections.emptySet());
+    }
+    
+    /**
+     * Отримує зареєстрований запит з фільтрами all/any/none.
+     * <p>
+     * Запит створюється один раз і далі підтримується менеджером
+     * інкрементально при появі нових архетипів. Метод можна викликати
+     * з будь-якого потоку, зокрема паралельно зі структурними змінами.
+     *
+     * @param allTypes типи компонентів, які сутність повинна мати
+     * @param anyTypes типи компонентів, з яких сутність повинна мати хоча б один
+     * @param noneTypes типи компонентів, яких сутність не повинна мати
+     * @return зареєстрований запит
+     */
+    public Query getQuery(Set<Class<? extends Component>> allTypes, Set<Class<? extends Component>> anyTypes,
+                          Set<Class<? extends Component>> noneTypes) {
+        QueryKey key = new QueryKey(ComponentMask.of(allTypes), ComponentMask.of(anyTypes), ComponentMask.of(noneTypes));
+        Query query = queries.get(key);
+        if (query != null) {
+            return query;
         }
-        
-        List<Entity> result = new ArrayList<>();
-        for (Integer id : entityIds) {
-            Entity entity = entities.get(id);
-            if (entity != null) {
-                result.add(entity);
+        synchronized (queries) {
+            query = queries.get(key);
+            if (query == null) {
+                query = new Query(new HashSet<>(allTypes), new HashSet<>(anyTypes), new HashSet<>(noneTypes));
+                for (Archetype archetype : archetypes) {
+                    if (query.matches(archetype)) {
+                        query.addArchetype(archetype);
+                    }
+                }
+                queries.put(key, query);
             }
+            return query;
         }
-        
-        return result;
     }
     
     /**
@@ -180,82 +403,193 @@ public class EntityManager {
      * @return список сутностей, які відповідають предикату
      */
     public List<Entity> getEntities(Predicate<Entity> predicate) {
-        return entities.values().stream()
+        return getAllEntities().stream()
                 .filter(predicate)
                 .collect(Collectors.toList());
     }
     
     /**
-     * Додає компонент до сутності та оновлює індекс.
+     * Додає компонент до сутності та переносить її у відповідний архетип.
      *
      * @param entity сутність
      * @param component компонент
      */
     public void addComponentToEntity(Entity entity, Component component) {
-        entity.addComponent(component);
+        if (entity.getManager() != this) {
+            // Сутність не керується цим менеджером, зберігаємо компонент у ній самій
+            entity.addComponent(component);
+            return;
+        }
         
-        // Оновлюємо індекс компонентів
+        component.setEntityId(entity.getId());
         Class<? extends Component> componentType = component.getClass();
-        Set<Integer> entityIds = componentIndex.computeIfAbsent(componentType, k -> ConcurrentHashMap.newKeySet());
-        entityIds.add(entity.getId());
-        indexDirty = true;
+        Archetype source = entity.getArchetype();
+        int column = source.columnOf(componentType);
+        if (column >= 0) {
+            // Компонент такого типу вже є, просто замінюємо його в колонці
+            source.set(column, entity.getRow(), component);
+            source.markChanged(column, entity.getRow(), getChangeTick());
+            return;
+        }
+        
+        Archetype target = source.getAddEdge(componentType);
+        if (target == null) {
+            ComponentMask mask = source.getMask().with(ComponentType.idOf(componentType));
+            Class<? extends Component>[] sourceTypes = source.getTypes();
+            Class<? extends Component>[] types = newTypeArray(sourceTypes.length + 1);
+            java.lang.System.arraycopy(sourceTypes, 0, types, 0, sourceTypes.length);
+            types[sourceTypes.length] = componentType;
+            target = getOrCreateArchetype(mask, types);
+            source.setAddEdge(componentType, target);
+        }
+        
+        int row = moveEntity(entity, source, target);
+        int targetColumn = target.columnOf(componentType);
+        target.set(targetColumn, row, component);
+        target.markAdded(targetColumn, row, getChangeTick());
     }
     
     /**
-     * Видаляє компонент з сутності та оновлює індекс.
+     * Видаляє компонент з сутності та переносить її у відповідний архетип.
      *
      * @param entity сутність
      * @param componentType тип компонента
      */
     public void removeComponentFromEntity(Entity entity, Class<? extends Component> componentType) {
-        entity.removeComponent(componentType);
+        if (entity.getManager() != this) {
+            entity.removeComponent(componentType);
+            return;
+        }
+        
+        Archetype source = entity.getArchetype();
+        if (!source.has(componentType)) {
+            return;
+        }
         
-        // Оновлюємо індекс компонентів
-        Set<Integer> entityIds = componentIndex.get(componentType);
-        if (entityIds != null) {
-            entityIds.remove(entity.getId());
+        Archetype target = source.getRemoveEdge(componentType);
+        if (target == null) {
+            ComponentMask mask = source.getMask().without(ComponentType.idOf(componentType));
+            Class<? extends Component>[] sourceTypes = source.getTypes();
+            Class<? extends Component>[] types = newTypeArray(sourceTypes.length - 1);
+            int index = 0;
+            for (Class<? extends Component> type : sourceTypes) {
+                if (type != componentType) {
+                    types[index++] = type;
+                }
+            }
+            target = getOrCreateArchetype(mask, types);
+            source.setRemoveEdge(componentType, target);
         }
-        indexDirty = true;
+        
+        moveEntity(entity, source, target);
     }
     
     /**
      * Оновлює індекс компонентів для всіх сутностей.
-     * Використовується для ініціалізації або відновлення індексу.
+     * <p>
+     * Сутності зберігаються в архетипах, які самі є індексом за набором
+     * компонентів, тому окремий індекс більше не потрібен. Метод залишено
+     * для сумісності.
      */
     public void rebuildComponentIndex() {
-        componentIndex.clear();
-        
-        for (Entity entity : entities.values()) {
-            for (Class<? extends Component> componentType : entity.getComponents().keySet()) {
-                Set<Integer> entityIds = componentIndex.computeIfAbsent(componentType, k -> ConcurrentHashMap.newKeySet());
-                entityIds.add(entity.getId());
-            }
-        }
-        indexDirty = false;
+        // Архетипи завжди актуальні, перебудовувати нічого
     }
     
     /**
-     * Переконується, що індекс компонентів актуальний.
-     * Якщо індекс був змінений напряму (не через EntityManager), оновлює його.
+     * Перевіряє, чи зберігаються поля позиції та швидкості в колонках архетипів.
      */
-    private void ensureComponentIndexUpToDate() {
-        // Якщо індекс брудний або порожній, перебудовуємо його
-        if (indexDirty || componentIndex.isEmpty()) {
-            rebuildComponentIndex();
-        } else {
-            // Перевіряємо, чи всі сутності представлені в індексі
-            for (Entity entity : entities.values()) {
-                Map<Class<? extends Component>, Component> entityComponents = entity.getComponents();
-                for (Class<? extends Component> componentType : entityComponents.keySet()) {
-                    Set<Integer> entityIds = componentIndex.get(componentType);
-                    if (entityIds == null || !entityIds.contains(entity.getId())) {
-                        // Якщо знайдено сутність, яка не представлена в індексі, перебудовуємо індекс
-                        rebuildComponentIndex();
-                        return;
+    public boolean isPackedStorage() {
+        return packedStorage;
+    }
+    
+    /**
+     * Отримує поточний тік змін.
+     * <p>
+     * Цим тіком позначаються компоненти, додані або змінені зараз.
+     * Компонент вважається зміненим з тіку {@code since}, якщо його тік
+     * зміни більший за {@code since}.
+     *
+     * @return поточний тік
+     */
+    public long getChangeTick() {
+        return changeTick.get();
+    }
+    
+    /**
+     * Починає новий тік змін. Може викликатися з будь-якого потоку.
+     * <p>
+     * Всі зміни після виклику матимуть тік, більший за повернений, тож
+     * повернене значення підходить як {@code since} для наступної перевірки
+     * змін тим самим споживачем.
+     *
+     * @return тік, що діяв до виклику
+     */
+    public long advanceChangeTick() {
+        return changeTick.getAndIncrement();
+    }
+    
+    /**
+     * Отримує всі архетипи менеджера, включно з порожніми.
+     *
+     * @return незмінний список архетипів
+     */
+    public List<Archetype> getArchetypes() {
+        return Collections.unmodifiableList(archetypes);
+    }
+    
+    /**
+     * Переносить сутність між архетипами, копіюючи спільні колонки.
+     *
+     * @return номер рядка сутності в цільовому архетипі
+     */
+    private int moveEntity(Entity entity, Archetype source, Archetype target) {
+        int sourceRow = entity.getRow();
+        int targetRow = target.addRow(entity);
+        Class<? extends Component>[] targetTypes = target.getTypes();
+        for (int column = 0; column < targetTypes.length; column++) {
+            int sourceColumn = source.columnOf(targetTypes[column]);
+            if (sourceColumn >= 0) {
+                target.set(column, targetRow, source.get(sourceColumn, sourceRow));
+                target.copyTicks(column, targetRow, source, sourceColumn, sourceRow);
+            }
+        }
+        source.removeRow(sourceRow);
+        return targetRow;
+    }
+    
+    private Archetype getOrCreateArchetype(ComponentMask mask, Class<? extends Component>[] types) {
+        Archetype archetype = archetypeIndex.get(mask);
+        if (archetype == null) {
+            // Той самий монітор, що й у getQuery: запит, створений з іншого потоку,
+            // або бачить новий архетип у списку, або вже отримує його тут
+            synchronized (queries) {
+                archetype = new Archetype(archetypes.size(), mask, types, packedStorage);
+                archetypes.add(archetype);
+                archetypeIndex.put(mask, archetype);
+                // Новий архетип одразу потрапляє до всіх запитів, яким він відповідає
+                for (Query query : queries.values()) {
+                    if (query.matches(archetype)) {
+                        query.addArchetype(archetype);
                     }
                 }
             }
+            logger.debug("Created archetype " + archetype);
         }
+        return archetype;
+    }
+    
+    private void putEntity(Entity entity) {
+        int index = EntityId.indexOf(entity.getId());
+        if (index >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slots.length * 2, index + 1));
+        }
+        slots[index] = entity;
+        entityCount++;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Component>[] newTypeArray(int length) {
+        return (Class<? extends Component>[]) new Class<?>[length];
     }
     
     /**
@@ -264,7 +598,7 @@ public class EntityManager {
      * @return кількість сутностей
      */
     public int getEntityCount() {
-        return entities.size();
+        return entityCount;
     }
     
     /**
@@ -274,10 +608,12 @@ public class EntityManager {
      * @return кількість сутностей з вказаним компонентом
      */
     public int getEntityCountWithComponent(Class<? extends Component> componentType) {
-        // Перевіряємо, чи індекс потрібно оновити
-        ensureComponentIndexUpToDate();
-        
-        Set<Integer> entityIds = componentIndex.get(componentType);
-        return entityIds != null ? entityIds.size() : 0;
+        return getQuery(Collections.singleton(componentType)).size();
+    }
+    
+    /**
+     * Ключ кешу запитів за масками фільтрів.
+     */
+    private record QueryKey(ComponentMask all, ComponentMask any, ComponentMask none) {
     }
 }
\ No newline at end of file
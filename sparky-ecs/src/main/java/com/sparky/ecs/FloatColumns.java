@@ -0,0 +1,32 @@
+package com.sparky.ecs;
+
+import java.util.Arrays;
+
+/**
+ * Колонки примітивних полів упакованого компонента в архетипі (struct-of-arrays).
+ * <p>
+ * {@code fields[f][row]} - значення поля {@code f} компонента в рядку {@code row}.
+ * Масиви замінюються при рості архетипу, тому посилання на них дійсні лише
+ * до наступної структурної зміни.
+ *
+ * @author Андрій Будильников
+ */
+final class FloatColumns {
+    float[][] fields;
+    
+    FloatColumns(int width, int capacity) {
+        this.fields = new float[width][capacity];
+    }
+    
+    void grow(int capacity) {
+        for (int field = 0; field < fields.length; field++) {
+            fields[field] = Arrays.copyOf(fields[field], capacity);
+        }
+    }
+    
+    void copyRow(int from, int to) {
+        for (float[] field : fields) {
+            field[to] = field[from];
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.sparky.ecs;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.sparky.core.SerializationUtils;
+
+/**
+ * Запасний кодек, що зберігає компонент як JSON через {@link SerializationUtils}.
+ * <p>
+ * Використовується знімком для типів без зареєстрованого двійкового кодека.
+ * Компонент має бути придатним для Jackson: конструктор без параметрів і
+ * гетери/сетери полів. Закодований компонент - довжина int і байти UTF-8.
+ *
+ * @author Андрій Будильников
+ */
+final class JsonComponentCodec<T extends Component> implements ComponentCodec<T> {
+    private final Class<T> type;
+    // Останній серіалізований компонент, щоб не серіалізувати його двічі
+    private T lastComponent;
+    private byte[] lastBytes;
+    
+    JsonComponentCodec(Class<T> type) {
+        this.type = type;
+    }
+    
+    @Override
+    public int encodedSize(T component) {
+        return Integer.BYTES + bytesOf(component).length;
+    }
+    
+    @Override
+    public void encode(T component, ByteBuffer buffer) {
+        byte[] bytes = bytesOf(component);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+        lastComponent = null;
+        lastBytes = null;
+    }
+    
+    @Override
+    public T decode(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid JSON component length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return SerializationUtils.fromJson(new String(bytes, StandardCharsets.UTF_8), type);
+    }
+    
+    private byte[] bytesOf(T component) {
+        if (component != lastComponent) {
+            lastBytes = SerializationUtils.toJson(component).getBytes(StandardCharsets.UTF_8);
+            lastComponent = component;
+        }
+        return lastBytes;
+    }
+}
\ No newline at end of file
@@ -14,23 +14,106 @@ import java.util.Set;
  */
 public class MovementSystem extends System {
     private float deltaTime = 1.0f / 60.0f; // Default to 60 FPS
+    private int parallelChunkSize = 0; // 0 - послідовне оновлення
     
     @Override
     public void update(List<Entity> entities) {
         // Process entities that have both Position and Velocity components
+        if (parallelChunkSize > 0) {
+            ParallelFor.forEach(entities, parallelChunkSize, this::move);
+            return;
+        }
         for (Entity entity : entities) {
-            if (entity.hasComponent(PositionComponent.class) && entity.hasComponent(VelocityComponent.class)) {
-                PositionComponent position = entity.getComponent(PositionComponent.class);
-                VelocityComponent velocity = entity.getComponent(VelocityComponent.class);
-                
-                // Update position based on velocity and delta time for frame-rate independent movement
-                position.setX(position.getX() + velocity.getDx() * deltaTime);
-                position.setY(position.getY() + velocity.getDy() * deltaTime);
-                position.setZ(position.getZ() + velocity.getDz() * deltaTime);
+            move(entity);
+        }
+    }
+    
+    private void move(Entity entity) {
+        if (entity.hasComponent(PositionComponent.class) && entity.hasComponent(VelocityComponent.class)) {
+            PositionComponent position = entity.getComponent(PositionComponent.class);
+            VelocityComponent velocity = entity.getComponent(VelocityComponent.class);
+            move(position, velocity);
+        }
+    }
+    
+    /**
+     * Оновлює позиції, обходячи колонки архетипів напряму без пошуку компонентів у сутностях.
+     */
+    @Override
+    public void update() {
+        Query query = getQuery();
+        if (query == null) {
+            return;
+        }
+        if (parallelChunkSize > 0) {
+            query.forEachChunkParallel(parallelChunkSize, this::moveRows);
+            return;
+        }
+        for (int i = 0, count = query.getArchetypeCount(); i < count; i++) {
+            Archetype archetype = query.getArchetype(i);
+            moveRows(archetype, 0, archetype.size());
+        }
+    }
+    
+    private void moveRows(Archetype archetype, int from, int to) {
+        float[] x = archetype.getFloatColumn(PositionComponent.class, 0);
+        float[] dx = archetype.getFloatColumn(VelocityComponent.class, 0);
+        if (x != null && dx != null) {
+            // Упаковане зберігання: обробляємо колонки пакетно без звернень до об'єктів
+            integrate(x, archetype.getFloatColumn(PositionComponent.class, 1),
+                    archetype.getFloatColumn(PositionComponent.class, 2),
+                    dx, archetype.getFloatColumn(VelocityComponent.class, 1),
+                    archetype.getFloatColumn(VelocityComponent.class, 2),
+                    deltaTime, from, to);
+            // Колонки оминають сетери, тому тіки змін позначаємо тут лише для рухомих рядків
+            markMoving(archetype.getChangedTicks(archetype.columnOf(PositionComponent.class)), dx,
+                    archetype.getFloatColumn(VelocityComponent.class, 1),
+                    archetype.getFloatColumn(VelocityComponent.class, 2),
+                    entityManager.getChangeTick(), from, to);
+            return;
+        }
+        PositionComponent[] positions = archetype.getColumn(PositionComponent.class);
+        VelocityComponent[] velocities = archetype.getColumn(VelocityComponent.class);
+        for (int row = from; row < to; row++) {
+            move(positions[row], velocities[row]);
+        }
+    }
+    
+    /**
+     * Інтегрує позиції за швидкостями для рядків {@code [from, to)} колонок.
+     * <p>
+     * Кожна вісь обробляється окремим простим циклом без розгалужень, який
+     * JIT може векторизувати.
+     */
+    public static void integrate(float[] x, float[] y, float[] z, float[] dx, float[] dy, float[] dz,
+                                 float deltaTime, int from, int to) {
+        integrateAxis(x, dx, deltaTime, from, to);
+        integrateAxis(y, dy, deltaTime, from, to);
+        integrateAxis(z, dz, deltaTime, from, to);
+    }
+    
+    private static void integrateAxis(float[] position, float[] velocity, float deltaTime, int from, int to) {
+        for (int i = from; i < to; i++) {
+            position[i] += velocity[i] * deltaTime;
+        }
+    }
+    
+    private static void markMoving(long[] changedTicks, float[] dx, float[] dy, float[] dz, long tick,
+                                   int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (dx[i] != 0 || dy[i] != 0 || dz[i] != 0) {
+                changedTicks[i] = tick;
             }
         }
     }
     
+    private void move(PositionComponent position, VelocityComponent velocity) {
+        // Update position based on velocity and delta time for frame-rate independent movement
+        position.setX(position.getX() + velocity.getDx() * deltaTime);
+        position.setY(position.getY() + velocity.getDy() * deltaTime);
+        position.setZ(position.getZ() + velocity.getDz() * deltaTime);
+    }
+    
     /**
      * Встановлює delta time для розрахунків руху.
      *
@@ -49,6 +132,26 @@ public class MovementSystem extends System {
         return deltaTime;
     }
     
+    /**
+     * Встановлює мінімальний розмір частини для паралельного оновлення.
+     * <p>
+     * Значення 0 вимикає паралельне оновлення всередині системи.
+     *
+     * @param parallelChunkSize мінімальна кількість сутностей в частині
+     */
+    public void setParallelChunkSize(int parallelChunkSize) {
+        this.parallelChunkSize = parallelChunkSize;
+    }
+    
+    /**
+     * Отримує мінімальний розмір частини для паралельного оновлення.
+     *
+     * @return розмір частини або 0, якщо оновлення послідовне
+     */
+    public int getParallelChunkSize() {
+        return parallelChunkSize;
+    }
+    
     /**
      * Отримує набір компонентів, необхідних для цієї системи.
      *
@@ -61,4 +164,28 @@ public class MovementSystem extends System {
         required.add(VelocityComponent.class);
         return required;
     }
+    
+    /**
+     * Отримує набір компонентів, які система лише читає.
+     *
+     * @return набір компонентів для читання
+     */
+    @Override
+    public Set<Class<? extends Component>> getReadComponents() {
+        Set<Class<? extends Component>> read = new HashSet<>();
+        read.add(VelocityComponent.class);
+        return read;
+    }
+    
+    /**
+     * Отримує набір компонентів, які система змінює.
+     *
+     * @return набір компонентів для запису
+     */
+    @Override
+    public Set<Class<? extends Component>> getWriteComponents() {
+        Set<Class<? extends Component>> write = new HashSet<>();
+        write.add(PositionComponent.class);
+        return write;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.sparky.ecs;
+
+/**
+ * Базовий клас компонентів, чиї примітивні поля можуть зберігатися
+ * в колонках архетипу ({@link FloatColumns}) замість полів об'єкта.
+ * <p>
+ * Поки компонент не прив'язаний до колонок, значення лежать у його
+ * власних полях. Архетип з упакованим зберіганням прив'язує компонент до
+ * свого рядка, копіюючи значення в колонки, і від'єднує його при видаленні
+ * рядка, копіюючи значення назад. Гетери та сетери підкласів мають читати
+ * і писати через {@link #store}, якщо він не null.
+ *
+ * @author Андрій Будильников
+ */
+abstract class PackedComponent extends Component {
+    FloatColumns store;
+    int row;
+    
+    /**
+     * Кількість примітивних полів компонента.
+     */
+    abstract int packedWidth();
+    
+    /**
+     * Записує власні поля компонента в колонки.
+     */
+    abstract void writeFields(float[][] fields, int row);
+    
+    /**
+     * Зчитує значення з колонок у власні поля компонента.
+     */
+    abstract void readFields(float[][] fields, int row);
+    
+    /**
+     * Прив'язує компонент до рядка колонок, переносячи поточні значення.
+     */
+    final void pack(FloatColumns target, int targetRow) {
+        if (store != null) {
+            readFields(store.fields, row);
+        }
+        store = target;
+        row = targetRow;
+        writeFields(target.fields, targetRow);
+    }
+    
+    /**
+     * Від'єднує компонент від колонок, якщо він прив'язаний саме до них.
+     */
+    final void unpack(FloatColumns source) {
+        if (store == source) {
+            readFields(source.fields, row);
+            store = null;
+        }
+    }
+    
+    /**
+     * Оновлює рядок після переміщення значень всередині тих самих колонок.
+     */
+    final void moveTo(FloatColumns source, int targetRow) {
+        if (store == source) {
+            row = targetRow;
+        }
+    }
+}
\ No newline at end of file
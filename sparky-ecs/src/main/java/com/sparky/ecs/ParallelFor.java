@@ -0,0 +1,206 @@
+package com.sparky.ecs;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Паралельний обхід діапазонів індексів частинами в {@link ForkJoinPool}.
+ * <p>
+ * Діапазон ділиться навпіл, доки частина не стане меншою за розмір частини,
+ * після чого частина обробляється одним викликом у потоці виконавця.
+ * Розмір частини не менший за заданий мінімум і підбирається так, щоб на
+ * кожен потік припадало кілька частин для балансування навантаження.
+ * <p>
+ * Стан, який потрібен обробнику, варто тримати в локальних змінних всередині
+ * частини: він створюється в потоці виконавця і не ділить кеш-лінії з
+ * іншими потоками. Для агрегації використовуйте {@link #reduce}, де часткові
+ * результати об'єднуються по дереву задач, а не записуються в спільний масив
+ * чи лічильник.
+ * <p>
+ * Якщо виклик відбувається всередині пулу (наприклад, з системи, яку виконує
+ * {@link SystemScheduler}), задачі потрапляють у той самий пул.
+ *
+ * @author Андрій Будильников
+ */
+public final class ParallelFor {
+    /**
+     * Мінімальний розмір частини за замовчуванням.
+     */
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 256;
+    
+    // Скільки частин бажано мати на один потік пулу
+    private static final int CHUNKS_PER_THREAD = 4;
+    
+    private ParallelFor() {
+    }
+    
+    /**
+     * Обробник частини діапазону {@code [from, to)}.
+     */
+    @FunctionalInterface
+    public interface RangeConsumer {
+        void accept(int from, int to);
+    }
+    
+    /**
+     * Функція, що обчислює результат для частини діапазону {@code [from, to)}.
+     *
+     * @param <R> тип результату
+     */
+    @FunctionalInterface
+    public interface RangeFunction<R> {
+        R apply(int from, int to);
+    }
+    
+    /**
+     * Паралельно обробляє діапазон {@code [0, size)} частинами.
+     *
+     * @param size розмір діапазону
+     * @param minChunkSize мінімальний розмір частини
+     * @param action обробник частини
+     */
+    public static void forRange(int size, int minChunkSize, RangeConsumer action) {
+        if (size <= 0) {
+            return;
+        }
+        int chunkSize = chunkSize(size, minChunkSize);
+        if (chunkSize >= size) {
+            action.accept(0, size);
+            return;
+        }
+        invoke(new RangeAction(0, size, chunkSize, action));
+    }
+    
+    /**
+     * Паралельно виконує дію для кожного елемента списку.
+     * <p>
+     * Список не повинен змінюватися під час обходу; для списків без
+     * швидкого доступу за індексом краще спершу скопіювати їх в ArrayList.
+     *
+     * @param items елементи
+     * @param minChunkSize мінімальний розмір частини
+     * @param action дія для елемента
+     * @param <T> тип елементів
+     */
+    public static <T> void forEach(List<T> items, int minChunkSize, Consumer<? super T> action) {
+        forRange(items.size(), minChunkSize, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                action.accept(items.get(i));
+            }
+        });
+    }
+    
+    /**
+     * Паралельно обчислює результати частин діапазону {@code [0, size)} і об'єднує їх.
+     *
+     * @param size розмір діапазону
+     * @param minChunkSize мінімальний розмір частини
+     * @param function обчислення для частини
+     * @param combiner асоціативне об'єднання двох результатів
+     * @param identity результат для порожнього діапазону
+     * @param <R> тип результату
+     * @return об'єднаний результат
+     */
+    public static <R> R reduce(int size, int minChunkSize, RangeFunction<R> function,
+                               BinaryOperator<R> combiner, R identity) {
+        if (size <= 0) {
+            return identity;
+        }
+        int chunkSize = chunkSize(size, minChunkSize);
+        if (chunkSize >= size) {
+            return function.apply(0, size);
+        }
+        return invoke(new RangeTask<>(0, size, chunkSize, function, combiner));
+    }
+    
+    /**
+     * Обчислює розмір частини для діапазону.
+     */
+    static int chunkSize(int size, int minChunkSize) {
+        int parallelism = parallelism();
+        if (parallelism <= 1) {
+            return size;
+        }
+        int target = (size + parallelism * CHUNKS_PER_THREAD - 1) / (parallelism * CHUNKS_PER_THREAD);
+        return Math.max(Math.max(1, minChunkSize), target);
+    }
+    
+    private static int parallelism() {
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        return pool != null ? pool.getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+    }
+    
+    private static <T> T invoke(ForkJoinTask<T> task) {
+        if (ForkJoinTask.inForkJoinPool()) {
+            return task.invoke();
+        }
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+    
+    /**
+     * Ділить кількість частин у діапазоні навпіл і повертає межу поділу.
+     */
+    private static int split(int from, int to, int chunkSize) {
+        int chunks = (to - from + chunkSize - 1) / chunkSize;
+        return from + (chunks / 2) * chunkSize;
+    }
+    
+    private static final class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final RangeConsumer action;
+        
+        RangeAction(int from, int to, int chunkSize, RangeConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.action = action;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                action.accept(from, to);
+                return;
+            }
+            int mid = split(from, to, chunkSize);
+            invokeAll(new RangeAction(from, mid, chunkSize, action),
+                    new RangeAction(mid, to, chunkSize, action));
+        }
+    }
+    
+    private static final class RangeTask<R> extends RecursiveTask<R> {
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private final RangeFunction<R> function;
+        private final BinaryOperator<R> combiner;
+        
+        RangeTask(int from, int to, int chunkSize, RangeFunction<R> function, BinaryOperator<R> combiner) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.function = function;
+            this.combiner = combiner;
+        }
+        
+        @Override
+        protected R compute() {
+            if (to - from <= chunkSize) {
+                return function.apply(from, to);
+            }
+            int mid = split(from, to, chunkSize);
+            RangeTask<R> left = new RangeTask<>(from, mid, chunkSize, function, combiner);
+            RangeTask<R> right = new RangeTask<>(mid, to, chunkSize, function, combiner);
+            left.fork();
+            R rightResult = right.compute();
+            return combiner.apply(left.join(), rightResult);
+        }
+    }
+}
\ No newline at end of file
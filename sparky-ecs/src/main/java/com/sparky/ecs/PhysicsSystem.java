@@ -14,36 +14,75 @@ import java.util.Set;
 public class PhysicsSystem extends System {
     private float gravity = 9.81f; // Гравітація (м/с²)
     private float deltaTime = 1.0f / 60.0f; // Delta time для розрахунків
+    private int parallelChunkSize = 0; // 0 - послідовне оновлення
     
     @Override
     public void update(List<Entity> entities) {
         // Оновлюємо фізику для всіх сутностей з необхідними компонентами
+        if (parallelChunkSize > 0) {
+            ParallelFor.forEach(entities, parallelChunkSize, this::applyPhysics);
+            return;
+        }
         for (Entity entity : entities) {
-            if (entity.hasComponent(PhysicsComponent.class) && entity.hasComponent(VelocityComponent.class)) {
-                PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
-                VelocityComponent velocity = entity.getComponent(VelocityComponent.class);
-                
-                // Застосовуємо гравітацію, якщо об'єкт на неї реагує
-                if (physics.isAffectedByGravity()) {
-                    velocity.setDy(velocity.getDy() - gravity * physics.getGravityScale() * deltaTime);
-                }
-                
-                // Застосовуємо тертя
-                velocity.setDx(velocity.getDx() * (1.0f - physics.getFriction() * deltaTime));
-                velocity.setDy(velocity.getDy() * (1.0f - physics.getFriction() * deltaTime));
-                velocity.setDz(velocity.getDz() * (1.0f - physics.getFriction() * deltaTime));
-                
-                // Застосовуємо прискорення до швидкості
-                velocity.setDx(velocity.getDx() + physics.getAccelerationX() * deltaTime);
-                velocity.setDy(velocity.getDy() + physics.getAccelerationY() * deltaTime);
-                velocity.setDz(velocity.getDz() + physics.getAccelerationZ() * deltaTime);
-                
-                // Скидаємо прискорення після застосування
-                physics.setAccelerationX(0);
-                physics.setAccelerationY(0);
-                physics.setAccelerationZ(0);
-            }
+            applyPhysics(entity);
+        }
+    }
+    
+    private void applyPhysics(Entity entity) {
+        if (entity.hasComponent(PhysicsComponent.class) && entity.hasComponent(VelocityComponent.class)) {
+            PhysicsComponent physics = entity.getComponent(PhysicsComponent.class);
+            VelocityComponent velocity = entity.getComponent(VelocityComponent.class);
+            applyPhysics(physics, velocity);
+        }
+    }
+    
+    /**
+     * Оновлює фізику, обходячи колонки архетипів напряму без пошуку компонентів у сутностях.
+     */
+    @Override
+    public void update() {
+        Query query = getQuery();
+        if (query == null) {
+            return;
+        }
+        if (parallelChunkSize > 0) {
+            query.forEachChunkParallel(parallelChunkSize, this::applyPhysicsRows);
+            return;
+        }
+        for (int i = 0, count = query.getArchetypeCount(); i < count; i++) {
+            Archetype archetype = query.getArchetype(i);
+            applyPhysicsRows(archetype, 0, archetype.size());
+        }
+    }
+    
+    private void applyPhysicsRows(Archetype archetype, int from, int to) {
+        PhysicsComponent[] physics = archetype.getColumn(PhysicsComponent.class);
+        VelocityComponent[] velocities = archetype.getColumn(VelocityComponent.class);
+        for (int row = from; row < to; row++) {
+            applyPhysics(physics[row], velocities[row]);
+        }
+    }
+    
+    private void applyPhysics(PhysicsComponent physics, VelocityComponent velocity) {
+        // Застосовуємо гравітацію, якщо об'єкт на неї реагує
+        if (physics.isAffectedByGravity()) {
+            velocity.setDy(velocity.getDy() - gravity * physics.getGravityScale() * deltaTime);
         }
+        
+        // Застосовуємо тертя
+        velocity.setDx(velocity.getDx() * (1.0f - physics.getFriction() * deltaTime));
+        velocity.setDy(velocity.getDy() * (1.0f - physics.getFriction() * deltaTime));
+        velocity.setDz(velocity.getDz() * (1.0f - physics.getFriction() * deltaTime));
+        
+        // Застосовуємо прискорення до швидкості
+        velocity.setDx(velocity.getDx() + physics.getAccelerationX() * deltaTime);
+        velocity.setDy(velocity.getDy() + physics.getAccelerationY() * deltaTime);
+        velocity.setDz(velocity.getDz() + physics.getAccelerationZ() * deltaTime);
+        
+        // Скидаємо прискорення після застосування
+        physics.setAccelerationX(0);
+        physics.setAccelerationY(0);
+        physics.setAccelerationZ(0);
     }
     
     /**
@@ -82,6 +121,26 @@ public class PhysicsSystem extends System {
         return deltaTime;
     }
     
+    /**
+     * Встановлює мінімальний розмір частини для паралельного оновлення.
+     * <p>
+     * Значення 0 вимикає паралельне оновлення всередині системи.
+     *
+     * @param parallelChunkSize мінімальна кількість сутностей в частині
+     */
+    public void setParallelChunkSize(int parallelChunkSize) {
+        this.parallelChunkSize = parallelChunkSize;
+    }
+    
+    /**
+     * Отримує мінімальний розмір частини для паралельного оновлення.
+     *
+     * @return розмір частини або 0, якщо оновлення послідовне
+     */
+    public int getParallelChunkSize() {
+        return parallelChunkSize;
+    }
+    
     /**
      * Отримує набір компонентів, необхідних для цієї системи.
      *
@@ -94,4 +153,17 @@ public class PhysicsSystem extends System {
         required.add(VelocityComponent.class);
         return required;
     }
+    
+    /**
+     * Отримує набір компонентів, які система змінює.
+     *
+     * @return набір компонентів для запису
+     */
+    @Override
+    public Set<Class<? extends Component>> getWriteComponents() {
+        Set<Class<? extends Component>> write = new HashSet<>();
+        write.add(PhysicsComponent.class);
+        write.add(VelocityComponent.class);
+        return write;
+    }
 }
\ No newline at end of file
@@ -2,10 +2,15 @@ package com.sparky.ecs;
 
 /**
  * Компонент позиції для сутності.
+ * <p>
+ * В архетипі з упакованим зберіганням координати лежать у колонках
+ * {@code float[] x, y, z} архетипу, а об'єкт лише звертається до свого рядка.
+ * Сетери позначають компонент зміненим лише тоді, коли значення відрізняється,
+ * тож нерухомі сутності не потрапляють до фільтрів змін.
  *
  * @author Андрій Будильников
  */
-public class PositionComponent extends Component {
+public class PositionComponent extends PackedComponent {
     private float x;
     private float y;
     private float z;
@@ -20,26 +25,72 @@ public class PositionComponent extends Component {
     
     // Getters and setters
     public float getX() {
-        return x;
+        return store != null ? store.fields[0][row] : x;
     }
     
     public void setX(float x) {
-        this.x = x;
+        if (store != null) {
+            float[] column = store.fields[0];
+            if (column[row] != x) {
+                column[row] = x;
+                markChanged();
+            }
+        } else if (this.x != x) {
+            this.x = x;
+            markChanged();
+        }
     }
     
     public float getY() {
-        return y;
+        return store != null ? store.fields[1][row] : y;
     }
     
     public void setY(float y) {
-        this.y = y;
+        if (store != null) {
+            float[] column = store.fields[1];
+            if (column[row] != y) {
+                column[row] = y;
+                markChanged();
+            }
+        } else if (this.y != y) {
+            this.y = y;
+            markChanged();
+        }
     }
     
     public float getZ() {
-        return z;
+        return store != null ? store.fields[2][row] : z;
     }
     
     public void setZ(float z) {
-        this.z = z;
+        if (store != null) {
+            float[] column = store.fields[2];
+            if (column[row] != z) {
+                column[row] = z;
+                markChanged();
+            }
+        } else if (this.z != z) {
+            this.z = z;
+            markChanged();
+        }
+    }
+    
+    @Override
+    int packedWidth() {
+        return 3;
+    }
+    
+    @Override
+    void writeFields(float[][] fields, int row) {
+        fields[0][row] = x;
+        fields[1][row] = y;
+        fields[2][row] = z;
+    }
+    
+    @Override
+    void readFields(float[][] fields, int row) {
+        x = fields[0][row];
+        y = fields[1][row];
+        z = fields[2][row];
     }
 }
\ No newline at end of file
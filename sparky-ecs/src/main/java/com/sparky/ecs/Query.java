@@ -0,0 +1,291 @@
+package com.sparky.ecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Зареєстрований запит до сутностей за фільтрами компонентів.
+ * <p>
+ * Запит зберігає список архетипів, що відповідають фільтрам. Менеджер
+ * сутностей додає до нього нові архетипи в момент їх створення, а
+ * переміщення сутностей між архетипами не вимагає жодного оновлення,
+ * тому обхід запиту коштує O(кількість збігів), а не O(всі сутності).
+ * <p>
+ * Фільтри:
+ * <ul>
+ *   <li>all - сутність має всі вказані компоненти;</li>
+ *   <li>any - сутність має хоча б один з вказаних компонентів (порожній набір не обмежує);</li>
+ *   <li>none - сутність не має жодного з вказаних компонентів.</li>
+ * </ul>
+ * <p>
+ * Додатково обхід можна обмежити сутностями, чий компонент змінився або
+ * з'явився після заданого тіку ({@link #forEachChanged}, {@link #forEachAdded}).
+ * Перевірка йде по масиву тіків колонки без звернень до самих компонентів,
+ * тому незмінні сутності коштують одне порівняння.
+ *
+ * @author Андрій Будильников
+ */
+public final class Query {
+    private final Set<Class<? extends Component>> allTypes;
+    private final Set<Class<? extends Component>> anyTypes;
+    private final Set<Class<? extends Component>> noneTypes;
+    private final ComponentMask all;
+    private final ComponentMask any;
+    private final ComponentMask none;
+    private Archetype[] archetypes = new Archetype[4];
+    private int archetypeCount;
+    
+    Query(Set<Class<? extends Component>> allTypes, Set<Class<? extends Component>> anyTypes,
+          Set<Class<? extends Component>> noneTypes) {
+        this.allTypes = Collections.unmodifiableSet(allTypes);
+        this.anyTypes = Collections.unmodifiableSet(anyTypes);
+        this.noneTypes = Collections.unmodifiableSet(noneTypes);
+        this.all = ComponentMask.of(allTypes);
+        this.any = ComponentMask.of(anyTypes);
+        this.none = ComponentMask.of(noneTypes);
+    }
+    
+    /**
+     * Перевіряє, чи відповідає архетип фільтрам запиту.
+     */
+    boolean matches(Archetype archetype) {
+        ComponentMask mask = archetype.getMask();
+        return mask.containsAll(all)
+                && (any.isEmpty() || mask.intersects(any))
+                && !mask.intersects(none);
+    }
+    
+    void addArchetype(Archetype archetype) {
+        if (archetypeCount == archetypes.length) {
+            archetypes = Arrays.copyOf(archetypes, archetypeCount * 2);
+        }
+        archetypes[archetypeCount++] = archetype;
+    }
+    
+    /**
+     * Отримує кількість архетипів, що відповідають запиту.
+     */
+    public int getArchetypeCount() {
+        return archetypeCount;
+    }
+    
+    /**
+     * Отримує архетип за індексом. Разом з {@link #getArchetypeCount()}
+     * дозволяє обходити колонки без створення ітераторів.
+     *
+     * @param index індекс в діапазоні {@code [0, getArchetypeCount())}
+     * @return архетип
+     */
+    public Archetype getArchetype(int index) {
+        return archetypes[index];
+    }
+    
+    /**
+     * Виконує дію для кожної сутності, що відповідає запиту.
+     *
+     * @param action дія для сутності
+     */
+    public void forEach(Consumer<Entity> action) {
+        for (int i = 0; i < archetypeCount; i++) {
+            Archetype archetype = archetypes[i];
+            for (int row = 0, size = archetype.size(); row < size; row++) {
+                action.accept(archetype.getEntity(row));
+            }
+        }
+    }
+    
+    /**
+     * Виконує дію для сутностей запиту, чий компонент змінився після тіку {@code sinceTick}.
+     * <p>
+     * Додавання компонента теж вважається зміною. Дія не повинна змінювати
+     * структуру сутностей.
+     *
+     * @param componentType тип компонента, зміни якого перевіряються
+     * @param sinceTick тік попередньої перевірки, наприклад {@link System#getLastRunTick()}
+     * @param action дія для сутності
+     */
+    public void forEachChanged(Class<? extends Component> componentType, long sinceTick, Consumer<Entity> action) {
+        forEachSince(componentType, sinceTick, false, action);
+    }
+    
+    /**
+     * Виконує дію для сутностей запиту, яким компонент додано після тіку {@code sinceTick}.
+     *
+     * @param componentType тип компонента
+     * @param sinceTick тік попередньої перевірки
+     * @param action дія для сутності
+     */
+    public void forEachAdded(Class<? extends Component> componentType, long sinceTick, Consumer<Entity> action) {
+        forEachSince(componentType, sinceTick, true, action);
+    }
+    
+    private void forEachSince(Class<? extends Component> componentType, long sinceTick, boolean added,
+                              Consumer<Entity> action) {
+        for (int i = 0; i < archetypeCount; i++) {
+            Archetype archetype = archetypes[i];
+            int column = archetype.columnOf(componentType);
+            if (column < 0) {
+                continue;
+            }
+            long[] ticks = added ? archetype.getAddedTicks(column) : archetype.getChangedTicks(column);
+            for (int row = 0, size = archetype.size(); row < size; row++) {
+                if (ticks[row] > sinceTick) {
+                    action.accept(archetype.getEntity(row));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Обробник частини рядків архетипу {@code [from, to)}.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(Archetype archetype, int from, int to);
+    }
+    
+    /**
+     * Паралельно виконує дію для кожної сутності, що відповідає запиту.
+     * <p>
+     * Сутності всіх архетипів розбиваються на частини не менші за
+     * {@code minChunkSize}, які обробляються в {@link java.util.concurrent.ForkJoinPool}.
+     * Дія не повинна змінювати структуру сутностей (додавати чи видаляти компоненти).
+     *
+     * @param minChunkSize мінімальна кількість сутностей в частині
+     * @param action дія для сутності
+     */
+    public void forEachParallel(int minChunkSize, Consumer<Entity> action) {
+        forEachChunkParallel(minChunkSize, (archetype, from, to) -> {
+            for (int row = from; row < to; row++) {
+                action.accept(archetype.getEntity(row));
+            }
+        });
+    }
+    
+    /**
+     * Паралельно обробляє сутності запиту частинами рядків архетипів.
+     * <p>
+     * Дозволяє системам працювати з колонками напряму: обробник отримує
+     * архетип і діапазон рядків, тож може один раз взяти колонки через
+     * {@link Archetype#getColumn(Class)} і тримати проміжний стан у локальних
+     * змінних частини. Частина, що перетинає межу архетипів, передається
+     * кількома викликами - по одному на архетип.
+     *
+     * @param minChunkSize мінімальна кількість сутностей в частині
+     * @param action обробник частини
+     */
+    public void forEachChunkParallel(int minChunkSize, ChunkConsumer action) {
+        // Знімок архетипів і зсувів, щоб частини відображалися на рядки без спільного стану
+        int count = archetypeCount;
+        Archetype[] snapshot = Arrays.copyOf(archetypes, count);
+        int[] offsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            offsets[i + 1] = offsets[i] + snapshot[i].size();
+        }
+        
+        ParallelFor.forRange(offsets[count], minChunkSize, (from, to) -> {
+            int index = Arrays.binarySearch(offsets, 0, count, from);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            // Пропускаємо порожні архетипи з тим самим зсувом
+            while (offsets[index + 1] <= from) {
+                index++;
+            }
+            int position = from;
+            while (position < to) {
+                int end = Math.min(to, offsets[index + 1]);
+                if (end > position) {
+                    action.accept(snapshot[index], position - offsets[index], end - offsets[index]);
+                }
+                position = end;
+                index++;
+            }
+        });
+    }
+    
+    /**
+     * Додає всі сутності запиту до переданого списку.
+     *
+     * @param result список для заповнення
+     */
+    public void collect(List<Entity> result) {
+        for (int i = 0; i < archetypeCount; i++) {
+            Archetype archetype = archetypes[i];
+            for (int row = 0, size = archetype.size(); row < size; row++) {
+                result.add(archetype.getEntity(row));
+            }
+        }
+    }
+    
+    /**
+     * Отримує список сутностей, що відповідають запиту.
+     *
+     * @return новий список сутностей
+     */
+    public List<Entity> toList() {
+        List<Entity> result = new ArrayList<>(size());
+        collect(result);
+        return result;
+    }
+    
+    /**
+     * Отримує кількість сутностей, що відповідають запиту.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < archetypeCount; i++) {
+            size += archetypes[i].size();
+        }
+        return size;
+    }
+    
+    /**
+     * Перевіряє, чи немає сутностей, що відповідають запиту.
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < archetypeCount; i++) {
+            if (!archetypes[i].isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Перевіряє, чи відповідає сутність запиту.
+     *
+     * @param entity сутність
+     * @return true, якщо сутність входить до результатів запиту
+     */
+    public boolean contains(Entity entity) {
+        Archetype archetype = entity.getArchetype();
+        return archetype != null && matches(archetype);
+    }
+    
+    public Set<Class<? extends Component>> getAllTypes() {
+        return allTypes;
+    }
+    
+    public Set<Class<? extends Component>> getAnyTypes() {
+        return anyTypes;
+    }
+    
+    public Set<Class<? extends Component>> getNoneTypes() {
+        return noneTypes;
+    }
+    
+    @Override
+    public String toString() {
+        return "Query{" +
+                "all=" + allTypes +
+                ", any=" + anyTypes +
+                ", none=" + noneTypes +
+                ", archetypes=" + archetypeCount +
+                '}';
+    }
+}
\ No newline at end of file
@@ -108,4 +108,29 @@ public class RenderingSystem extends System {
         
         return renderingEntities;
     }
+    
+    /**
+     * Отримує набір компонентів, які система лише читає.
+     *
+     * @return набір компонентів для читання
+     */
+    @Override
+    public Set<Class<? extends Component>> getReadComponents() {
+        Set<Class<? extends Component>> read = new HashSet<>();
+        read.add(SpriteComponent.class);
+        read.add(PositionComponent.class);
+        read.add(CameraComponent.class);
+        return read;
+    }
+    
+    /**
+     * Отримує набір компонентів, які система змінює.
+     *
+     * @return набір компонентів для запису
+     */
+    @Override
+    public Set<Class<? extends Component>> getWriteComponents() {
+        // Система лише відображає сутності і не змінює їхні компоненти
+        return new HashSet<>();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,310 @@
+package com.sparky.ecs;
+
+import java.util.Arrays;
+
+/**
+ * Просторова хеш-сітка для широкої фази виявлення колізій.
+ * <p>
+ * Площина XY ділиться на квадратні клітинки розміром {@code cellSize}.
+ * Кожен об'єкт (ідентифікований цілим дескриптором) реєструється в усіх
+ * клітинках, які перекриває його обмежувальний прямокутник. Кандидатами
+ * на колізію є лише пари об'єктів зі спільною клітинкою.
+ * <p>
+ * Оновлення інкрементальне: якщо діапазон клітинок об'єкта не змінився,
+ * {@link #update} нічого не робить, тому для повільних об'єктів вартість
+ * кадру - це лише обчислення діапазону. Дескриптори мають бути невеликими
+ * невід'ємними числами, бо використовуються як індекси масивів.
+ *
+ * @author Андрій Будильников
+ */
+public final class SpatialHashGrid {
+    /**
+     * Обробник пари кандидатів.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+        void accept(int first, int second);
+    }
+    
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    // Межа координат клітинок, щоб нескінченні координати не переповнювали цикли
+    private static final int MAX_CELL = 1 << 30;
+    
+    private float cellSize;
+    private float inverseCellSize;
+    
+    // Діапазон клітинок кожного дескриптора; present[h] == false - дескриптор не зареєстровано
+    private int[] minCellX = new int[0];
+    private int[] minCellY = new int[0];
+    private int[] maxCellX = new int[0];
+    private int[] maxCellY = new int[0];
+    private boolean[] present = new boolean[0];
+    private int objectCount;
+    
+    // Відкрита адресація: ключ клітинки -> вміст клітинки
+    private long[] keys = new long[64];
+    private Cell[] cells = new Cell[64];
+    private int cellCount;
+    private int nonEmptyCellCount;
+    
+    public SpatialHashGrid(float cellSize) {
+        setCellSize(cellSize);
+    }
+    
+    /**
+     * Встановлює розмір клітинки. Зареєстровані об'єкти видаляються.
+     * <p>
+     * Добрий вибір - приблизно розмір типового об'єкта або трохи більше:
+     * занадто малі клітинки збільшують кількість реєстрацій, занадто великі -
+     * кількість пар-кандидатів.
+     *
+     * @param cellSize розмір клітинки
+     */
+    public void setCellSize(float cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        }
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0f / cellSize;
+        clear();
+    }
+    
+    public float getCellSize() {
+        return cellSize;
+    }
+    
+    /**
+     * Отримує кількість зареєстрованих об'єктів.
+     */
+    public int size() {
+        return objectCount;
+    }
+    
+    /**
+     * Реєструє або оновлює обмежувальний прямокутник об'єкта.
+     *
+     * @param handle дескриптор об'єкта
+     * @param minX мінімальна координата X
+     * @param minY мінімальна координата Y
+     * @param maxX максимальна координата X
+     * @param maxY максимальна координата Y
+     */
+    public void update(int handle, float minX, float minY, float maxX, float maxY) {
+        int newMinX = cellOf(minX);
+        int newMinY = cellOf(minY);
+        int newMaxX = cellOf(maxX);
+        int newMaxY = cellOf(maxY);
+        
+        ensureHandleCapacity(handle + 1);
+        if (present[handle]) {
+            if (newMinX == minCellX[handle] && newMinY == minCellY[handle]
+                    && newMaxX == maxCellX[handle] && newMaxY == maxCellY[handle]) {
+                return;
+            }
+            removeFromCells(handle);
+        } else {
+            present[handle] = true;
+            objectCount++;
+        }
+        
+        minCellX[handle] = newMinX;
+        minCellY[handle] = newMinY;
+        maxCellX[handle] = newMaxX;
+        maxCellY[handle] = newMaxY;
+        for (int x = newMinX; x <= newMaxX; x++) {
+            for (int y = newMinY; y <= newMaxY; y++) {
+                Cell cell = getOrCreateCell(key(x, y));
+                if (cell.count == 0) {
+                    nonEmptyCellCount++;
+                }
+                cell.add(handle);
+            }
+        }
+        compactIfSparse();
+    }
+    
+    /**
+     * Видаляє об'єкт із сітки.
+     *
+     * @param handle дескриптор об'єкта
+     */
+    public void remove(int handle) {
+        if (handle < present.length && present[handle]) {
+            removeFromCells(handle);
+            present[handle] = false;
+            objectCount--;
+            compactIfSparse();
+        }
+    }
+    
+    /**
+     * Видаляє всі об'єкти.
+     */
+    public void clear() {
+        Arrays.fill(present, false);
+        Arrays.fill(keys, EMPTY_KEY);
+        Arrays.fill(cells, null);
+        objectCount = 0;
+        cellCount = 0;
+        nonEmptyCellCount = 0;
+    }
+    
+    /**
+     * Передає обробнику кожну пару об'єктів зі спільною клітинкою рівно один раз.
+     * <p>
+     * Пара, що ділить кілька клітинок, повідомляється лише в клітинці з
+     * найменшими координатами перетину їхніх діапазонів. Менший дескриптор
+     * завжди передається першим.
+     *
+     * @param consumer обробник пари
+     */
+    public void forEachCandidatePair(PairConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            Cell cell = cells[slot];
+            if (cell == null || cell.count < 2) {
+                continue;
+            }
+            long cellKey = keys[slot];
+            int[] handles = cell.handles;
+            for (int i = 0; i < cell.count; i++) {
+                int a = handles[i];
+                for (int j = i + 1; j < cell.count; j++) {
+                    int b = handles[j];
+                    // Перша спільна клітинка пари
+                    int sharedX = Math.max(minCellX[a], minCellX[b]);
+                    int sharedY = Math.max(minCellY[a], minCellY[b]);
+                    if (key(sharedX, sharedY) == cellKey) {
+                        if (a < b) {
+                            consumer.accept(a, b);
+                        } else {
+                            consumer.accept(b, a);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    private int cellOf(float coordinate) {
+        float cell = (float) Math.floor(coordinate * inverseCellSize);
+        return (int) Math.max(-MAX_CELL, Math.min(MAX_CELL, cell));
+    }
+    
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+    
+    private void removeFromCells(int handle) {
+        for (int x = minCellX[handle]; x <= maxCellX[handle]; x++) {
+            for (int y = minCellY[handle]; y <= maxCellY[handle]; y++) {
+                Cell cell = findCell(key(x, y));
+                if (cell != null && cell.remove(handle) && cell.count == 0) {
+                    nonEmptyCellCount--;
+                }
+            }
+        }
+    }
+    
+    private void ensureHandleCapacity(int capacity) {
+        if (present.length < capacity) {
+            int newCapacity = Math.max(capacity, Math.max(16, present.length * 2));
+            minCellX = Arrays.copyOf(minCellX, newCapacity);
+            minCellY = Arrays.copyOf(minCellY, newCapacity);
+            maxCellX = Arrays.copyOf(maxCellX, newCapacity);
+            maxCellY = Arrays.copyOf(maxCellY, newCapacity);
+            present = Arrays.copyOf(present, newCapacity);
+        }
+    }
+    
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+    
+    private Cell findCell(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; keys[slot] != EMPTY_KEY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return cells[slot];
+            }
+        }
+        return null;
+    }
+    
+    private Cell getOrCreateCell(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; keys[slot] != EMPTY_KEY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return cells[slot];
+            }
+        }
+        if ((cellCount + 1) * 2 > keys.length) {
+            rehash(keys.length * 2);
+            return getOrCreateCell(key);
+        }
+        Cell cell = new Cell();
+        keys[slot] = key;
+        cells[slot] = cell;
+        cellCount++;
+        return cell;
+    }
+    
+    /**
+     * Прибирає порожні клітинки, коли вони складають більшість таблиці
+     * (об'єкти, що рухаються, залишають за собою порожні клітинки).
+     */
+    private void compactIfSparse() {
+        if (cellCount > 64 && nonEmptyCellCount * 4 < cellCount) {
+            rehash(keys.length);
+        }
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Cell[] oldCells = cells;
+        keys = new long[capacity];
+        cells = new Cell[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        cellCount = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            Cell cell = oldCells[i];
+            if (oldKeys[i] == EMPTY_KEY || cell.count == 0) {
+                continue;
+            }
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY_KEY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            cells[slot] = cell;
+            cellCount++;
+        }
+    }
+    
+    /**
+     * Дескриптори об'єктів однієї клітинки.
+     */
+    private static final class Cell {
+        int[] handles = new int[4];
+        int count;
+        
+        void add(int handle) {
+            if (count == handles.length) {
+                handles = Arrays.copyOf(handles, count * 2);
+            }
+            handles[count++] = handle;
+        }
+        
+        boolean remove(int handle) {
+            for (int i = 0; i < count; i++) {
+                if (handles[i] == handle) {
+                    handles[i] = handles[--count];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
\ No newline at end of file
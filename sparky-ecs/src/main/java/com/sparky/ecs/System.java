@@ -1,20 +1,120 @@
 package com.sparky.ecs;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Базовий клас для систем ECS.
+ * <p>
+ * Система, що виконується через {@link #run()}, запам'ятовує тік змін
+ * свого попереднього виконання ({@link #getLastRunTick()}) і може обробляти
+ * лише сутності зі зміненими компонентами ({@link #forEachChanged}).
  *
  * @author Андрій Будильников
  * @author Богдан Кравчук
  */
 public abstract class System {
     protected EntityManager entityManager;
+    private Query query;
+    private CommandBuffer commandBuffer;
+    private final List<Entity> updateBuffer = new ArrayList<>();
+    private long lastRunTick;
     
     public void setEntityManager(EntityManager entityManager) {
         this.entityManager = entityManager;
+        this.query = null;
+        this.commandBuffer = null;
+        this.lastRunTick = 0;
+    }
+    
+    /**
+     * Виконує систему, відстежуючи тіки змін.
+     * <p>
+     * Перед {@link #update()} менеджер сутностей починає новий тік змін, а
+     * після завершення тік початку стає {@link #getLastRunTick()}. Так кожна
+     * зміна, зроблена після початку цього виконання (зокрема іншими системами
+     * пізніше в тому ж кроці), буде помічена наступним виконанням.
+     */
+    public void run() {
+        EntityManager manager = entityManager;
+        if (manager == null) {
+            update();
+            return;
+        }
+        long tick = manager.advanceChangeTick();
+        try {
+            update();
+        } finally {
+            lastRunTick = tick;
+        }
+    }
+    
+    /**
+     * Отримує тік змін на початку попереднього виконання через {@link #run()}.
+     *
+     * @return тік або 0, якщо система ще не виконувалась
+     */
+    public long getLastRunTick() {
+        return lastRunTick;
+    }
+    
+    /**
+     * Виконує дію для сутностей запиту системи, чий компонент змінився
+     * з попереднього виконання системи.
+     *
+     * @param componentType тип компонента
+     * @param action дія для сутності
+     */
+    protected void forEachChanged(Class<? extends Component> componentType, Consumer<Entity> action) {
+        Query query = getQuery();
+        if (query != null) {
+            query.forEachChanged(componentType, lastRunTick, action);
+        }
+    }
+    
+    /**
+     * Виконує дію для сутностей запиту системи, яким компонент додано
+     * з попереднього виконання системи.
+     *
+     * @param componentType тип компонента
+     * @param action дія для сутності
+     */
+    protected void forEachAdded(Class<? extends Component> componentType, Consumer<Entity> action) {
+        Query query = getQuery();
+        if (query != null) {
+            query.forEachAdded(componentType, lastRunTick, action);
+        }
+    }
+    
+    /**
+     * Отримує закешований запит менеджера сутностей для необхідних компонентів системи.
+     *
+     * @return запит або null, якщо менеджер сутностей не встановлено
+     */
+    public Query getQuery() {
+        if (query == null && entityManager != null) {
+            query = entityManager.getQuery(getRequiredComponents());
+        }
+        return query;
+    }
+    
+    /**
+     * Отримує буфер структурних змін системи.
+     * <p>
+     * {@link SystemScheduler} відтворює буфер після завершення етапу, в якому
+     * виконувалась система. Якщо система оновлюється поза планувальником,
+     * буфер потрібно відтворити вручну через {@link CommandBuffer#playback()}.
+     *
+     * @return буфер або null, якщо менеджер сутностей не встановлено
+     */
+    public CommandBuffer getCommandBuffer() {
+        if (commandBuffer == null && entityManager != null) {
+            commandBuffer = entityManager.createCommandBuffer();
+        }
+        return commandBuffer;
     }
     
     /**
@@ -31,13 +131,48 @@ public abstract class System {
         return new HashSet<>();
     }
     
+    /**
+     * Отримує набір компонентів, які система лише читає.
+     * <p>
+     * Використовується {@link SystemScheduler} для побудови графа залежностей.
+     * За замовчуванням збігається з {@link #getRequiredComponents()}.
+     *
+     * @return набір компонентів для читання
+     */
+    public Set<Class<? extends Component>> getReadComponents() {
+        return getRequiredComponents();
+    }
+    
+    /**
+     * Отримує набір компонентів, які система змінює.
+     * <p>
+     * За замовчуванням система вважається такою, що змінює всі необхідні
+     * компоненти. Система, яка не оголошує ні читання, ні запису, виконується
+     * планувальником окремо від усіх інших.
+     *
+     * @return набір компонентів для запису
+     */
+    public Set<Class<? extends Component>> getWriteComponents() {
+        return getRequiredComponents();
+    }
+    
     /**
      * Виконує логіку системи, отримуючи сутності з менеджера сутностей.
+     * <p>
+     * Сутності беруться з закешованого запиту системи у внутрішній список,
+     * який перевикористовується між викликами, тому реалізації
+     * {@link #update(List)} не повинні зберігати посилання на нього.
      */
     public void update() {
-        if (entityManager != null) {
-            List<Entity> entities = entityManager.getEntitiesForSystem(this);
-            update(entities);
+        Query query = getQuery();
+        if (query != null) {
+            updateBuffer.clear();
+            query.collect(updateBuffer);
+            try {
+                update(updateBuffer);
+            } finally {
+                updateBuffer.clear();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,237 @@
+package com.sparky.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.sparky.core.SparkyLogger;
+
+/**
+ * Планувальник систем ECS з паралельним виконанням.
+ * <p>
+ * Системи розбиваються на етапи за оголошеними наборами компонентів для
+ * читання та запису ({@link System#getReadComponents()},
+ * {@link System#getWriteComponents()}). Дві системи конфліктують, якщо одна
+ * з них записує компонент, який інша читає або записує. Кожна система
+ * потрапляє в перший етап після останнього етапу з конфліктною системою,
+ * зареєстрованою раніше, тому порядок конфліктних систем завжди збігається
+ * з порядком реєстрації.
+ * <p>
+ * Етапи виконуються послідовно, а системи всередині етапу - паралельно
+ * в {@link ForkJoinPool}. Наступний етап починається лише після завершення
+ * всіх систем попереднього. Після кожного етапу відтворюються буфери
+ * структурних змін його систем ({@link System#getCommandBuffer()}) у порядку
+ * реєстрації, тож наступний етап бачить створені та видалені сутності.
+ * Системи виконуються через {@link System#run()}, тож відстежують тіки змін.
+ *
+ * @author Андрій Будильников
+ */
+public class SystemScheduler {
+    private static final SparkyLogger logger = SparkyLogger.getLogger(SystemScheduler.class);
+    
+    private final ForkJoinPool pool;
+    private final List<System> systems = new ArrayList<>();
+    private List<List<System>> stages = Collections.emptyList();
+    private boolean stagesDirty = false;
+    private boolean parallel = true;
+    
+    public SystemScheduler() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    public SystemScheduler(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Додає систему до планувальника.
+     *
+     * @param system система
+     */
+    public void addSystem(System system) {
+        systems.add(system);
+        stagesDirty = true;
+    }
+    
+    /**
+     * Видаляє систему з планувальника.
+     *
+     * @param system система
+     */
+    public void removeSystem(System system) {
+        if (systems.remove(system)) {
+            stagesDirty = true;
+        }
+    }
+    
+    /**
+     * Отримує системи в порядку реєстрації.
+     *
+     * @return незмінний список систем
+     */
+    public List<System> getSystems() {
+        return Collections.unmodifiableList(systems);
+    }
+    
+    /**
+     * Отримує етапи виконання систем.
+     *
+     * @return незмінний список етапів
+     */
+    public List<List<System>> getStages() {
+        if (stagesDirty) {
+            stages = buildStages();
+            stagesDirty = false;
+        }
+        return stages;
+    }
+    
+    /**
+     * Вмикає або вимикає паралельне виконання систем всередині етапу.
+     *
+     * @param parallel true для паралельного виконання
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+    
+    public boolean isParallel() {
+        return parallel;
+    }
+    
+    /**
+     * Повідомляє планувальник, що системи змінили оголошені набори компонентів.
+     */
+    public void invalidateStages() {
+        stagesDirty = true;
+    }
+    
+    /**
+     * Виконує всі системи один раз, етап за етапом.
+     */
+    public void update() {
+        for (List<System> stage : getStages()) {
+            runStage(stage);
+            playbackCommands(stage);
+        }
+    }
+    
+    /**
+     * Виконує системи одного етапу і чекає на їх завершення.
+     *
+     * @param stage системи етапу
+     */
+    protected void runStage(List<System> stage) {
+        if (!parallel || stage.size() == 1) {
+            for (System system : stage) {
+                runSystem(system);
+            }
+            return;
+        }
+        
+        List<RecursiveAction> tasks = new ArrayList<>(stage.size());
+        for (System system : stage) {
+            tasks.add(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    runSystem(system);
+                }
+            });
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+    
+    private void playbackCommands(List<System> stage) {
+        for (System system : stage) {
+            try {
+                CommandBuffer commandBuffer = system.getCommandBuffer();
+                if (commandBuffer != null) {
+                    commandBuffer.playback();
+                }
+            } catch (Exception e) {
+                logger.error("Error applying commands of system " + system.getClass().getSimpleName(), e);
+            }
+        }
+    }
+    
+    private void runSystem(System system) {
+        try {
+            system.run();
+        } catch (Exception e) {
+            logger.error("Error updating system " + system.getClass().getSimpleName(), e);
+        }
+    }
+    
+    private List<List<System>> buildStages() {
+        List<List<System>> result = new ArrayList<>();
+        List<SystemAccess> accesses = new ArrayList<>(systems.size());
+        int[] stageOf = new int[systems.size()];
+        
+        for (int i = 0; i < systems.size(); i++) {
+            SystemAccess access = new SystemAccess(systems.get(i));
+            
+            // Система йде після останнього етапу, в якому є конфліктна попередня система
+            int stage = 0;
+            for (int j = 0; j < i; j++) {
+                if (access.conflictsWith(accesses.get(j))) {
+                    stage = Math.max(stage, stageOf[j] + 1);
+                }
+            }
+            
+            accesses.add(access);
+            stageOf[i] = stage;
+            while (result.size() <= stage) {
+                result.add(new ArrayList<>());
+            }
+            result.get(stage).add(systems.get(i));
+        }
+        
+        List<List<System>> immutable = new ArrayList<>(result.size());
+        for (List<System> stage : result) {
+            immutable.add(Collections.unmodifiableList(stage));
+        }
+        return Collections.unmodifiableList(immutable);
+    }
+    
+    /**
+     * Оголошений доступ системи до компонентів.
+     */
+    private static final class SystemAccess {
+        private final Set<Class<? extends Component>> reads;
+        private final Set<Class<? extends Component>> writes;
+        private final boolean exclusive;
+        
+        SystemAccess(System system) {
+            this.reads = new HashSet<>(system.getReadComponents());
+            this.writes = new HashSet<>(system.getWriteComponents());
+            // Система без оголошень може торкатися чого завгодно
+            this.exclusive = reads.isEmpty() && writes.isEmpty();
+        }
+        
+        boolean conflictsWith(SystemAccess other) {
+            if (exclusive || other.exclusive) {
+                return true;
+            }
+            return intersects(writes, other.reads) || intersects(writes, other.writes)
+                    || intersects(other.writes, reads);
+        }
+        
+        private static boolean intersects(Set<Class<? extends Component>> a, Set<Class<? extends Component>> b) {
+            for (Class<? extends Component> type : a) {
+                if (b.contains(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
\ No newline at end of file
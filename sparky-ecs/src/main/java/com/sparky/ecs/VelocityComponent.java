@@ -2,10 +2,13 @@ package com.sparky.ecs;
 
 /**
  * Компонент швидкості для сутності.
+ * <p>
+ * В архетипі з упакованим зберіганням складові швидкості лежать у колонках
+ * {@code float[] dx, dy, dz} архетипу.
  *
  * @author Богдан Кравчук
  */
-public class VelocityComponent extends Component {
+public class VelocityComponent extends PackedComponent {
     private float dx;
     private float dy;
     private float dz;
@@ -17,26 +20,72 @@ public class VelocityComponent extends Component {
     }
     
     public float getDx() {
-        return dx;
+        return store != null ? store.fields[0][row] : dx;
     }
     
     public void setDx(float dx) {
-        this.dx = dx;
+        if (store != null) {
+            float[] column = store.fields[0];
+            if (column[row] != dx) {
+                column[row] = dx;
+                markChanged();
+            }
+        } else if (this.dx != dx) {
+            this.dx = dx;
+            markChanged();
+        }
     }
     
     public float getDy() {
-        return dy;
+        return store != null ? store.fields[1][row] : dy;
     }
     
     public void setDy(float dy) {
-        this.dy = dy;
+        if (store != null) {
+            float[] column = store.fields[1];
+            if (column[row] != dy) {
+                column[row] = dy;
+                markChanged();
+            }
+        } else if (this.dy != dy) {
+            this.dy = dy;
+            markChanged();
+        }
     }
     
     public float getDz() {
-        return dz;
+        return store != null ? store.fields[2][row] : dz;
     }
     
     public void setDz(float dz) {
-        this.dz = dz;
+        if (store != null) {
+            float[] column = store.fields[2];
+            if (column[row] != dz) {
+                column[row] = dz;
+                markChanged();
+            }
+        } else if (this.dz != dz) {
+            this.dz = dz;
+            markChanged();
+        }
+    }
+    
+    @Override
+    int packedWidth() {
+        return 3;
+    }
+    
+    @Override
+    void writeFields(float[][] fields, int row) {
+        fields[0][row] = dx;
+        fields[1][row] = dy;
+        fields[2][row] = dz;
+    }
+    
+    @Override
+    void readFields(float[][] fields, int row) {
+        dx = fields[0][row];
+        dy = fields[1][row];
+        dz = fields[2][row];
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.sparky.ecs;
+
+import java.util.List;
+
+/**
+ * Світ ECS - менеджер сутностей разом з планувальником його систем.
+ *
+ * @author Андрій Будильников
+ */
+public class World {
+    private final EntityManager entityManager;
+    private final SystemScheduler scheduler;
+    
+    public World() {
+        this(new EntityManager(), new SystemScheduler());
+    }
+    
+    public World(EntityManager entityManager, SystemScheduler scheduler) {
+        this.entityManager = entityManager;
+        this.scheduler = scheduler;
+    }
+    
+    /**
+     * Додає систему до світу та прив'язує її до менеджера сутностей світу.
+     *
+     * @param system система
+     */
+    public void addSystem(System system) {
+        system.setEntityManager(entityManager);
+        scheduler.addSystem(system);
+    }
+    
+    /**
+     * Видаляє систему зі світу.
+     *
+     * @param system система
+     */
+    public void removeSystem(System system) {
+        scheduler.removeSystem(system);
+    }
+    
+    /**
+     * Виконує один крок світу: всі системи етап за етапом.
+     */
+    public void update() {
+        scheduler.update();
+    }
+    
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+    
+    public SystemScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Отримує системи світу в порядку реєстрації.
+     */
+    public List<System> getSystems() {
+        return scheduler.getSystems();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,507 @@
+package com.sparky.ecs;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.sparky.core.SparkyLogger;
+
+/**
+ * Двійковий знімок світу ECS для швидкого збереження та відновлення.
+ * <p>
+ * Знімок записує архетип за архетипом: набір типів компонентів,
+ * ідентифікатори сутностей і далі колонки компонентів, кожну своїм кодеком
+ * ({@link ComponentCodec}). Для позиції, швидкості, фізики та колізій є
+ * вбудовані кодеки, інші типи можна зареєструвати через
+ * {@link #registerCodec(Class, ComponentCodec)}. Типи без кодека
+ * зберігаються як JSON через {@link com.sparky.core.SerializationUtils}.
+ * <p>
+ * Запис іде потоково через буфер у {@link WritableByteChannel} (зазвичай
+ * {@link FileChannel}), а читання з файлу - через відображення в пам'ять.
+ * Відновлюються ідентифікатори разом з поколіннями і вільні ідентифікатори,
+ * тож збережені посилання на сутності лишаються дійсними. Знімок потрібно
+ * знімати в точці синхронізації, коли системи не змінюють сутності.
+ * <p>
+ * Під час читання кожна кількість, довжина та індекс перевіряються за
+ * заголовком і залишком буфера, тож пошкоджений або обрізаний знімок
+ * завжди дає {@link IOException}, а не непередбачуваний виняток.
+ * <p>
+ * Екземпляр не є потокобезпечним.
+ *
+ * @author Андрій Будильников
+ */
+public class WorldSnapshot {
+    private static final SparkyLogger logger = SparkyLogger.getLogger(WorldSnapshot.class);
+    
+    private static final int MAGIC = 0x53504B57; // "SPKW"
+    private static final int VERSION = 1;
+    private static final byte FORMAT_BINARY = 0;
+    private static final byte FORMAT_JSON = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    private final Map<Class<? extends Component>, ComponentCodec<?>> codecs = new HashMap<>();
+    private final Map<String, Class<? extends Component>> typesByName = new HashMap<>();
+    private final Map<Class<? extends Component>, ComponentCodec<?>> jsonCodecs = new HashMap<>();
+    
+    public WorldSnapshot() {
+        registerCodec(PositionComponent.class, new PositionCodec());
+        registerCodec(VelocityComponent.class, new VelocityCodec());
+        registerCodec(PhysicsComponent.class, new PhysicsCodec());
+        registerCodec(CollisionComponent.class, new CollisionCodec());
+    }
+    
+    /**
+     * Реєструє двійковий кодек для типу компонента.
+     * <p>
+     * Зареєстровані типи також знаходяться за іменем при читанні без
+     * звернення до завантажувача класів.
+     *
+     * @param type тип компонента
+     * @param codec кодек
+     */
+    public <T extends Component> void registerCodec(Class<T> type, ComponentCodec<T> codec) {
+        codecs.put(type, codec);
+        typesByName.put(type.getName(), type);
+    }
+    
+    /**
+     * Записує знімок менеджера сутностей у файл, замінюючи його вміст.
+     *
+     * @param entityManager менеджер сутностей
+     * @param path шлях до файлу
+     * @throws IOException якщо запис не вдався
+     */
+    public void write(EntityManager entityManager, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(entityManager, channel);
+        }
+    }
+    
+    /**
+     * Записує знімок менеджера сутностей у канал.
+     *
+     * @param entityManager менеджер сутностей
+     * @param channel канал для запису
+     * @throws IOException якщо запис не вдався
+     */
+    public void write(EntityManager entityManager, WritableByteChannel channel) throws IOException {
+        List<Archetype> archetypes = new ArrayList<>();
+        Map<Class<? extends Component>, Integer> typeIndex = new LinkedHashMap<>();
+        for (Archetype archetype : entityManager.getArchetypes()) {
+            if (!archetype.isEmpty()) {
+                archetypes.add(archetype);
+                for (Class<? extends Component> type : archetype.getTypes()) {
+                    typeIndex.putIfAbsent(type, typeIndex.size());
+                }
+            }
+        }
+        
+        Output out = new Output(channel);
+        int[] freeIds = entityManager.getFreeEntityIds();
+        ByteBuffer header = out.reserve(Integer.BYTES * (5 + freeIds.length));
+        header.putInt(MAGIC).putInt(VERSION);
+        header.putInt(entityManager.getEntityCount()).putInt(entityManager.getIndexBound());
+        header.putInt(freeIds.length);
+        for (int id : freeIds) {
+            header.putInt(id);
+        }
+        
+        out.reserve(Integer.BYTES).putInt(typeIndex.size());
+        for (Class<? extends Component> type : typeIndex.keySet()) {
+            byte[] name = type.getName().getBytes(StandardCharsets.UTF_8);
+            out.reserve(1 + Integer.BYTES + name.length)
+                    .put(codecs.containsKey(type) ? FORMAT_BINARY : FORMAT_JSON)
+                    .putInt(name.length)
+                    .put(name);
+        }
+        
+        out.reserve(Integer.BYTES).putInt(archetypes.size());
+        for (Archetype archetype : archetypes) {
+            Class<? extends Component>[] types = archetype.getTypes();
+            int size = archetype.size();
+            ByteBuffer section = out.reserve(Integer.BYTES * (2 + types.length));
+            section.putInt(types.length);
+            for (Class<? extends Component> type : types) {
+                section.putInt(typeIndex.get(type));
+            }
+            section.putInt(size);
+            for (int row = 0; row < size; row++) {
+                out.reserve(Integer.BYTES).putInt(archetype.getEntity(row).getId());
+            }
+            for (int column = 0; column < types.length; column++) {
+                writeColumn(out, codecFor(types[column]), archetype, column);
+            }
+        }
+        out.flush();
+        logger.debug("Wrote snapshot of " + entityManager.getEntityCount() + " entities in "
+                + archetypes.size() + " archetypes");
+    }
+    
+    /**
+     * Створює новий менеджер сутностей і відновлює в ньому знімок з файлу.
+     *
+     * @param path шлях до файлу
+     * @return відновлений менеджер сутностей
+     * @throws IOException якщо файл не вдалося прочитати або він пошкоджений
+     */
+    public EntityManager read(Path path) throws IOException {
+        EntityManager entityManager = new EntityManager();
+        read(path, entityManager);
+        return entityManager;
+    }
+    
+    /**
+     * Відновлює знімок з файлу, відображаючи його в пам'ять.
+     *
+     * @param path шлях до файлу
+     * @param target порожній менеджер сутностей
+     * @throws IOException якщо файл не вдалося прочитати або він пошкоджений
+     */
+    public void read(Path path, EntityManager target) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + size + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            read(buffer, target);
+        }
+    }
+    
+    /**
+     * Відновлює знімок з буфера, починаючи з його поточної позиції.
+     * Позиція самого буфера не змінюється.
+     *
+     * @param buffer буфер зі знімком
+     * @param target порожній менеджер сутностей
+     * @throws IOException якщо знімок пошкоджений
+     * @throws IllegalStateException якщо менеджер вже містить сутності
+     */
+    public void read(ByteBuffer buffer, EntityManager target) throws IOException {
+        if (target.getEntityCount() != 0 || target.getIndexBound() != 1) {
+            throw new IllegalStateException("Snapshot can only be restored into an empty entity manager");
+        }
+        ByteBuffer in = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            readSnapshot(in, target);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot", e);
+        }
+    }
+    
+    private void readSnapshot(ByteBuffer in, EntityManager target) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a world snapshot");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+        int entityCount = in.getInt();
+        int indexBound = in.getInt();
+        if (entityCount < 0 || indexBound < 1 || indexBound > EntityId.MAX_INDEX + 1 || entityCount >= indexBound) {
+            throw new IOException("Corrupted snapshot header: " + entityCount + " entities, index bound " + indexBound);
+        }
+        // Зайняті індекси слотів: живі сутності та вільні ідентифікатори не можуть перетинатися
+        BitSet usedIndices = new BitSet(indexBound);
+        int[] freeIds = new int[readCount(in, Integer.BYTES, "free id count")];
+        for (int i = 0; i < freeIds.length; i++) {
+            freeIds[i] = readId(in, indexBound, usedIndices);
+        }
+        
+        int typeCount = readCount(in, 1 + Integer.BYTES, "component type count");
+        List<Class<? extends Component>> types = new ArrayList<>(typeCount);
+        List<ComponentCodec<?>> typeCodecs = new ArrayList<>(typeCount);
+        for (int i = 0; i < typeCount; i++) {
+            byte format = in.get();
+            if (format != FORMAT_BINARY && format != FORMAT_JSON) {
+                throw new IOException("Corrupted snapshot: unknown component format " + format);
+            }
+            byte[] name = new byte[readCount(in, 1, "type name length")];
+            in.get(name);
+            Class<? extends Component> type = resolveType(new String(name, StandardCharsets.UTF_8));
+            ComponentCodec<?> codec = format == FORMAT_JSON ? jsonCodecFor(type) : codecs.get(type);
+            if (codec == null) {
+                throw new IOException("No codec registered for component type " + type.getName());
+            }
+            types.add(type);
+            typeCodecs.add(codec);
+        }
+        
+        long tick = target.getChangeTick();
+        int archetypeCount = readCount(in, 2 * Integer.BYTES, "archetype count");
+        for (int i = 0; i < archetypeCount; i++) {
+            int columnCount = readCount(in, Integer.BYTES, "column count");
+            if (columnCount > typeCount) {
+                throw new IOException("Corrupted snapshot: archetype with " + columnCount + " columns but only "
+                        + typeCount + " component types");
+            }
+            Class<? extends Component>[] columnTypes = newTypeArray(columnCount);
+            ComponentCodec<?>[] columnCodecs = new ComponentCodec<?>[columnCount];
+            BitSet archetypeTypes = new BitSet(typeCount);
+            for (int column = 0; column < columnCount; column++) {
+                int index = in.getInt();
+                if (index < 0 || index >= typeCount || archetypeTypes.get(index)) {
+                    throw new IOException("Corrupted snapshot: invalid component type index " + index);
+                }
+                archetypeTypes.set(index);
+                columnTypes[column] = types.get(index);
+                columnCodecs[column] = typeCodecs.get(index);
+            }
+            
+            int size = readCount(in, Integer.BYTES, "archetype size");
+            int[] ids = new int[size];
+            for (int row = 0; row < size; row++) {
+                ids[row] = readId(in, indexBound, usedIndices);
+            }
+            Archetype archetype = target.archetypeFor(columnTypes);
+            int[] rows = new int[size];
+            for (int row = 0; row < size; row++) {
+                rows[row] = target.restoreEntity(ids[row], archetype);
+            }
+            for (int column = 0; column < columnCount; column++) {
+                int targetColumn = archetype.columnOf(columnTypes[column]);
+                ComponentCodec<?> codec = columnCodecs[column];
+                for (int row = 0; row < size; row++) {
+                    Component component = decode(codec, in, columnTypes[column]);
+                    component.setEntityId(ids[row]);
+                    archetype.set(targetColumn, rows[row], component);
+                    archetype.markAdded(targetColumn, rows[row], tick);
+                }
+            }
+        }
+        
+        target.restoreIdAllocation(indexBound, freeIds);
+        if (target.getEntityCount() != entityCount) {
+            throw new IOException("Snapshot declares " + entityCount + " entities but contains "
+                    + target.getEntityCount());
+        }
+        logger.debug("Restored snapshot of " + entityCount + " entities in " + archetypeCount + " archetypes");
+    }
+    
+    /**
+     * Читає кількість елементів, кожен з яких займає в буфері щонайменше {@code minBytes} байтів.
+     */
+    private static int readCount(ByteBuffer in, int minBytes, String what) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || (long) count * minBytes > in.remaining()) {
+            throw new IOException("Corrupted snapshot: invalid " + what + " " + count);
+        }
+        return count;
+    }
+    
+    /**
+     * Читає ідентифікатор сутності і позначає його слот зайнятим.
+     */
+    private static int readId(ByteBuffer in, int indexBound, BitSet usedIndices) throws IOException {
+        int id = in.getInt();
+        int index = EntityId.indexOf(id);
+        if (index < 1 || index >= indexBound || usedIndices.get(index)) {
+            throw new IOException("Corrupted snapshot: invalid entity id " + id);
+        }
+        usedIndices.set(index);
+        return id;
+    }
+    
+    /**
+     * Декодує компонент, перетворюючи будь-яку помилку кодека на {@link IOException}.
+     */
+    private static Component decode(ComponentCodec<?> codec, ByteBuffer in, Class<? extends Component> type)
+            throws IOException {
+        Component component;
+        try {
+            component = codec.decode(in);
+        } catch (BufferUnderflowException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted " + type.getName() + " data in snapshot", e);
+        }
+        if (component == null) {
+            throw new IOException("Corrupted " + type.getName() + " data in snapshot");
+        }
+        return component;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T extends Component> void writeColumn(Output out, ComponentCodec<T> codec, Archetype archetype,
+                                                          int column) throws IOException {
+        for (int row = 0, size = archetype.size(); row < size; row++) {
+            T component = (T) archetype.get(column, row);
+            codec.encode(component, out.reserve(codec.encodedSize(component)));
+        }
+    }
+    
+    private ComponentCodec<?> codecFor(Class<? extends Component> type) {
+        ComponentCodec<?> codec = codecs.get(type);
+        return codec != null ? codec : jsonCodecFor(type);
+    }
+    
+    private ComponentCodec<?> jsonCodecFor(Class<? extends Component> type) {
+        return jsonCodecs.computeIfAbsent(type, JsonComponentCodec::new);
+    }
+    
+    private Class<? extends Component> resolveType(String name) throws IOException {
+        Class<? extends Component> type = typesByName.get(name);
+        if (type != null) {
+            return type;
+        }
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        try {
+            Class<?> found = Class.forName(name, false, loader != null ? loader : WorldSnapshot.class.getClassLoader());
+            if (!Component.class.isAssignableFrom(found)) {
+                throw new IOException("Snapshot type is not a component: " + name);
+            }
+            return found.asSubclass(Component.class);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown component type in snapshot: " + name, e);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Component>[] newTypeArray(int length) {
+        return (Class<? extends Component>[]) new Class<?>[length];
+    }
+    
+    /**
+     * Буфер потокового запису в канал.
+     */
+    private static final class Output {
+        private final WritableByteChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        
+        Output(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+        
+        /**
+         * Отримує буфер щонайменше з {@code bytes} вільних байтів,
+         * скидаючи накопичене в канал за потреби.
+         */
+        ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+                if (buffer.capacity() < bytes) {
+                    buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+                }
+            }
+            return buffer;
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+    
+    private static final class PositionCodec implements ComponentCodec<PositionComponent> {
+        @Override
+        public int encodedSize(PositionComponent component) {
+            return 3 * Float.BYTES;
+        }
+        
+        @Override
+        public void encode(PositionComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.getX()).putFloat(component.getY()).putFloat(component.getZ());
+        }
+        
+        @Override
+        public PositionComponent decode(ByteBuffer buffer) {
+            return new PositionComponent(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        }
+    }
+    
+    private static final class VelocityCodec implements ComponentCodec<VelocityComponent> {
+        @Override
+        public int encodedSize(VelocityComponent component) {
+            return 3 * Float.BYTES;
+        }
+        
+        @Override
+        public void encode(VelocityComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.getDx()).putFloat(component.getDy()).putFloat(component.getDz());
+        }
+        
+        @Override
+        public VelocityComponent decode(ByteBuffer buffer) {
+            return new VelocityComponent(buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        }
+    }
+    
+    private static final class PhysicsCodec implements ComponentCodec<PhysicsComponent> {
+        @Override
+        public int encodedSize(PhysicsComponent component) {
+            return 7 * Float.BYTES + 1;
+        }
+        
+        @Override
+        public void encode(PhysicsComponent component, ByteBuffer buffer) {
+            buffer.putFloat(component.getMass())
+                    .putFloat(component.getGravityScale())
+                    .putFloat(component.getFriction())
+                    .putFloat(component.getBounciness())
+                    .put((byte) (component.isAffectedByGravity() ? 1 : 0))
+                    .putFloat(component.getAccelerationX())
+                    .putFloat(component.getAccelerationY())
+                    .putFloat(component.getAccelerationZ());
+        }
+        
+        @Override
+        public PhysicsComponent decode(ByteBuffer buffer) {
+            PhysicsComponent component = new PhysicsComponent(buffer.getFloat(), buffer.getFloat(),
+                    buffer.getFloat(), buffer.getFloat(), buffer.get() != 0);
+            component.setAccelerationX(buffer.getFloat());
+            component.setAccelerationY(buffer.getFloat());
+            component.setAccelerationZ(buffer.getFloat());
+            return component;
+        }
+    }
+    
+    private static final class CollisionCodec implements ComponentCodec<CollisionComponent> {
+        private static final CollisionComponent.Shape[] SHAPES = CollisionComponent.Shape.values();
+        
+        @Override
+        public int encodedSize(CollisionComponent component) {
+            return 1 + 7 * Float.BYTES;
+        }
+        
+        @Override
+        public void encode(CollisionComponent component, ByteBuffer buffer) {
+            CollisionComponent.Shape shape = component.getShape();
+            buffer.put((byte) (shape != null ? shape.ordinal() : -1))
+                    .putFloat(component.getWidth())
+                    .putFloat(component.getHeight())
+                    .putFloat(component.getDepth())
+                    .putFloat(component.getRadius())
+                    .putFloat(component.getOffsetX())
+                    .putFloat(component.getOffsetY())
+                    .putFloat(component.getOffsetZ());
+        }
+        
+        @Override
+        public CollisionComponent decode(ByteBuffer buffer) {
+            byte shape = buffer.get();
+            if (shape < -1 || shape >= SHAPES.length) {
+                throw new IllegalArgumentException("Invalid collision shape " + shape);
+            }
+            return new CollisionComponent(shape >= 0 ? SHAPES[shape] : null, buffer.getFloat(), buffer.getFloat(),
+                    buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+        }
+    }
+}
\ No newline at end of file
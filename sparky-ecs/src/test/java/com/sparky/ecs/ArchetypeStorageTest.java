@@ -0,0 +1,145 @@
+package com.sparky.ecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для сховища компонентів за архетипами.
+ *
+ * @author Андрій Будильников
+ */
+class ArchetypeStorageTest {
+    
+    private EntityManager entityManager;
+    
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager();
+    }
+    
+    @Test
+    void testEntitiesWithSameComponentsShareArchetype() {
+        Entity entity1 = entityManager.createEntity();
+        entity1.addComponent(new PositionComponent(1, 2, 3));
+        entity1.addComponent(new VelocityComponent(1, 0, 0));
+        
+        Entity entity2 = entityManager.createEntity();
+        // Порядок додавання не впливає на архетип
+        entity2.addComponent(new VelocityComponent(0, 1, 0));
+        entity2.addComponent(new PositionComponent(4, 5, 6));
+        
+        Entity entity3 = entityManager.createEntity();
+        entity3.addComponent(new PositionComponent(7, 8, 9));
+        
+        assertSame(entity1.getArchetype(), entity2.getArchetype());
+        assertNotSame(entity1.getArchetype(), entity3.getArchetype());
+        assertEquals(2, entity1.getArchetype().size());
+    }
+    
+    @Test
+    void testColumnsAreAlignedWithEntities() {
+        for (int i = 0; i < 100; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(i, 0, 0));
+            entity.addComponent(new VelocityComponent(0, 0, 0));
+        }
+        
+        Archetype archetype = entityManager.getEntity(1).getArchetype();
+        PositionComponent[] positions = archetype.getColumn(PositionComponent.class);
+        assertNotNull(positions);
+        assertEquals(100, archetype.size());
+        for (int row = 0; row < archetype.size(); row++) {
+            assertSame(archetype.getEntity(row).getComponent(PositionComponent.class), positions[row]);
+        }
+        assertNull(archetype.getColumn(CollisionComponent.class));
+    }
+    
+    @Test
+    void testRemoveComponentMovesEntity() {
+        Entity entity = entityManager.createEntity();
+        PositionComponent position = new PositionComponent(1, 1, 1);
+        entity.addComponent(position);
+        entity.addComponent(new VelocityComponent(1, 1, 1));
+        
+        entity.removeComponent(VelocityComponent.class);
+        
+        assertFalse(entity.hasComponent(VelocityComponent.class));
+        assertSame(position, entity.getComponent(PositionComponent.class));
+        assertEquals(1, entity.getComponentCount());
+        assertEquals(0, entityManager.getEntityCountWithComponent(VelocityComponent.class));
+    }
+    
+    @Test
+    void testRemoveEntityKeepsRowsConsistent() {
+        Entity entity1 = entityManager.createEntity();
+        entity1.addComponent(new PositionComponent(1, 0, 0));
+        Entity entity2 = entityManager.createEntity();
+        entity2.addComponent(new PositionComponent(2, 0, 0));
+        Entity entity3 = entityManager.createEntity();
+        entity3.addComponent(new PositionComponent(3, 0, 0));
+        
+        entityManager.removeEntity(entity1.getId());
+        
+        // Остання сутність переміщується на місце видаленої
+        assertEquals(3.0f, entity3.getComponent(PositionComponent.class).getX(), 0.001f);
+        assertEquals(2.0f, entity2.getComponent(PositionComponent.class).getX(), 0.001f);
+        assertEquals(2, entityManager.getEntityCountWithComponent(PositionComponent.class));
+        
+        // Видалена сутність зберігає свої компоненти
+        assertNull(entity1.getArchetype());
+        assertEquals(1.0f, entity1.getComponent(PositionComponent.class).getX(), 0.001f);
+    }
+    
+    @Test
+    void testReplaceComponentKeepsArchetype() {
+        Entity entity = entityManager.createEntity();
+        entity.addComponent(new PositionComponent(1, 1, 1));
+        Archetype archetype = entity.getArchetype();
+        
+        PositionComponent replacement = new PositionComponent(5, 5, 5);
+        entity.addComponent(replacement);
+        
+        assertSame(archetype, entity.getArchetype());
+        assertSame(replacement, entity.getComponent(PositionComponent.class));
+        assertEquals(entity.getId(), replacement.getEntityId());
+    }
+    
+    @Test
+    void testMovementSystemIteratesColumns() {
+        MovementSystem movementSystem = new MovementSystem();
+        movementSystem.setEntityManager(entityManager);
+        movementSystem.setDeltaTime(1.0f);
+        
+        Entity moving = entityManager.createEntity();
+        PositionComponent movingPosition = new PositionComponent(0, 0, 0);
+        moving.addComponent(movingPosition);
+        moving.addComponent(new VelocityComponent(1, 2, 3));
+        
+        // Сутність з додатковим компонентом лежить в іншому архетипі, але теж має рухатись
+        Entity colliding = entityManager.createEntity();
+        PositionComponent collidingPosition = new PositionComponent(0, 0, 0);
+        colliding.addComponent(collidingPosition);
+        colliding.addComponent(new VelocityComponent(1, 1, 1));
+        colliding.addComponent(new CollisionComponent());
+        
+        Entity still = entityManager.createEntity();
+        PositionComponent stillPosition = new PositionComponent(0, 0, 0);
+        still.addComponent(stillPosition);
+        
+        movementSystem.update();
+        
+        assertEquals(1.0f, movingPosition.getX(), 0.001f);
+        assertEquals(2.0f, movingPosition.getY(), 0.001f);
+        assertEquals(3.0f, movingPosition.getZ(), 0.001f);
+        assertEquals(1.0f, collidingPosition.getX(), 0.001f);
+        assertEquals(0.0f, stillPosition.getX(), 0.001f);
+        assertTrue(moving.getArchetype() != colliding.getArchetype());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.sparky.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для відстеження змінених і доданих компонентів.
+ *
+ * @author Андрій Будильников
+ */
+class ChangeDetectionTest {
+    
+    private EntityManager entityManager;
+    
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager();
+    }
+    
+    @Test
+    void testSetterMarksOnlyModifiedEntities() {
+        Query query = entityManager.getQuery(Collections.singleton(PositionComponent.class));
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(i, 0, 0));
+            entities.add(entity);
+        }
+        assertEquals(10, collectChanged(query, 0).size());
+        
+        long since = entityManager.advanceChangeTick();
+        assertTrue(collectChanged(query, since).isEmpty());
+        
+        entities.get(3).getComponent(PositionComponent.class).setY(5);
+        // Запис того самого значення не є зміною
+        entities.get(4).getComponent(PositionComponent.class).setX(4);
+        assertEquals(List.of(entities.get(3)), collectChanged(query, since));
+        assertTrue(collectAdded(query, since).isEmpty());
+    }
+    
+    @Test
+    void testTicksSurviveArchetypeMoves() {
+        Query query = entityManager.getQuery(Collections.singleton(PositionComponent.class));
+        Entity moved = entityManager.createEntity();
+        moved.addComponent(new PositionComponent(1, 1, 1));
+        Entity other = entityManager.createEntity();
+        other.addComponent(new PositionComponent(2, 2, 2));
+        
+        long since = entityManager.advanceChangeTick();
+        other.getComponent(PositionComponent.class).setX(3);
+        // Додавання іншого компонента не змінює позицію
+        moved.addComponent(new VelocityComponent(0, 0, 0));
+        entityManager.removeEntity(entityManager.createEntity().getId());
+        
+        assertEquals(List.of(other), collectChanged(query, since));
+        
+        Query velocities = entityManager.getQuery(Collections.singleton(VelocityComponent.class));
+        assertEquals(List.of(moved), collectAdded(velocities, since));
+        
+        // Зміна після переміщення позначається в новому архетипі
+        since = entityManager.advanceChangeTick();
+        moved.getComponent(PositionComponent.class).setZ(7);
+        assertEquals(List.of(moved), collectChanged(query, since));
+    }
+    
+    @Test
+    void testSystemSeesChangesSinceItsLastRun() {
+        World world = new World(entityManager, new SystemScheduler());
+        world.getScheduler().setParallel(false);
+        MovementSystem movement = new MovementSystem();
+        ChangedPositionSystem observer = new ChangedPositionSystem();
+        world.addSystem(movement);
+        world.addSystem(observer);
+        
+        Entity moving = entityManager.createEntity();
+        moving.addComponent(new PositionComponent(0, 0, 0));
+        moving.addComponent(new VelocityComponent(1, 0, 0));
+        Entity idle = entityManager.createEntity();
+        idle.addComponent(new PositionComponent(0, 0, 0));
+        idle.addComponent(new VelocityComponent(0, 0, 0));
+        
+        world.update();
+        assertEquals(Set.of(moving, idle), observer.changed);
+        
+        observer.changed.clear();
+        world.update();
+        assertEquals(Set.of(moving), observer.changed);
+    }
+    
+    @Test
+    void testPackedKernelMarksOnlyMovingRows() {
+        EntityManager packed = new EntityManager(true);
+        Entity moving = packed.createEntity();
+        moving.addComponent(new PositionComponent(0, 0, 0));
+        moving.addComponent(new VelocityComponent(0, 1, 0));
+        Entity idle = packed.createEntity();
+        idle.addComponent(new PositionComponent(0, 0, 0));
+        idle.addComponent(new VelocityComponent(0, 0, 0));
+        
+        MovementSystem movement = new MovementSystem();
+        movement.setEntityManager(packed);
+        long since = packed.advanceChangeTick();
+        movement.update();
+        
+        Query query = packed.getQuery(Collections.singleton(PositionComponent.class));
+        assertEquals(List.of(moving), collectChanged(query, since));
+    }
+    
+    private static List<Entity> collectChanged(Query query, long since) {
+        List<Entity> result = new ArrayList<>();
+        query.forEachChanged(PositionComponent.class, since, result::add);
+        return result;
+    }
+    
+    private static List<Entity> collectAdded(Query query, long since) {
+        List<Entity> result = new ArrayList<>();
+        query.forEachAdded(VelocityComponent.class, since, result::add);
+        return result;
+    }
+    
+    /**
+     * Система, що запам'ятовує сутності зі зміненою позицією.
+     */
+    private static final class ChangedPositionSystem extends System {
+        final Set<Entity> changed = new HashSet<>();
+        
+        @Override
+        public void update(List<Entity> entities) {
+        }
+        
+        @Override
+        public void update() {
+            forEachChanged(PositionComponent.class, changed::add);
+        }
+        
+        @Override
+        public Set<Class<? extends Component>> getRequiredComponents() {
+            return new HashSet<>(Collections.singleton(PositionComponent.class));
+        }
+    }
+}
\ No newline at end of file
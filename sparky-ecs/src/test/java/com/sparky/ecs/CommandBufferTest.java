@@ -0,0 +1,126 @@
+package com.sparky.ecs;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для буфера відкладених структурних змін.
+ *
+ * @author Андрій Будильников
+ */
+class CommandBufferTest {
+    
+    private EntityManager entityManager;
+    private CommandBuffer commandBuffer;
+    
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager();
+        commandBuffer = entityManager.createCommandBuffer();
+    }
+    
+    @Test
+    void testChangesAreDeferredUntilPlayback() {
+        Entity existing = entityManager.createEntity();
+        existing.addComponent(new PositionComponent(0, 0, 0));
+        
+        Entity spawned = commandBuffer.createEntity();
+        commandBuffer.addComponent(spawned, new PositionComponent(1, 2, 3));
+        commandBuffer.addComponent(existing, new VelocityComponent(1, 0, 0));
+        
+        assertNull(entityManager.getEntity(spawned.getId()));
+        assertFalse(existing.hasComponent(VelocityComponent.class));
+        
+        commandBuffer.playback();
+        
+        assertSame(spawned, entityManager.getEntity(spawned.getId()));
+        assertEquals(2.0f, spawned.getComponent(PositionComponent.class).getY(), 0.001f);
+        assertTrue(existing.hasComponent(VelocityComponent.class));
+        assertTrue(commandBuffer.isEmpty());
+    }
+    
+    @Test
+    void testChangesForOneEntityAreMerged() {
+        Entity entity = entityManager.createEntity();
+        entity.addComponent(new PositionComponent(0, 0, 0));
+        int archetypeCount = entityManager.getArchetypes().size();
+        
+        VelocityComponent last = new VelocityComponent(3, 0, 0);
+        commandBuffer.addComponent(entity, new VelocityComponent(1, 0, 0));
+        commandBuffer.addComponent(entity, new SpriteComponent());
+        commandBuffer.removeComponent(entity, SpriteComponent.class);
+        commandBuffer.addComponent(entity, last);
+        commandBuffer.removeComponent(entity, PositionComponent.class);
+        assertEquals(1, commandBuffer.size());
+        
+        commandBuffer.playback();
+        
+        // Проміжні архетипи не створюються - лише кінцевий {Velocity}
+        assertEquals(archetypeCount + 1, entityManager.getArchetypes().size());
+        assertSame(last, entity.getComponent(VelocityComponent.class));
+        assertFalse(entity.hasComponent(PositionComponent.class));
+        assertFalse(entity.hasComponent(SpriteComponent.class));
+    }
+    
+    @Test
+    void testDestroyCancelsPendingChanges() {
+        Entity entity = entityManager.createEntity();
+        commandBuffer.addComponent(entity, new PositionComponent(0, 0, 0));
+        commandBuffer.destroyEntity(entity);
+        commandBuffer.addComponent(entity, new VelocityComponent(0, 0, 0));
+        
+        Entity discarded = commandBuffer.createEntity();
+        commandBuffer.destroyEntity(discarded);
+        
+        commandBuffer.playback();
+        
+        assertNull(entityManager.getEntity(entity.getId()));
+        assertNull(entityManager.getEntity(discarded.getId()));
+        assertEquals(0, entityManager.getEntityCount());
+    }
+    
+    @Test
+    void testSchedulerPlaysBackAfterStage() {
+        World world = new World();
+        EntityManager manager = world.getEntityManager();
+        for (int i = 0; i < 10; i++) {
+            Entity entity = manager.createEntity();
+            entity.addComponent(new PositionComponent(i, 0, 0));
+            entity.addComponent(new VelocityComponent(0, 0, 0));
+        }
+        
+        // Система видаляє половину сутностей під час обходу
+        world.addSystem(new System() {
+            @Override
+            public Set<Class<? extends Component>> getRequiredComponents() {
+                return Collections.singleton(PositionComponent.class);
+            }
+            
+            @Override
+            public void update(List<Entity> entities) {
+                for (Entity entity : entities) {
+                    if (entity.getComponent(PositionComponent.class).getX() % 2 == 0) {
+                        getCommandBuffer().destroyEntity(entity);
+                    }
+                }
+                getCommandBuffer().createEntity().addComponent(new SpriteComponent());
+            }
+        });
+        
+        world.update();
+        
+        assertEquals(6, manager.getEntityCount());
+        assertEquals(1, manager.getEntityCountWithComponent(SpriteComponent.class));
+        assertNotNull(manager.getEntity(2));
+    }
+}
\ No newline at end of file
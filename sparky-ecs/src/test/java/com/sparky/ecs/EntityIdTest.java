@@ -0,0 +1,126 @@
+package com.sparky.ecs;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для ідентифікаторів сутностей з поколіннями.
+ *
+ * @author Андрій Будильников
+ */
+class EntityIdTest {
+    
+    private EntityManager entityManager;
+    
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager();
+    }
+    
+    @Test
+    void testPacking() {
+        int id = EntityId.of(1234, 7);
+        assertEquals(1234, EntityId.indexOf(id));
+        assertEquals(7, EntityId.generationOf(id));
+        assertTrue(id > 0);
+        assertEquals(EntityId.of(1234, 8), EntityId.nextGeneration(id));
+        // Перше покоління не змінює індекс
+        assertEquals(42, EntityId.of(42, 0));
+    }
+    
+    @Test
+    void testIndexIsRecycledWithNewGeneration() {
+        Entity first = entityManager.createEntity();
+        Entity second = entityManager.createEntity();
+        assertEquals(1, first.getId());
+        assertEquals(2, second.getId());
+        
+        entityManager.removeEntity(first.getId());
+        Entity recycled = entityManager.createEntity();
+        
+        assertEquals(EntityId.indexOf(first.getId()), EntityId.indexOf(recycled.getId()));
+        assertNotEquals(first.getId(), recycled.getId());
+        assertEquals(2, entityManager.getEntityCount());
+    }
+    
+    @Test
+    void testStaleHandleIsDetected() {
+        Entity entity = entityManager.createEntity();
+        int staleId = entity.getId();
+        entityManager.removeEntity(staleId);
+        Entity replacement = entityManager.createEntity();
+        
+        assertFalse(entityManager.isAlive(staleId));
+        assertNull(entityManager.getEntity(staleId));
+        assertTrue(entityManager.isAlive(replacement.getId()));
+        assertSame(replacement, entityManager.getEntity(replacement.getId()));
+        
+        // Повторне видалення за застарілим ідентифікатором не зачіпає нову сутність
+        entityManager.removeEntity(staleId);
+        assertTrue(entityManager.isAlive(replacement.getId()));
+    }
+    
+    @Test
+    void testExhaustedIndexSpaceFallsBackToPendingIds() {
+        // Усі індекси видано; у блоці три звільнені ідентифікатори
+        int[] published = {EntityId.of(3, 1), EntityId.of(4, 1), EntityId.of(5, 1)};
+        entityManager.restoreIdAllocation(EntityId.MAX_INDEX + 1, published);
+        // Один звільнений ідентифікатор лишається в списку очікування, бо блок ще не вичерпано
+        entityManager.releaseEntityId(9);
+        
+        for (int id : published) {
+            assertEquals(id, entityManager.reserveEntityId());
+        }
+        assertEquals(EntityId.nextGeneration(9), entityManager.reserveEntityId());
+        assertThrows(IllegalStateException.class, entityManager::reserveEntityId);
+    }
+    
+    @Test
+    void testConcurrentReservationsAreUnique() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            entityManager.createEntity();
+        }
+        for (int id = 1; id <= 100; id += 2) {
+            entityManager.removeEntity(id);
+        }
+        
+        Set<Integer> reserved = ConcurrentHashMap.newKeySet();
+        int threads = 4;
+        int perThread = 1_000;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    CommandBuffer commandBuffer = entityManager.createCommandBuffer();
+                    for (int i = 0; i < perThread; i++) {
+                        reserved.add(commandBuffer.createEntity().getId());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+        
+        assertEquals(threads * perThread, reserved.size());
+        for (int id = 2; id <= 100; id += 2) {
+            assertFalse(reserved.contains(id));
+        }
+    }
+}
\ No newline at end of file
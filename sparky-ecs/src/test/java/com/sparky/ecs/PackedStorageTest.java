@@ -0,0 +1,103 @@
+package com.sparky.ecs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для упакованого зберігання позиції та швидкості в колонках архетипів.
+ *
+ * @author Андрій Будильников
+ */
+class PackedStorageTest {
+    
+    private EntityManager entityManager;
+    
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager(true);
+    }
+    
+    @Test
+    void testComponentReadsAndWritesGoThroughColumns() {
+        Entity entity = entityManager.createEntity();
+        PositionComponent position = new PositionComponent(1, 2, 3);
+        entity.addComponent(position);
+        
+        Archetype archetype = entity.getArchetype();
+        float[] y = archetype.getFloatColumn(PositionComponent.class, 1);
+        assertNotNull(y);
+        assertEquals(2.0f, y[entity.getRow()], 0.0001f);
+        
+        position.setY(5);
+        assertEquals(5.0f, y[entity.getRow()], 0.0001f);
+        y[entity.getRow()] = 7;
+        assertEquals(7.0f, position.getY(), 0.0001f);
+    }
+    
+    @Test
+    void testValuesSurviveArchetypeMovesAndRemoval() {
+        Entity first = entityManager.createEntity();
+        Entity second = entityManager.createEntity();
+        PositionComponent firstPosition = new PositionComponent(1, 1, 1);
+        PositionComponent secondPosition = new PositionComponent(2, 2, 2);
+        first.addComponent(firstPosition);
+        second.addComponent(secondPosition);
+        
+        // Переміщення в інший архетип і перестановка рядків при видаленні
+        first.addComponent(new VelocityComponent(0, 0, 0));
+        secondPosition.setX(20);
+        first.removeComponent(VelocityComponent.class);
+        assertEquals(1.0f, firstPosition.getX(), 0.0001f);
+        assertEquals(20.0f, secondPosition.getX(), 0.0001f);
+        
+        entityManager.removeEntity(first.getId());
+        assertEquals(1.0f, firstPosition.getX(), 0.0001f);
+        assertEquals(20.0f, second.getComponent(PositionComponent.class).getX(), 0.0001f);
+        
+        PositionComponent removed = second.getComponent(PositionComponent.class);
+        second.removeComponent(PositionComponent.class);
+        removed.setZ(9);
+        assertEquals(9.0f, removed.getZ(), 0.0001f);
+    }
+    
+    @Test
+    void testUnpackedManagerHasNoFloatColumns() {
+        EntityManager plain = new EntityManager();
+        Entity entity = plain.createEntity();
+        entity.addComponent(new PositionComponent(1, 2, 3));
+        assertNull(entity.getArchetype().getFloatColumn(PositionComponent.class, 0));
+    }
+    
+    @Test
+    void testBulkKernelMatchesObjectPath() {
+        EntityManager plain = new EntityManager();
+        for (int i = 0; i < 1_000; i++) {
+            for (EntityManager manager : new EntityManager[] {plain, entityManager}) {
+                Entity entity = manager.createEntity();
+                entity.addComponent(new PositionComponent(i, -i, i * 0.5f));
+                entity.addComponent(new VelocityComponent(i % 5, 1, -2));
+            }
+        }
+        
+        MovementSystem objectPath = new MovementSystem();
+        objectPath.setEntityManager(plain);
+        MovementSystem packedPath = new MovementSystem();
+        packedPath.setEntityManager(entityManager);
+        packedPath.setParallelChunkSize(100);
+        for (int step = 0; step < 10; step++) {
+            objectPath.update();
+            packedPath.update();
+        }
+        
+        for (int id = 1; id <= 1_000; id++) {
+            PositionComponent expected = plain.getEntity(id).getComponent(PositionComponent.class);
+            PositionComponent actual = entityManager.getEntity(id).getComponent(PositionComponent.class);
+            assertEquals(expected.getX(), actual.getX(), 0.0f);
+            assertEquals(expected.getY(), actual.getY(), 0.0f);
+            assertEquals(expected.getZ(), actual.getZ(), 0.0f);
+        }
+    }
+}
\ No newline at end of file
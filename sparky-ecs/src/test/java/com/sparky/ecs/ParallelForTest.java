@@ -0,0 +1,104 @@
+package com.sparky.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для паралельного обходу частинами.
+ *
+ * @author Андрій Будильников
+ */
+class ParallelForTest {
+    
+    @Test
+    void testForRangeVisitsEveryIndexOnce() {
+        int size = 10_000;
+        AtomicIntegerArray visits = new AtomicIntegerArray(size);
+        ParallelFor.forRange(size, 64, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                visits.incrementAndGet(i);
+            }
+        });
+        
+        for (int i = 0; i < size; i++) {
+            assertEquals(1, visits.get(i));
+        }
+    }
+    
+    @Test
+    void testReduceCombinesChunkResults() {
+        long sum = ParallelFor.reduce(100_000, 16, (from, to) -> {
+            long local = 0;
+            for (int i = from; i < to; i++) {
+                local += i;
+            }
+            return local;
+        }, Long::sum, 0L);
+        
+        assertEquals(100_000L * 99_999L / 2, sum);
+        assertEquals(Long.valueOf(0L), ParallelFor.reduce(0, 16, (from, to) -> 1L, Long::sum, 0L));
+    }
+    
+    @Test
+    void testQueryForEachParallelSpansArchetypes() {
+        EntityManager entityManager = new EntityManager();
+        for (int i = 0; i < 3_000; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(0, 0, 0));
+            if (i % 3 == 0) {
+                entity.addComponent(new VelocityComponent(0, 0, 0));
+            }
+            if (i % 5 == 0) {
+                entity.addComponent(new SpriteComponent());
+            }
+        }
+        
+        Query query = entityManager.getQuery(Collections.singleton(PositionComponent.class));
+        AtomicIntegerArray visits = new AtomicIntegerArray(3_001);
+        query.forEachParallel(32, entity -> visits.incrementAndGet(entity.getId()));
+        
+        for (int id = 1; id <= 3_000; id++) {
+            assertEquals(1, visits.get(id));
+        }
+    }
+    
+    @Test
+    void testParallelMovementMatchesSequential() {
+        EntityManager sequentialManager = new EntityManager();
+        EntityManager parallelManager = new EntityManager();
+        List<Entity> entities = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            for (EntityManager manager : new EntityManager[] {sequentialManager, parallelManager}) {
+                Entity entity = manager.createEntity();
+                entity.addComponent(new PositionComponent(i, 0, 0));
+                entity.addComponent(new VelocityComponent(1, i % 7, 0));
+                if (manager == parallelManager) {
+                    entities.add(entity);
+                }
+            }
+        }
+        
+        MovementSystem sequential = new MovementSystem();
+        sequential.setEntityManager(sequentialManager);
+        MovementSystem parallel = new MovementSystem();
+        parallel.setEntityManager(parallelManager);
+        parallel.setParallelChunkSize(64);
+        
+        sequential.update();
+        sequential.update(sequentialManager.getEntitiesForSystem(sequential));
+        parallel.update();
+        parallel.update(entities);
+        
+        for (int id = 1; id <= 2_000; id++) {
+            PositionComponent expected = sequentialManager.getEntity(id).getComponent(PositionComponent.class);
+            PositionComponent actual = parallelManager.getEntity(id).getComponent(PositionComponent.class);
+            assertEquals(expected.getX(), actual.getX(), 1e-6);
+            assertEquals(expected.getY(), actual.getY(), 1e-6);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.sparky.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для зареєстрованих запитів до сутностей.
+ *
+ * @author Андрій Будильников
+ */
+class QueryTest {
+    
+    private EntityManager entityManager;
+    
+    @BeforeEach
+    void setUp() {
+        entityManager = new EntityManager();
+    }
+    
+    @Test
+    void testQueryIsCached() {
+        Query first = entityManager.getQuery(Set.of(PositionComponent.class, VelocityComponent.class));
+        Query second = entityManager.getQuery(Set.of(VelocityComponent.class, PositionComponent.class));
+        assertSame(first, second);
+    }
+    
+    @Test
+    void testMembershipIsMaintainedIncrementally() {
+        // Запит створюється до того, як з'являються відповідні архетипи
+        Query query = entityManager.getQuery(Set.of(PositionComponent.class, VelocityComponent.class));
+        assertTrue(query.isEmpty());
+        
+        Entity entity = entityManager.createEntity();
+        entity.addComponent(new PositionComponent(0, 0, 0));
+        assertFalse(query.contains(entity));
+        
+        entity.addComponent(new VelocityComponent(1, 1, 1));
+        assertTrue(query.contains(entity));
+        assertEquals(1, query.size());
+        
+        entity.removeComponent(PositionComponent.class);
+        assertFalse(query.contains(entity));
+        assertEquals(0, query.size());
+        
+        entity.addComponent(new PositionComponent(0, 0, 0));
+        entityManager.removeEntity(entity.getId());
+        assertEquals(0, query.size());
+    }
+    
+    @Test
+    void testAnyAndNoneFilters() {
+        Entity sprite = entityManager.createEntity();
+        sprite.addComponent(new PositionComponent(0, 0, 0));
+        sprite.addComponent(new SpriteComponent());
+        
+        Entity camera = entityManager.createEntity();
+        camera.addComponent(new PositionComponent(0, 0, 0));
+        camera.addComponent(new CameraComponent());
+        
+        Entity hidden = entityManager.createEntity();
+        hidden.addComponent(new PositionComponent(0, 0, 0));
+        hidden.addComponent(new SpriteComponent());
+        hidden.addComponent(new CollisionComponent());
+        
+        Entity plain = entityManager.createEntity();
+        plain.addComponent(new PositionComponent(0, 0, 0));
+        
+        Query query = entityManager.getQuery(
+                Set.of(PositionComponent.class),
+                Set.of(SpriteComponent.class, CameraComponent.class),
+                Set.of(CollisionComponent.class));
+        
+        List<Entity> result = query.toList();
+        assertEquals(2, result.size());
+        assertTrue(result.contains(sprite));
+        assertTrue(result.contains(camera));
+        assertFalse(result.contains(hidden));
+        assertFalse(result.contains(plain));
+    }
+    
+    @Test
+    void testForEachVisitsAllMatches() {
+        for (int i = 0; i < 50; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(i, 0, 0));
+            if (i % 2 == 0) {
+                entity.addComponent(new VelocityComponent(0, 0, 0));
+            }
+        }
+        
+        Query query = entityManager.getQuery(Collections.singleton(PositionComponent.class));
+        int[] visited = new int[1];
+        query.forEach(entity -> visited[0]++);
+        
+        assertEquals(50, visited[0]);
+        assertEquals(2, query.getArchetypeCount());
+    }
+    
+    @Test
+    void testSystemUsesCachedQuery() {
+        MovementSystem movementSystem = new MovementSystem();
+        movementSystem.setEntityManager(entityManager);
+        
+        Query query = movementSystem.getQuery();
+        assertSame(query, movementSystem.getQuery());
+        assertSame(query, entityManager.getQuery(movementSystem.getRequiredComponents()));
+        
+        movementSystem.setEntityManager(new EntityManager());
+        assertFalse(query == movementSystem.getQuery());
+    }
+    
+    @Test
+    void testQueriesCreatedConcurrentlyWithArchetypes() throws InterruptedException {
+        List<Supplier<Component>> factories = List.of(PositionComponent::new, PhysicsComponent::new,
+                SpriteComponent::new, CollisionComponent::new, CameraComponent::new);
+        List<Class<? extends Component>> types = List.of(PositionComponent.class, PhysicsComponent.class,
+                SpriteComponent.class, CollisionComponent.class, CameraComponent.class);
+        
+        for (int round = 0; round < 50; round++) {
+            EntityManager manager = new EntityManager();
+            List<Query> queries = new ArrayList<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            // Запити створюються з іншого потоку, поки основний потік створює архетипи
+            Thread reader = new Thread(() -> {
+                try {
+                    for (Class<? extends Component> first : types) {
+                        for (Class<? extends Component> second : types) {
+                            queries.add(manager.getQuery(first == second ? Set.of(first) : Set.of(first, second)));
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            reader.start();
+            for (int mask = 1; mask < 1 << factories.size(); mask++) {
+                Entity entity = manager.createEntity();
+                for (int bit = 0; bit < factories.size(); bit++) {
+                    if ((mask & 1 << bit) != 0) {
+                        entity.addComponent(factories.get(bit).get());
+                    }
+                }
+            }
+            reader.join();
+            
+            assertNull(failure.get());
+            for (Query query : queries) {
+                int expected = 0;
+                for (Archetype archetype : manager.getArchetypes()) {
+                    if (query.matches(archetype)) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, query.getArchetypeCount());
+            }
+        }
+    }
+}
\ No newline at end of file
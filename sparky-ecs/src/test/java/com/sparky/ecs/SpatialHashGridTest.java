@@ -0,0 +1,106 @@
+package com.sparky.ecs;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для просторової хеш-сітки широкої фази.
+ *
+ * @author Андрій Будильников
+ */
+class SpatialHashGridTest {
+    
+    @Test
+    void testCandidatePairsCoverAllOverlaps() {
+        Random random = new Random(42);
+        int count = 500;
+        float[][] boxes = new float[count][];
+        SpatialHashGrid grid = new SpatialHashGrid(2.0f);
+        for (int i = 0; i < count; i++) {
+            float x = random.nextFloat() * 100 - 50;
+            float y = random.nextFloat() * 100 - 50;
+            float size = 0.5f + random.nextFloat() * 3;
+            boxes[i] = new float[] {x, y, x + size, y + size};
+            grid.update(i, x, y, x + size, y + size);
+        }
+        
+        Set<Long> candidates = new HashSet<>();
+        grid.forEachCandidatePair((a, b) -> assertTrue(candidates.add((long) a << 32 | b)));
+        
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                boolean overlap = boxes[i][0] < boxes[j][2] && boxes[i][2] > boxes[j][0]
+                        && boxes[i][1] < boxes[j][3] && boxes[i][3] > boxes[j][1];
+                if (overlap) {
+                    assertTrue(candidates.contains((long) i << 32 | j));
+                }
+            }
+        }
+        assertTrue(candidates.size() < count * (count - 1) / 20);
+    }
+    
+    @Test
+    void testUpdateAndRemove() {
+        SpatialHashGrid grid = new SpatialHashGrid(1.0f);
+        grid.update(0, 0, 0, 0.5f, 0.5f);
+        grid.update(1, 0.2f, 0.2f, 0.7f, 0.7f);
+        assertEquals(1, countPairs(grid));
+        
+        // Об'єкт переходить в далеку клітинку
+        grid.update(1, 10, 10, 10.5f, 10.5f);
+        assertEquals(0, countPairs(grid));
+        
+        grid.update(1, 0.1f, 0.1f, 0.3f, 0.3f);
+        assertEquals(1, countPairs(grid));
+        
+        grid.remove(0);
+        assertEquals(1, grid.size());
+        assertEquals(0, countPairs(grid));
+    }
+    
+    @Test
+    void testCollisionSystemMatchesBruteForce() {
+        EntityManager bruteManager = createColliders();
+        EntityManager broadManager = createColliders();
+        
+        CollisionSystem brute = new CollisionSystem();
+        brute.setEntityManager(bruteManager);
+        brute.setBroadphaseEnabled(false);
+        brute.update();
+        
+        CollisionSystem broad = new CollisionSystem();
+        broad.setEntityManager(broadManager);
+        broad.update();
+        
+        // Кожна колізія множить швидкість на -0.3, тому результат не залежить від порядку пар
+        for (int id = 1; id <= 400; id++) {
+            assertEquals(bruteManager.getEntity(id).getComponent(VelocityComponent.class).getDx(),
+                    broadManager.getEntity(id).getComponent(VelocityComponent.class).getDx(), 1e-6f);
+        }
+        assertEquals(400L * 399 / 2, brute.getPairTestCount());
+        assertTrue(broad.getPairTestCount() < brute.getPairTestCount() / 10);
+    }
+    
+    private static EntityManager createColliders() {
+        EntityManager entityManager = new EntityManager();
+        Random random = new Random(7);
+        for (int i = 0; i < 400; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(random.nextFloat() * 60, random.nextFloat() * 60, 0));
+            entity.addComponent(new CollisionComponent());
+            entity.addComponent(new VelocityComponent(1, 0, 0));
+        }
+        return entityManager;
+    }
+    
+    private static int countPairs(SpatialHashGrid grid) {
+        int[] pairs = new int[1];
+        grid.forEachCandidatePair((a, b) -> pairs[0]++);
+        return pairs[0];
+    }
+}
\ No newline at end of file
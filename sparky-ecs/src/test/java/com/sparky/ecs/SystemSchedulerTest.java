@@ -0,0 +1,153 @@
+package com.sparky.ecs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для паралельного планувальника систем.
+ *
+ * @author Андрій Будильников
+ */
+class SystemSchedulerTest {
+    
+    private World world;
+    
+    @BeforeEach
+    void setUp() {
+        world = new World();
+    }
+    
+    @Test
+    void testIndependentSystemsShareStage() {
+        RenderingSystem rendering = new RenderingSystem();
+        AccessSystem writer = new AccessSystem(
+                Collections.emptySet(), Collections.singleton(CollisionComponent.class), null);
+        world.addSystem(rendering);
+        world.addSystem(writer);
+        
+        List<List<System>> stages = world.getScheduler().getStages();
+        assertEquals(1, stages.size());
+        assertEquals(2, stages.get(0).size());
+    }
+    
+    @Test
+    void testConflictingSystemsKeepRegistrationOrder() {
+        MovementSystem movement = new MovementSystem();
+        PhysicsSystem physics = new PhysicsSystem();
+        CollisionSystem collision = new CollisionSystem();
+        world.addSystem(physics);
+        world.addSystem(movement);
+        world.addSystem(collision);
+        
+        // physics пише швидкість, movement її читає, collision знову пише
+        List<List<System>> stages = world.getScheduler().getStages();
+        assertEquals(3, stages.size());
+        assertSame(physics, stages.get(0).get(0));
+        assertSame(movement, stages.get(1).get(0));
+        assertSame(collision, stages.get(2).get(0));
+    }
+    
+    @Test
+    void testUndeclaredSystemRunsExclusively() {
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        world.addSystem(new AccessSystem(
+                Collections.singleton(PositionComponent.class), Collections.emptySet(), () -> log.add("a")));
+        world.addSystem(new AccessSystem(
+                Collections.emptySet(), Collections.emptySet(), () -> log.add("b")));
+        world.addSystem(new AccessSystem(
+                Collections.singleton(PositionComponent.class), Collections.emptySet(), () -> log.add("c")));
+        
+        assertEquals(3, world.getScheduler().getStages().size());
+        world.update();
+        assertEquals(List.of("a", "b", "c"), log);
+    }
+    
+    @Test
+    void testParallelMatchesSequential() {
+        World sequential = new World();
+        sequential.getScheduler().setParallel(false);
+        populate(world);
+        populate(sequential);
+        
+        for (int i = 0; i < 5; i++) {
+            world.update();
+            sequential.update();
+        }
+        
+        for (int id = 1; id <= 100; id++) {
+            PositionComponent expected = sequential.getEntityManager().getEntity(id)
+                    .getComponent(PositionComponent.class);
+            PositionComponent actual = world.getEntityManager().getEntity(id)
+                    .getComponent(PositionComponent.class);
+            assertEquals(expected.getX(), actual.getX(), 1e-9);
+            assertEquals(expected.getY(), actual.getY(), 1e-9);
+            assertEquals(expected.getZ(), actual.getZ(), 1e-9);
+        }
+    }
+    
+    private static void populate(World target) {
+        target.addSystem(new PhysicsSystem());
+        target.addSystem(new MovementSystem());
+        target.addSystem(new RenderingSystem());
+        
+        EntityManager entityManager = target.getEntityManager();
+        for (int i = 0; i < 100; i++) {
+            Entity entity = entityManager.createEntity();
+            entity.addComponent(new PositionComponent(i, i * 2, 0));
+            entity.addComponent(new VelocityComponent(1, 0, i % 3));
+            if (i % 2 == 0) {
+                entity.addComponent(new PhysicsComponent());
+            }
+        }
+    }
+    
+    /**
+     * Тестова система з явно заданим доступом до компонентів.
+     */
+    private static class AccessSystem extends System {
+        private final Set<Class<? extends Component>> reads;
+        private final Set<Class<? extends Component>> writes;
+        private final Runnable action;
+        
+        AccessSystem(Set<Class<? extends Component>> reads, Set<Class<? extends Component>> writes,
+                     Runnable action) {
+            this.reads = reads;
+            this.writes = writes;
+            this.action = action;
+        }
+        
+        @Override
+        public Set<Class<? extends Component>> getRequiredComponents() {
+            return new HashSet<>();
+        }
+        
+        @Override
+        public Set<Class<? extends Component>> getReadComponents() {
+            return reads;
+        }
+        
+        @Override
+        public Set<Class<? extends Component>> getWriteComponents() {
+            return writes;
+        }
+        
+        @Override
+        public void update() {
+            if (action != null) {
+                action.run();
+            }
+        }
+        
+        @Override
+        public void update(List<Entity> entities) {
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,245 @@
+package com.sparky.ecs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для двійкових знімків світу.
+ *
+ * @author Андрій Будильников
+ */
+class WorldSnapshotTest {
+    
+    @Test
+    void testRoundTripThroughFile() throws IOException {
+        EntityManager source = new EntityManager(true);
+        for (int i = 0; i < 1_000; i++) {
+            Entity entity = source.createEntity();
+            entity.addComponent(new PositionComponent(i, i * 2, -i));
+            if (i % 2 == 0) {
+                entity.addComponent(new VelocityComponent(1, 0, i));
+            }
+            if (i % 3 == 0) {
+                entity.addComponent(new CollisionComponent(CollisionComponent.Shape.CIRCLE, 0.5f, 0, 0, 0));
+            }
+            if (i % 5 == 0) {
+                // Тип без двійкового кодека зберігається як JSON
+                entity.addComponent(new SpriteComponent("texture-" + i, 2, 3));
+            }
+        }
+        int removedId = source.getAllEntities().get(10).getId();
+        source.removeEntity(removedId);
+        
+        Path file = Files.createTempFile("world", ".snapshot");
+        try {
+            WorldSnapshot snapshot = new WorldSnapshot();
+            snapshot.write(source, file);
+            EntityManager restored = snapshot.read(file);
+            
+            assertEquals(source.getEntityCount(), restored.getEntityCount());
+            for (Entity expected : source.getAllEntities()) {
+                Entity actual = restored.getEntity(expected.getId());
+                assertNotNull(actual);
+                assertEquals(expected.getComponents().keySet(), actual.getComponents().keySet());
+                PositionComponent position = actual.getComponent(PositionComponent.class);
+                assertEquals(expected.getComponent(PositionComponent.class).getY(), position.getY(), 0.0f);
+                if (expected.hasComponent(VelocityComponent.class)) {
+                    assertEquals(expected.getComponent(VelocityComponent.class).getDz(),
+                            actual.getComponent(VelocityComponent.class).getDz(), 0.0f);
+                }
+                if (expected.hasComponent(CollisionComponent.class)) {
+                    CollisionComponent collision = actual.getComponent(CollisionComponent.class);
+                    assertEquals(CollisionComponent.Shape.CIRCLE, collision.getShape());
+                    assertEquals(0.5f, collision.getRadius(), 0.0f);
+                }
+                if (expected.hasComponent(SpriteComponent.class)) {
+                    assertEquals(expected.getComponent(SpriteComponent.class).getTextureId(),
+                            actual.getComponent(SpriteComponent.class).getTextureId());
+                }
+            }
+            
+            // Звільнений слот перевикористовується з наступним поколінням, як і в початковому менеджері
+            assertFalse(restored.isAlive(removedId));
+            int recycled = restored.createEntity().getId();
+            assertEquals(EntityId.indexOf(removedId), EntityId.indexOf(recycled));
+            assertNotEquals(removedId, recycled);
+            assertEquals(source.createEntity().getId(), recycled);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    @Test
+    void testBufferRoundTripAndInvalidInput() throws IOException {
+        EntityManager source = new EntityManager();
+        Entity entity = source.createEntity();
+        entity.addComponent(new PhysicsComponent(2, 0.5f, 0.1f, 0.3f, false));
+        
+        WorldSnapshot snapshot = new WorldSnapshot();
+        ByteArrayChannel channel = new ByteArrayChannel();
+        snapshot.write(source, channel);
+        byte[] bytes = channel.toByteArray();
+        
+        EntityManager restored = new EntityManager();
+        snapshot.read(ByteBuffer.wrap(bytes), restored);
+        PhysicsComponent physics = restored.getEntity(entity.getId()).getComponent(PhysicsComponent.class);
+        assertEquals(2.0f, physics.getMass(), 0.0f);
+        assertFalse(physics.isAffectedByGravity());
+        
+        assertThrows(IllegalStateException.class, () -> snapshot.read(ByteBuffer.wrap(bytes), restored));
+        assertThrows(IOException.class,
+                () -> snapshot.read(ByteBuffer.wrap(bytes, 0, bytes.length - 3), new EntityManager()));
+    }
+    
+    @Test
+    void testRestoredComponentsAreReportedAsAdded() throws IOException {
+        EntityManager source = new EntityManager();
+        source.createEntity().addComponent(new PositionComponent(1, 2, 3));
+        ByteArrayChannel channel = new ByteArrayChannel();
+        new WorldSnapshot().write(source, channel);
+        
+        EntityManager restored = new EntityManager();
+        long since = restored.advanceChangeTick();
+        new WorldSnapshot().read(ByteBuffer.wrap(channel.toByteArray()), restored);
+        int[] added = new int[1];
+        restored.getQuery(Collections.singleton(PositionComponent.class))
+                .forEachAdded(PositionComponent.class, since, e -> added[0]++);
+        assertEquals(1, added[0]);
+        assertTrue(restored.isAlive(1));
+    }
+    
+    @Test
+    void testTruncatedOrCorruptedSnapshotThrowsIOException() throws IOException {
+        EntityManager source = new EntityManager();
+        for (int i = 0; i < 12; i++) {
+            Entity entity = source.createEntity();
+            entity.addComponent(new PositionComponent(i, 0, 0));
+            if (i % 2 == 0) {
+                entity.addComponent(new CollisionComponent(CollisionComponent.Shape.BOX, 1, 1, 1, 0));
+            }
+            if (i % 3 == 0) {
+                entity.addComponent(new SpriteComponent("texture-" + i, 1, 1));
+            }
+        }
+        source.removeEntity(source.getAllEntities().get(4).getId());
+        ByteArrayChannel channel = new ByteArrayChannel();
+        WorldSnapshot snapshot = new WorldSnapshot();
+        snapshot.write(source, channel);
+        byte[] bytes = channel.toByteArray();
+        
+        for (int length = 0; length < bytes.length; length++) {
+            int end = length;
+            assertThrows(IOException.class,
+                    () -> snapshot.read(ByteBuffer.wrap(bytes, 0, end), new EntityManager()), "length " + end);
+        }
+        
+        // Зіпсований байт або не помітний, або дає IOException, але ніколи інший виняток
+        for (int position = 0; position < bytes.length; position++) {
+            for (int mask : new int[] {0xFF, 0x80, 0x01}) {
+                byte[] corrupted = bytes.clone();
+                corrupted[position] ^= (byte) mask;
+                try {
+                    snapshot.read(ByteBuffer.wrap(corrupted), new EntityManager());
+                } catch (IOException expected) {
+                    // Пошкодження виявлено
+                } catch (RuntimeException e) {
+                    throw new AssertionError("Byte " + position + " flipped with " + mask, e);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void testInvalidIndicesAndLengthsAreRejected() throws IOException {
+        EntityManager source = new EntityManager();
+        source.createEntity().addComponent(new CollisionComponent(CollisionComponent.Shape.SPHERE, 0, 0, 0, 1));
+        ByteArrayChannel channel = new ByteArrayChannel();
+        WorldSnapshot snapshot = new WorldSnapshot();
+        snapshot.write(source, channel);
+        byte[] bytes = channel.toByteArray();
+        
+        // Хвіст знімка: індекс типу, розмір архетипу, ідентифікатор і компонент з байтом форми та 7 float
+        int shapeOffset = bytes.length - (1 + 7 * Float.BYTES);
+        int typeIndexOffset = shapeOffset - 3 * Integer.BYTES;
+        int nameOffset = indexOf(bytes, CollisionComponent.class.getName().getBytes(StandardCharsets.UTF_8));
+        
+        assertCorrupted(snapshot, bytes, shapeOffset, 1, 100);
+        assertCorrupted(snapshot, bytes, shapeOffset, 1, -2);
+        assertCorrupted(snapshot, bytes, typeIndexOffset, Integer.BYTES, 1);
+        assertCorrupted(snapshot, bytes, typeIndexOffset, Integer.BYTES, -1);
+        assertCorrupted(snapshot, bytes, nameOffset - Integer.BYTES, Integer.BYTES, -1);
+        assertCorrupted(snapshot, bytes, nameOffset - Integer.BYTES, Integer.BYTES, Integer.MAX_VALUE);
+        assertCorrupted(snapshot, bytes, nameOffset - Integer.BYTES - 1, 1, 7);
+        // Лічильник вільних ідентифікаторів і ідентифікатор поза межею індексів
+        assertCorrupted(snapshot, bytes, 4 * Integer.BYTES, Integer.BYTES, Integer.MAX_VALUE);
+        assertCorrupted(snapshot, bytes, typeIndexOffset + 2 * Integer.BYTES, Integer.BYTES, EntityId.MAX_INDEX);
+    }
+    
+    private static void assertCorrupted(WorldSnapshot snapshot, byte[] bytes, int offset, int width, int value) {
+        ByteBuffer corrupted = ByteBuffer.wrap(bytes.clone()).order(ByteOrder.LITTLE_ENDIAN);
+        if (width == 1) {
+            corrupted.put(offset, (byte) value);
+        } else {
+            corrupted.putInt(offset, value);
+        }
+        assertThrows(IOException.class, () -> snapshot.read(corrupted, new EntityManager()),
+                "offset " + offset + " = " + value);
+    }
+    
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalArgumentException("Pattern not found");
+    }
+    
+    /**
+     * Канал, що збирає записані байти в пам'яті.
+     */
+    private static final class ByteArrayChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        @Override
+        public int write(ByteBuffer src) {
+            int count = src.remaining();
+            byte[] chunk = new byte[count];
+            src.get(chunk);
+            out.write(chunk, 0, count);
+            return count;
+        }
+        
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+        
+        @Override
+        public void close() {
+        }
+        
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
\ No newline at end of file
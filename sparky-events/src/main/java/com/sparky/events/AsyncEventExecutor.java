@@ -0,0 +1,366 @@
+package com.sparky.events;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sparky.core.SparkyLogger;
+
+/**
+ * Виконавець асинхронних обробників подій з обмеженими чергами.
+ * <p>
+ * Кожен слухач має власну поштову скриньку: його асинхронні обробники
+ * виконуються послідовно в порядку надходження подій, а різні слухачі
+ * виконуються паралельно на спільному пулі потоків. Скринька займає потік
+ * лише поки в ній є задачі і після {@value #MAILBOX_THROUGHPUT} задач
+ * поступається місцем іншим скринькам.
+ * <p>
+ * Місткість скриньки обмежена; що робити з подією, коли скринька
+ * заповнена, визначає {@link RejectionPolicy}. Жодна політика не порушує
+ * порядок і взаємне виключення обробників одного слухача.
+ * <p>
+ * Після {@link #shutdown()} нові задачі відкидаються, а задачі, що вже
+ * в черзі, виконуються до кінця: скринька більше не поступається потоком,
+ * а дочищає свою чергу.
+ *
+ * @author Андрій Будильников
+ */
+public class AsyncEventExecutor {
+    private static final int MAILBOX_THROUGHPUT = 64;
+    
+    /**
+     * Політика для подій, що надходять у заповнену скриньку.
+     */
+    public enum RejectionPolicy {
+        /** Відкинути нову подію. */
+        DROP_NEWEST,
+        /** Відкинути найстарішу подію в скриньці і поставити нову. */
+        DROP_OLDEST,
+        /**
+         * Чекати, поки в скриньці звільниться місце. Обробники, що самі
+         * виконуються у скриньці цього виконавця, не чекають, а ставлять
+         * подію понад місткість ({@link #getOverflowCount()}): інакше
+         * скриньки, що відправляють події одна одній, могли б зайняти всі
+         * потоки пулу і чекати вічно.
+         */
+        BLOCK
+    }
+    
+    private final SparkyLogger logger = SparkyLogger.getLogger(AsyncEventExecutor.class);
+    private final ExecutorService workers;
+    private final boolean virtualThreads;
+    private final int mailboxCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final Map<Object, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final AtomicInteger peakMailboxDepth = new AtomicInteger();
+    private volatile boolean shutdown;
+    // Скринька, яку зараз виконує потік; для BLOCK і для виконання власною скринькою
+    private final ThreadLocal<Mailbox> currentMailbox = new ThreadLocal<>();
+    
+    /**
+     * Створює виконавець на фіксованому пулі звичайних потоків.
+     *
+     * @param threads кількість потоків пулу
+     * @param mailboxCapacity максимальна кількість подій у черзі одного слухача
+     * @param rejectionPolicy що робити з подією, коли черга слухача заповнена
+     */
+    public AsyncEventExecutor(int threads, int mailboxCapacity, RejectionPolicy rejectionPolicy) {
+        this(Executors.newFixedThreadPool(threads, daemonThreadFactory()), false, mailboxCapacity, rejectionPolicy);
+    }
+    
+    private AsyncEventExecutor(ExecutorService workers, boolean virtualThreads, int mailboxCapacity,
+            RejectionPolicy rejectionPolicy) {
+        if (mailboxCapacity <= 0) {
+            workers.shutdown();
+            throw new IllegalArgumentException("Mailbox capacity must be positive: " + mailboxCapacity);
+        }
+        this.workers = workers;
+        this.virtualThreads = virtualThreads;
+        this.mailboxCapacity = mailboxCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+    
+    /**
+     * Створює виконавець, що запускає кожну скриньку у віртуальному потоці (Java 21+).
+     * На старіших JVM використовується пул звичайних потоків за кількістю процесорів.
+     */
+    public static AsyncEventExecutor withVirtualThreads(int mailboxCapacity, RejectionPolicy rejectionPolicy) {
+        try {
+            // Через рефлексію, бо бібліотека компілюється під Java 17
+            ExecutorService workers = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new AsyncEventExecutor(workers, true, mailboxCapacity, rejectionPolicy);
+        } catch (ReflectiveOperationException e) {
+            SparkyLogger.getLogger(AsyncEventExecutor.class)
+                    .warn("Virtual threads are not available, falling back to a platform thread pool");
+            return new AsyncEventExecutor(Runtime.getRuntime().availableProcessors(), mailboxCapacity, rejectionPolicy);
+        }
+    }
+    
+    /**
+     * Ставить задачу в чергу слухача.
+     */
+    public void execute(Object listener, Runnable task) {
+        if (shutdown) {
+            rejected.increment();
+            return;
+        }
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(listener, Mailbox::new);
+            if (mailbox.offer(task)) {
+                return;
+            }
+            // Скринька вже вилучена після release(); вона порожня і не виконується,
+            // тому нова скринька не працюватиме одночасно з нею
+            mailboxes.remove(listener, mailbox);
+        }
+    }
+    
+    /**
+     * Забуває скриньку слухача. Задачі, що вже в черзі, буде виконано; зайнята
+     * скринька вилучається, коли спорожніє, тож нові задачі слухача до того
+     * часу продовжують іти в неї.
+     */
+    public void release(Object listener) {
+        Mailbox mailbox = mailboxes.get(listener);
+        if (mailbox != null && mailbox.release()) {
+            mailboxes.remove(listener, mailbox);
+        }
+    }
+    
+    /**
+     * Повертає кількість задач, що очікують виконання, в усіх скриньках.
+     */
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+    
+    /**
+     * Повертає кількість задач у черзі слухача.
+     */
+    public int getQueueDepth(Object listener) {
+        Mailbox mailbox = mailboxes.get(listener);
+        return mailbox != null ? mailbox.size() : 0;
+    }
+    
+    /**
+     * Повертає найбільшу глибину черги однієї скриньки з моменту створення виконавця.
+     */
+    public int getPeakQueueDepth() {
+        return peakMailboxDepth.get();
+    }
+    
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+    
+    /**
+     * Повертає кількість подій, відкинутих через заповнену скриньку або зупинений виконавець.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    
+    /**
+     * Повертає кількість задач, поставлених понад місткість скриньки обробниками
+     * цього виконавця за політики {@link RejectionPolicy#BLOCK}.
+     */
+    public long getOverflowCount() {
+        return overflowed.sum();
+    }
+    
+    public int getMailboxCount() {
+        return mailboxes.size();
+    }
+    
+    public int getMailboxCapacity() {
+        return mailboxCapacity;
+    }
+    
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+    
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    /**
+     * Припиняє приймати нові задачі; задачі, що вже в черзі, буде виконано.
+     */
+    public void shutdown() {
+        shutdown = true;
+        workers.shutdown();
+    }
+    
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "sparky-events-async-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    /**
+     * Черга задач одного слухача. У пул потрапляє лише скринька, а не кожна задача,
+     * тому задачі слухача ніколи не виконуються одночасно.
+     */
+    private final class Mailbox implements Runnable {
+        private final Object listener;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean scheduled;
+        // release() викликано, поки скринька була зайнята: вилучити, коли спорожніє
+        private boolean released;
+        // Скриньку вилучено, нових задач вона не приймає
+        private boolean retired;
+        
+        Mailbox(Object listener) {
+            this.listener = listener;
+        }
+        
+        /**
+         * Ставить задачу в чергу. Повертає {@code false}, лише якщо скриньку вже вилучено.
+         */
+        boolean offer(Runnable task) {
+            boolean schedule = false;
+            synchronized (this) {
+                if (retired) {
+                    return false;
+                }
+                while (tasks.size() >= mailboxCapacity) {
+                    if (rejectionPolicy == RejectionPolicy.DROP_NEWEST) {
+                        rejected.increment();
+                        return true;
+                    } else if (rejectionPolicy == RejectionPolicy.DROP_OLDEST) {
+                        tasks.poll();
+                        queued.decrement();
+                        rejected.increment();
+                    } else if (currentMailbox.get() != null) {
+                        overflowed.increment();
+                        break;
+                    } else {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            rejected.increment();
+                            return true;
+                        }
+                    }
+                }
+                tasks.add(task);
+                queued.increment();
+                int depth = tasks.size();
+                if (depth > peakMailboxDepth.get()) {
+                    peakMailboxDepth.accumulateAndGet(depth, Math::max);
+                }
+                if (!scheduled) {
+                    scheduled = true;
+                    schedule = true;
+                }
+            }
+            if (schedule && !trySubmit()) {
+                // Пул уже зупинено: задачі, прийняті до зупинки, виконуються тут
+                run();
+            }
+            return true;
+        }
+        
+        /**
+         * Позначає скриньку як вилучену. Повертає {@code true}, якщо її можна
+         * прибрати одразу; інакше вона прибере себе сама, коли спорожніє.
+         */
+        synchronized boolean release() {
+            if (scheduled) {
+                released = true;
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+        
+        synchronized int size() {
+            return tasks.size();
+        }
+        
+        @Override
+        public void run() {
+            Mailbox previous = currentMailbox.get();
+            currentMailbox.set(this);
+            try {
+                drain();
+            } finally {
+                currentMailbox.set(previous);
+            }
+        }
+        
+        private void drain() {
+            while (true) {
+                for (int i = 0; i < MAILBOX_THROUGHPUT || shutdown; i++) {
+                    Runnable task;
+                    synchronized (this) {
+                        task = tasks.poll();
+                        if (task == null) {
+                            finish();
+                            return;
+                        }
+                        notifyAll();
+                    }
+                    queued.decrement();
+                    runTask(task);
+                }
+                synchronized (this) {
+                    if (tasks.isEmpty()) {
+                        finish();
+                        return;
+                    }
+                }
+                // Поступаємося потоком іншим скринькам; після зупинки пулу дочищаємо чергу тут
+                if (trySubmit()) {
+                    return;
+                }
+            }
+        }
+        
+        /**
+         * Знімає позначку виконання з порожньої скриньки; викликається під її монітором.
+         */
+        private void finish() {
+            scheduled = false;
+            if (released) {
+                retired = true;
+                mailboxes.remove(listener, this);
+            }
+        }
+        
+        private boolean trySubmit() {
+            try {
+                workers.execute(this);
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+        
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error("Error in async event task", e);
+            }
+            completed.increment();
+        }
+    }
+}
\ No newline at end of file
@@ -1,19 +1,58 @@
 package com.sparky.events;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.Function;
 
 import com.sparky.core.SparkyLogger;
 
 /**
  * Високопродуктивна система подій з підтримкою синхронних та асинхронних слухачів.
+ * <p>
+ * Обробник отримує події свого типу параметра та всіх його підтипів,
+ * включно з реалізаціями інтерфейсів. Для кожного конкретного класу події
+ * набір обробників з усієї ієрархії обчислюється один раз і кешується як
+ * незмінний масив. Реєстрація та видалення слухачів замінюють кеш новим
+ * порожнім, тому відправка подій ніколи не блокується.
+ * <p>
+ * Обробники кожного типу події теж зберігаються як незмінний масив,
+ * відсортований за пріоритетом, який зміни реєстру замінюють цілком
+ * (copy-on-write). Зміни реєстру виконуються під монітором шини, а
+ * зворотний індекс слухач -> обробники робить видалення слухача
+ * пропорційним кількості його методів, а не всім зареєстрованим обробникам.
+ * <p>
+ * Часті події можна не відправляти одразу, а ставити в чергу через
+ * {@link #enqueue(Object)} і доставляти разом при {@link #flush()}.
+ * Обробники з {@link Subscribe#batch()} отримують усі накопичені події
+ * одного класу одним списком. Для типів, зареєстрованих через
+ * {@link #setCoalescing(Class, Function)}, з подій з однаковим ключем
+ * доставляється лише остання. Шину зручно скидати раз на тік планувальника:
+ * {@code scheduler.scheduleRepeating(eventBus::flush, 1, 1)}.
+ * <p>
+ * Асинхронні обробники виконуються через {@link AsyncEventExecutor}:
+ * обробники одного слухача - послідовно, у порядку подій, а черга
+ * кожного слухача обмежена. За замовчуванням із заповненої черги
+ * відкидається найстаріша подія ({@link AsyncEventExecutor#getRejectedCount()}),
+ * тож повільний слухач ніколи не зупиняє потік, що відправляє події;
+ * очікування місця ({@link AsyncEventExecutor.RejectionPolicy#BLOCK})
+ * вмикається власним виконавцем через {@link #setAsyncExecutor(AsyncEventExecutor)}.
+ * <p>
+ * Відправлені події можна записувати в {@link EventJournal}, щоб слухач,
+ * зареєстрований пізніше, отримав недавні події через
+ * {@link #replay(Object, long)}. Закріплені події ({@link #postSticky(Object)})
+ * зберігаються по одній на клас і доставляються кожному новому слухачу при реєстрації.
+ * <p>
+ * Метрики обробників ({@link HandlerMetrics}) вимкнені за замовчуванням:
+ * тоді виклик обробника коштує лише одного читання volatile-прапорця.
  *
  * @author Андрій Будильников
  */
@@ -21,8 +60,25 @@ public class EventBus {
     private static final EventBus INSTANCE = new EventBus();
     
     private final SparkyLogger logger = SparkyLogger.getLogger(EventBus.class);
-    private final Map<Class<?>, List<EventHandler>> handlers = new ConcurrentHashMap<>();
-    private final ExecutorService asyncExecutor = Executors.newCachedThreadPool();
+    // Обробники окремих подій
+    private final HandlerRegistry handlers = new HandlerRegistry();
+    // Обробники пакетів подій, зареєстровані за типом елемента списку
+    private final HandlerRegistry batchHandlers = new HandlerRegistry();
+    // Слухач -> його реєстрації; змінюється лише під монітором шини
+    private final Map<Object, List<Registration>> listenerHandlers = new HashMap<>();
+    // Конкретний клас події -> черга подій до наступного скидання
+    private final Map<Class<?>, EventQueue> queues = new ConcurrentHashMap<>();
+    // Тип події -> ключ злиття
+    private final Map<Class<?>, Function<Object, ?>> coalescingKeys = new ConcurrentHashMap<>();
+    // Клас події -> остання закріплена подія
+    private final Map<Class<?>, Object> stickyEvents = new ConcurrentHashMap<>();
+    private volatile EventJournal journal;
+    private volatile boolean metricsEnabled;
+    // 0 - повільні виклики не відстежуються
+    private volatile long slowHandlerThresholdNanos;
+    private volatile int slowHandlerLogEvery = 100;
+    private volatile AsyncEventExecutor asyncExecutor = new AsyncEventExecutor(
+            Runtime.getRuntime().availableProcessors(), 1024, AsyncEventExecutor.RejectionPolicy.DROP_OLDEST);
     
     private EventBus() {}
     
@@ -31,9 +87,9 @@ public class EventBus {
     }
     
     /**
-     * Реєструє слухач подій.
+     * Реєструє слухач подій і доставляє йому закріплені події відповідних типів.
      */
-    public void registerListener(Object listener) {
+    public synchronized void registerListener(Object listener) {
         Class<?> listenerClass = listener.getClass();
         
         for (Method method : listenerClass.getDeclaredMethods()) {
@@ -44,44 +100,159 @@ public class EventBus {
                     continue;
                 }
                 
-                Class<?> eventType = paramTypes[0];
                 Subscribe subscribe = method.getAnnotation(Subscribe.class);
-                EventHandler handler = new EventHandler(listener, method, subscribe.priority(), subscribe.async());
-                
-                handlers.computeIfAbsent(eventType, k -> new ArrayList<>()).add(handler);
+                Class<?> eventType = subscribe.batch() ? batchElementType(method) : paramTypes[0];
+                if (eventType == null) {
+                    logger.warn("Batch event handler method " + method.getName()
+                            + " must take a List parameterized with the event type");
+                    continue;
+                }
+                EventHandler handler;
+                try {
+                    // Виклик компілюється один раз тут, а не на кожну подію
+                    handler = new EventHandler(listener, method, subscribe.priority(), subscribe.async());
+                } catch (IllegalArgumentException e) {
+                    logger.error("Cannot register event handler method " + method.getName(), e);
+                    continue;
+                }
                 
-                // Sort handlers by priority
-                handlers.get(eventType).sort(Comparator.comparingInt(EventHandler::priority));
+                HandlerRegistry registry = subscribe.batch() ? batchHandlers : handlers;
+                registry.add(eventType, handler);
+                listenerHandlers.computeIfAbsent(listener, k -> new ArrayList<>())
+                        .add(new Registration(registry, eventType, handler));
+            }
+        }
+        if (!stickyEvents.isEmpty()) {
+            List<Registration> registrations = singleHandlersOf(listener);
+            for (Object event : stickyEvents.values()) {
+                dispatchTo(registrations, event);
             }
         }
     }
     
     /**
      * Відправляє подію всім зареєстрованим слухачам.
+     * <p>
+     * Обробники викликаються через скомпільовані {@link EventInvoker}.
+     * Обробники пакетів отримують лише події, поставлені в чергу через {@link #enqueue(Object)}.
      */
     public void post(Object event) {
-        List<EventHandler> eventHandlers = handlers.get(event.getClass());
-        if (eventHandlers == null || eventHandlers.isEmpty()) {
-            return;
+        EventJournal currentJournal = journal;
+        if (currentJournal != null) {
+            currentJournal.publish(event);
         }
-        
-        for (EventHandler handler : eventHandlers) {
-            try {
-                if (handler.async()) {
-                    CompletableFuture.runAsync(() -> {
-                        try {
-                            handler.method().setAccessible(true);
-                            handler.method().invoke(handler.listener(), event);
-                        } catch (Exception e) {
-                            logger.error("Error handling event asynchronously", e);
-                        }
-                    }, asyncExecutor);
-                } else {
-                    handler.method().setAccessible(true);
-                    handler.method().invoke(handler.listener(), event);
+        for (EventHandler handler : handlers.resolve(event.getClass())) {
+            dispatch(handler, event);
+        }
+    }
+    
+    /**
+     * Відправляє подію і закріплює її як останню подію свого класу.
+     */
+    public void postSticky(Object event) {
+        stickyEvents.put(event.getClass(), event);
+        post(event);
+    }
+    
+    /**
+     * Повертає закріплену подію класу або {@code null}.
+     */
+    public <E> E getStickyEvent(Class<E> eventClass) {
+        return eventClass.cast(stickyEvents.get(eventClass));
+    }
+    
+    /**
+     * Знімає закріплену подію класу.
+     *
+     * @return знята подія або {@code null}
+     */
+    public <E> E removeStickyEvent(Class<E> eventClass) {
+        return eventClass.cast(stickyEvents.remove(eventClass));
+    }
+    
+    /**
+     * Вмикає запис відправлених подій у журнал; {@code null} вимикає запис.
+     */
+    public void setJournal(EventJournal journal) {
+        this.journal = journal;
+    }
+    
+    public EventJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Доставляє слухачу події з журналу, починаючи з номера {@code fromSequence},
+     * як якби він був зареєстрований на момент їх відправки.
+     *
+     * @return номер, з якого слід продовжити повторення наступного разу
+     * @throws IllegalStateException якщо журнал не ввімкнено
+     */
+    public long replay(Object listener, long fromSequence) {
+        EventJournal currentJournal = journal;
+        if (currentJournal == null) {
+            throw new IllegalStateException("Event journal is not enabled");
+        }
+        List<Registration> registrations = singleHandlersOf(listener);
+        if (registrations.isEmpty()) {
+            return currentJournal.getCursor();
+        }
+        return currentJournal.replay(fromSequence, (sequence, timestamp, event) -> dispatchTo(registrations, event));
+    }
+    
+    /**
+     * Ставить подію в чергу до наступного виклику {@link #flush()}.
+     * <p>
+     * Безпечно викликати з будь-якого потоку.
+     */
+    public void enqueue(Object event) {
+        Class<?> eventClass = event.getClass();
+        EventQueue queue = queues.get(eventClass);
+        if (queue == null) {
+            queue = queues.computeIfAbsent(eventClass, type -> new EventQueue(findCoalescingKey(type)));
+        }
+        queue.add(event);
+    }
+    
+    /**
+     * Вмикає злиття подій типу та його підтипів: з подій з однаковим ключем
+     * при скиданні доставляється лише остання, на місці першої.
+     * <p>
+     * Має викликатися до того, як події цього типу потраплять у чергу.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void setCoalescing(Class<E> eventType, Function<? super E, ?> keyExtractor) {
+        coalescingKeys.put(eventType, (Function<Object, ?>) keyExtractor);
+    }
+    
+    /**
+     * Доставляє всі події з черги.
+     * <p>
+     * Для кожного конкретного класу події обробники пакетів отримують
+     * незмінний список подій у порядку постановки в чергу, після чого
+     * звичайні обробники отримують кожну подію окремо, як при {@link #post(Object)}.
+     * Події, поставлені в чергу під час скидання, будуть доставлені наступним скиданням.
+     */
+    public void flush() {
+        for (Map.Entry<Class<?>, EventQueue> entry : queues.entrySet()) {
+            List<Object> events = entry.getValue().drain();
+            if (events.isEmpty()) {
+                continue;
+            }
+            EventHandler[] eventBatchHandlers = batchHandlers.resolve(entry.getKey());
+            if (eventBatchHandlers.length > 0) {
+                List<Object> batch = Collections.unmodifiableList(events);
+                for (EventHandler handler : eventBatchHandlers) {
+                    dispatch(handler, batch);
+                }
+            }
+            EventHandler[] eventHandlers = handlers.resolve(entry.getKey());
+            if (eventHandlers.length > 0) {
+                for (Object event : events) {
+                    for (EventHandler handler : eventHandlers) {
+                        dispatch(handler, event);
+                    }
                 }
-            } catch (Exception e) {
-                logger.error("Error handling event", e);
             }
         }
     }
@@ -89,8 +260,180 @@ public class EventBus {
     /**
      * Видаляє всі слухачі для заданого об'єкта.
      */
-    public void unregisterListener(Object listener) {
-        handlers.values().forEach(list -> list.removeIf(handler -> handler.listener().equals(listener)));
+    public synchronized void unregisterListener(Object listener) {
+        List<Registration> removed = listenerHandlers.remove(listener);
+        if (removed == null) {
+            return;
+        }
+        for (Registration registration : removed) {
+            registration.registry().remove(registration.eventType(), registration.handler());
+        }
+        asyncExecutor.release(listener);
+    }
+    
+    /**
+     * Замінює виконавець асинхронних обробників. Попередній виконавець
+     * зупиняється після виконання задач, що вже в черзі.
+     */
+    public void setAsyncExecutor(AsyncEventExecutor executor) {
+        AsyncEventExecutor previous = asyncExecutor;
+        asyncExecutor = executor;
+        previous.shutdown();
+    }
+    
+    /**
+     * Повертає виконавець асинхронних обробників, зокрема для метрик черг.
+     */
+    public AsyncEventExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+    
+    /**
+     * Вмикає або вимикає збір метрик обробників.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        this.metricsEnabled = enabled;
+    }
+    
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+    
+    /**
+     * Задає поріг повільного виклику обробника при ввімкнених метриках.
+     * У журнал потрапляє перший повільний виклик кожного обробника і далі кожен {@code logEvery}-й.
+     *
+     * @param thresholdNanos поріг у наносекундах; 0 вимикає відстеження
+     * @param logEvery як часто записувати повільні виклики в журнал
+     */
+    public void setSlowHandlerThreshold(long thresholdNanos, int logEvery) {
+        if (logEvery <= 0) {
+            throw new IllegalArgumentException("Log interval must be positive: " + logEvery);
+        }
+        this.slowHandlerLogEvery = logEvery;
+        this.slowHandlerThresholdNanos = thresholdNanos;
+    }
+    
+    /**
+     * Повертає метрики всіх зареєстрованих обробників.
+     */
+    public synchronized List<HandlerMetrics> getHandlerMetrics() {
+        List<HandlerMetrics> result = new ArrayList<>();
+        for (List<Registration> registrations : listenerHandlers.values()) {
+            for (Registration registration : registrations) {
+                result.add(registration.handler().metrics());
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Повертає метрики обробників слухача.
+     */
+    public synchronized List<HandlerMetrics> getHandlerMetrics(Object listener) {
+        List<HandlerMetrics> result = new ArrayList<>();
+        for (Registration registration : listenerHandlers.getOrDefault(listener, Collections.emptyList())) {
+            result.add(registration.handler().metrics());
+        }
+        return result;
+    }
+    
+    /**
+     * Повертає реєстрації звичайних обробників слухача, відсортовані за пріоритетом.
+     */
+    private synchronized List<Registration> singleHandlersOf(Object listener) {
+        List<Registration> result = new ArrayList<>();
+        for (Registration registration : listenerHandlers.getOrDefault(listener, Collections.emptyList())) {
+            if (registration.registry() == handlers) {
+                result.add(registration);
+            }
+        }
+        result.sort(Comparator.comparingInt(registration -> registration.handler().priority()));
+        return result;
+    }
+    
+    private void dispatchTo(List<Registration> registrations, Object event) {
+        for (Registration registration : registrations) {
+            if (registration.eventType().isInstance(event)) {
+                dispatch(registration.handler(), event);
+            }
+        }
+    }
+    
+    private void dispatch(EventHandler handler, Object argument) {
+        try {
+            if (handler.async()) {
+                asyncExecutor.execute(handler.listener(), () -> {
+                    try {
+                        invoke(handler, argument);
+                    } catch (Throwable e) {
+                        logger.error("Error handling event asynchronously", e);
+                    }
+                });
+            } else {
+                invoke(handler, argument);
+            }
+        } catch (Throwable e) {
+            logger.error("Error handling event", e);
+        }
+    }
+    
+    private void invoke(EventHandler handler, Object argument) throws Throwable {
+        if (!metricsEnabled) {
+            handler.invoker().invoke(argument);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            handler.invoker().invoke(argument);
+            failed = false;
+        } finally {
+            long duration = System.nanoTime() - start;
+            handler.metrics().record(duration, failed);
+            long threshold = slowHandlerThresholdNanos;
+            if (threshold > 0 && duration >= threshold) {
+                long slowCount = handler.metrics().recordSlow();
+                if ((slowCount - 1) % slowHandlerLogEvery == 0) {
+                    logger.warn("Slow event handler " + handler.metrics().getHandlerName() + " took "
+                            + duration / 1_000 + " us (" + slowCount + " slow calls)");
+                }
+            }
+        }
+    }
+    
+    /**
+     * Визначає тип події обробника пакетів з параметра {@code List<E>}.
+     */
+    private static Class<?> batchElementType(Method method) {
+        if (!method.getParameterTypes()[0].isAssignableFrom(List.class)) {
+            return null;
+        }
+        Type parameter = method.getGenericParameterTypes()[0];
+        if (!(parameter instanceof ParameterizedType parameterized)) {
+            return null;
+        }
+        Type element = parameterized.getActualTypeArguments()[0];
+        if (element instanceof ParameterizedType elementParameterized) {
+            element = elementParameterized.getRawType();
+        }
+        return element instanceof Class<?> elementClass ? elementClass : null;
+    }
+    
+    /**
+     * Знаходить ключ злиття для класу події: спочатку точний збіг, потім будь-який супертип.
+     */
+    private Function<Object, ?> findCoalescingKey(Class<?> eventClass) {
+        Function<Object, ?> key = coalescingKeys.get(eventClass);
+        if (key != null) {
+            return key;
+        }
+        for (Map.Entry<Class<?>, Function<Object, ?>> entry : coalescingKeys.entrySet()) {
+            if (entry.getKey().isAssignableFrom(eventClass)) {
+                return entry.getValue();
+            }
+        }
+        return null;
     }
     
     /**
@@ -99,4 +442,51 @@ public class EventBus {
     public void shutdown() {
         asyncExecutor.shutdown();
     }
+    
+    /**
+     * Обробник, зареєстрований слухачем, разом з реєстром, куди він потрапив.
+     */
+    private record Registration(HandlerRegistry registry, Class<?> eventType, EventHandler handler) {
+    }
+    
+    /**
+     * Черга подій одного класу. Постановка та вилучення синхронізовані на самій черзі,
+     * тож потоки, що ставлять події різних класів, не конкурують між собою.
+     */
+    private static final class EventQueue {
+        private final Function<Object, ?> coalescingKey;
+        private List<Object> events = new ArrayList<>();
+        private Map<Object, Object> coalesced;
+        
+        EventQueue(Function<Object, ?> coalescingKey) {
+            this.coalescingKey = coalescingKey;
+            this.coalesced = coalescingKey != null ? new LinkedHashMap<>() : null;
+        }
+        
+        synchronized void add(Object event) {
+            if (coalescingKey != null) {
+                // LinkedHashMap зберігає позицію першої події з ключем, значення замінюється останньою
+                coalesced.put(coalescingKey.apply(event), event);
+            } else {
+                events.add(event);
+            }
+        }
+        
+        synchronized List<Object> drain() {
+            if (coalescingKey != null) {
+                if (coalesced.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                List<Object> result = new ArrayList<>(coalesced.values());
+                coalesced.clear();
+                return result;
+            }
+            if (events.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Object> result = events;
+            events = new ArrayList<>(result.size());
+            return result;
+        }
+    }
 }
\ No newline at end of file
@@ -4,8 +4,23 @@ import java.lang.reflect.Method;
 
 /**
  * Представляє обробник події.
+ * <p>
+ * {@link #invoker()} - виклик методу, скомпільований при створенні
+ * обробника, тому відправка події не використовує рефлексію.
+ * {@link #metrics()} заповнюються лише при ввімкнених метриках шини.
  *
  * @author Андрій Будильников
  */
-public record EventHandler(Object listener, Method method, int priority, boolean async) {
+public record EventHandler(Object listener, Method method, int priority, boolean async, EventInvoker invoker,
+        HandlerMetrics metrics) {
+    
+    /**
+     * Створює обробник, компілюючи виклик методу для слухача.
+     *
+     * @throws IllegalArgumentException якщо метод недоступний
+     */
+    public EventHandler(Object listener, Method method, int priority, boolean async) {
+        this(listener, method, priority, async, EventInvokers.compile(listener, method),
+                new HandlerMetrics(method.getDeclaringClass().getSimpleName() + "#" + method.getName()));
+    }
 }
\ No newline at end of file
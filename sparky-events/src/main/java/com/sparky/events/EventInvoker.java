@@ -0,0 +1,21 @@
+package com.sparky.events;
+
+/**
+ * Скомпільований виклик методу-обробника для конкретного слухача.
+ * <p>
+ * Створюється один раз при реєстрації слухача, тож відправка події - це
+ * звичайний виклик інтерфейсу без рефлексії.
+ *
+ * @author Андрій Будильников
+ */
+@FunctionalInterface
+public interface EventInvoker {
+    
+    /**
+     * Викликає обробник для події.
+     *
+     * @param event подія
+     * @throws Throwable будь-який виняток, кинутий обробником
+     */
+    void invoke(Object event) throws Throwable;
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.sparky.events;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import com.sparky.core.SparkyLogger;
+
+/**
+ * Компілює методи-обробники в {@link EventInvoker}.
+ * <p>
+ * Спершу реалізація генерується через {@link LambdaMetafactory} - це
+ * прихований клас, виклик якого JIT вбудовує так само, як звичайну лямбду.
+ * Якщо клас слухача недоступний для генерації (наприклад, завантажений
+ * іншим завантажувачем класів плагіна), використовується {@link MethodHandle},
+ * прив'язаний до слухача.
+ *
+ * @author Андрій Будильников
+ */
+final class EventInvokers {
+    private static final SparkyLogger logger = SparkyLogger.getLogger(EventInvokers.class);
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Object.class);
+    
+    private EventInvokers() {
+    }
+    
+    /**
+     * Компілює виклик методу-обробника.
+     *
+     * @param listener слухач (ігнорується для статичних методів)
+     * @param method метод з одним параметром-подією
+     * @return скомпільований виклик
+     * @throws IllegalArgumentException якщо метод недоступний
+     */
+    static EventInvoker compile(Object listener, Method method) {
+        try {
+            return generate(listener, method);
+        } catch (Throwable e) {
+            logger.debug("Falling back to method handle for " + method + ": " + e);
+        }
+        try {
+            return bind(listener, method);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Event handler method is not accessible: " + method, e);
+        }
+    }
+    
+    private static EventInvoker generate(Object listener, Method method) throws Throwable {
+        Class<?> declaringClass = method.getDeclaringClass();
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(declaringClass, LOOKUP);
+        MethodHandle target = lookup.unreflect(method);
+        
+        MethodType factoryType = isStatic
+                ? MethodType.methodType(EventInvoker.class)
+                : MethodType.methodType(EventInvoker.class, declaringClass);
+        CallSite site = LambdaMetafactory.metafactory(lookup, "invoke", factoryType, INVOKE_TYPE, target,
+                MethodType.methodType(void.class, method.getParameterTypes()[0]));
+        MethodHandle factory = site.getTarget();
+        return isStatic ? (EventInvoker) factory.invoke() : (EventInvoker) factory.invoke(listener);
+    }
+    
+    private static EventInvoker bind(Object listener, Method method) throws IllegalAccessException {
+        method.setAccessible(true);
+        MethodHandle handle = LOOKUP.unreflect(method);
+        if (!Modifier.isStatic(method.getModifiers())) {
+            handle = handle.bindTo(listener);
+        }
+        MethodHandle target = handle.asType(INVOKE_TYPE);
+        // Виклик має бути окремим оператором: у лямбді-виразі javac типізує invokeExact як (Object)Object
+        return event -> {
+            target.invokeExact(event);
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,166 @@
+package com.sparky.events;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Журнал останніх подій у кільцевому буфері фіксованого розміру.
+ * <p>
+ * Слоти виділяються один раз при створенні, тому запис події не виділяє
+ * пам'яті: відправник отримує номер послідовності одним атомарним
+ * інкрементом, позначає слот як зайнятий своїм номером, записує подію і
+ * публікує номер. Позначки слота лише зростають: відправник старішого
+ * номера, який запізнився до слота, вже зайнятого новішим номером, свою
+ * подію не записує - вона однаково витіснена. Читачі не беруть блокувань -
+ * кожен сам зберігає номер наступної події, читає слот і перевіряє, що
+ * позначка за час читання не змінилася (як оптимістичне читання
+ * {@link java.util.concurrent.locks.StampedLock}); витіснена подія пропускається.
+ * Журнал зберігає лише останні {@link #getCapacity()} подій.
+ *
+ * @author Андрій Будильников
+ */
+public class EventJournal {
+    
+    /**
+     * Отримувач записів журналу.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long sequence, long timestampNanos, Object event);
+    }
+    
+    private final int mask;
+    private final Object[] events;
+    private final long[] timestamps;
+    // Позначка слота: 2s+1 - подія s записується, 2s+2 - подію s опубліковано, 0 - слот порожній
+    private final AtomicLongArray stamps;
+    private final AtomicLong cursor = new AtomicLong();
+    
+    /**
+     * Створює журнал; місткість округлюється вгору до степеня двійки.
+     */
+    public EventJournal(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Journal capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        events = new Object[size];
+        timestamps = new long[size];
+        stamps = new AtomicLongArray(size);
+    }
+    
+    /**
+     * Записує подію в журнал.
+     *
+     * @return номер послідовності події
+     */
+    public long publish(Object event) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) sequence & mask;
+        long writing = writingStamp(sequence);
+        long stamp = stamps.get(slot);
+        while (true) {
+            if (stamp >= writing) {
+                // Слот уже зайняв новіший номер: ця подія витіснена, не встигнувши з'явитися
+                return sequence;
+            }
+            if ((stamp & 1) != 0) {
+                // Слот ще записує відправник старішого номера
+                Thread.onSpinWait();
+                stamp = stamps.get(slot);
+                continue;
+            }
+            long witness = stamps.compareAndExchange(slot, stamp, writing);
+            if (witness == stamp) {
+                break;
+            }
+            stamp = witness;
+        }
+        events[slot] = event;
+        timestamps[slot] = System.nanoTime();
+        stamps.setRelease(slot, writing + 1);
+        return sequence;
+    }
+    
+    /**
+     * Передає отримувачу події журналу, починаючи з номера {@code fromSequence}.
+     * <p>
+     * Події, що вже витіснені з буфера, пропускаються. Читання зупиняється
+     * на першій події, запис якої ще не завершено.
+     *
+     * @return номер, з якого слід продовжити читання наступного разу
+     */
+    public long replay(long fromSequence, EntryConsumer consumer) {
+        long end = cursor.get();
+        long sequence = Math.max(fromSequence, end - events.length);
+        while (sequence < end) {
+            int slot = (int) sequence & mask;
+            long expected = writingStamp(sequence) + 1;
+            long stamp = stamps.getAcquire(slot);
+            if (stamp < expected) {
+                // Відправник отримав номер, але ще не записав подію
+                return sequence;
+            }
+            if (stamp == expected) {
+                Object event = events[slot];
+                long timestamp = timestamps[slot];
+                VarHandle.acquireFence();
+                // Якщо слот зайняли під час читання, подія вже витіснена
+                if (stamps.get(slot) == expected) {
+                    consumer.accept(sequence, timestamp, event);
+                }
+            }
+            sequence++;
+        }
+        return sequence;
+    }
+    
+    /**
+     * Передає отримувачу події журналу заданого типу та його підтипів.
+     *
+     * @return номер, з якого слід продовжити читання наступного разу
+     */
+    public <E> long replay(Class<E> eventType, long fromSequence, Consumer<? super E> consumer) {
+        return replay(fromSequence, (sequence, timestamp, event) -> {
+            if (eventType.isInstance(event)) {
+                consumer.accept(eventType.cast(event));
+            }
+        });
+    }
+    
+    /**
+     * Повертає копію подій, що зараз є в журналі, від найстарішої до найновішої.
+     */
+    public List<Object> snapshot() {
+        List<Object> result = new ArrayList<>();
+        replay(0, (sequence, timestamp, event) -> result.add(event));
+        return result;
+    }
+    
+    /**
+     * Повертає номер, який отримає наступна подія.
+     */
+    public long getCursor() {
+        return cursor.get();
+    }
+    
+    /**
+     * Повертає номер найстарішої події, що ще може бути в журналі.
+     */
+    public long getOldestSequence() {
+        return Math.max(0, cursor.get() - events.length);
+    }
+    
+    public int getCapacity() {
+        return events.length;
+    }
+    
+    private static long writingStamp(long sequence) {
+        return 2 * sequence + 1;
+    }
+}
\ No newline at end of file
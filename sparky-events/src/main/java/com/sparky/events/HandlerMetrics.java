@@ -0,0 +1,86 @@
+package com.sparky.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sparky.core.LatencyHistogram;
+
+/**
+ * Метрики одного обробника подій: кількість викликів, помилок, повільних
+ * викликів та гістограма тривалості виклику в наносекундах.
+ * <p>
+ * Заповнюються лише коли метрики шини ввімкнено через
+ * {@link EventBus#setMetricsEnabled(boolean)}. Для асинхронних обробників
+ * вимірюється лише виконання, без очікування в черзі.
+ *
+ * @author Андрій Будильников
+ */
+public class HandlerMetrics {
+    private final String handlerName;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    // Повільні виклики рідкісні, а номер кожного потрібен точно для обмеження частоти попереджень
+    private final AtomicLong slowInvocations = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    
+    public HandlerMetrics(String handlerName) {
+        this.handlerName = handlerName;
+    }
+    
+    void record(long durationNanos, boolean failed) {
+        invocations.increment();
+        if (failed) {
+            errors.increment();
+        }
+        latency.record(durationNanos);
+    }
+    
+    /**
+     * Рахує повільний виклик.
+     *
+     * @return кількість повільних викликів, включно з цим
+     */
+    long recordSlow() {
+        return slowInvocations.incrementAndGet();
+    }
+    
+    /**
+     * Повертає ім'я обробника у вигляді {@code Клас#метод}.
+     */
+    public String getHandlerName() {
+        return handlerName;
+    }
+    
+    public long getInvocationCount() {
+        return invocations.sum();
+    }
+    
+    public long getErrorCount() {
+        return errors.sum();
+    }
+    
+    public long getSlowInvocationCount() {
+        return slowInvocations.get();
+    }
+    
+    /**
+     * Повертає гістограму тривалості викликів у наносекундах.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+    
+    public void reset() {
+        invocations.reset();
+        errors.reset();
+        slowInvocations.set(0);
+        latency.reset();
+    }
+    
+    @Override
+    public String toString() {
+        return handlerName + " calls=" + getInvocationCount() + " errors=" + getErrorCount()
+                + " slow=" + getSlowInvocationCount() + " p50=" + latency.getValueAtPercentile(50)
+                + "ns p99=" + latency.getValueAtPercentile(99) + "ns max=" + latency.getMax() + "ns";
+    }
+}
\ No newline at end of file
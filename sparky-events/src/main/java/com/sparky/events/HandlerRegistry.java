@@ -0,0 +1,132 @@
+package com.sparky.events;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Реєстр обробників подій з кешем розсилки за ієрархією типів.
+ * <p>
+ * Обробники кожного типу події зберігаються як незмінний масив,
+ * відсортований за пріоритетом, який зміни реєстру замінюють цілком
+ * (copy-on-write). Для кожного конкретного класу події обробники всієї
+ * його ієрархії (суперкласи та інтерфейси) обчислюються один раз і
+ * кешуються; будь-яка зміна реєстру замінює кеш новим порожнім, тому
+ * читання ніколи не блокується. Зміни мають виконуватися під зовнішнім
+ * монітором.
+ *
+ * @author Андрій Будильников
+ */
+final class HandlerRegistry {
+    static final EventHandler[] NO_HANDLERS = new EventHandler[0];
+    
+    // Тип події -> незмінний масив обробників, відсортований за пріоритетом
+    private final Map<Class<?>, EventHandler[]> handlers = new ConcurrentHashMap<>();
+    // Конкретний клас події -> обробники всієї його ієрархії, відсортовані за пріоритетом
+    private volatile Map<Class<?>, EventHandler[]> dispatchCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Додає обробник після всіх обробників того ж типу з тим самим або вищим пріоритетом.
+     */
+    void add(Class<?> eventType, EventHandler handler) {
+        handlers.put(eventType, insertSorted(handlers.getOrDefault(eventType, NO_HANDLERS), handler));
+        invalidate();
+    }
+    
+    /**
+     * Видаляє обробник, зареєстрований для типу події.
+     */
+    void remove(Class<?> eventType, EventHandler handler) {
+        EventHandler[] remaining = without(handlers.getOrDefault(eventType, NO_HANDLERS), handler);
+        if (remaining.length == 0) {
+            handlers.remove(eventType);
+        } else {
+            handlers.put(eventType, remaining);
+        }
+        invalidate();
+    }
+    
+    /**
+     * Отримує обробники для конкретного класу події з кешу, обчислюючи їх при першому зверненні.
+     * Повернений масив не можна змінювати.
+     */
+    EventHandler[] resolve(Class<?> eventClass) {
+        // Кеш читається один раз: якщо його замінять під час обчислення,
+        // застарілий результат потрапить лише в старий кеш
+        Map<Class<?>, EventHandler[]> cache = dispatchCache;
+        EventHandler[] resolved = cache.get(eventClass);
+        if (resolved == null) {
+            resolved = collect(eventClass);
+            EventHandler[] existing = cache.putIfAbsent(eventClass, resolved);
+            if (existing != null) {
+                resolved = existing;
+            }
+        }
+        return resolved;
+    }
+    
+    /**
+     * Збирає обробники класу події, його суперкласів та інтерфейсів.
+     */
+    private EventHandler[] collect(Class<?> eventClass) {
+        List<EventHandler> result = new ArrayList<>();
+        Set<Class<?>> visited = new HashSet<>();
+        Deque<Class<?>> queue = new ArrayDeque<>();
+        queue.add(eventClass);
+        while (!queue.isEmpty()) {
+            Class<?> type = queue.poll();
+            if (!visited.add(type)) {
+                continue;
+            }
+            EventHandler[] typeHandlers = handlers.get(type);
+            if (typeHandlers != null) {
+                result.addAll(Arrays.asList(typeHandlers));
+            }
+            if (type.getSuperclass() != null) {
+                queue.add(type.getSuperclass());
+            }
+            queue.addAll(Arrays.asList(type.getInterfaces()));
+        }
+        if (result.isEmpty()) {
+            return NO_HANDLERS;
+        }
+        // Стабільне сортування: за рівного пріоритету обробники точнішого типу йдуть першими
+        result.sort(Comparator.comparingInt(EventHandler::priority));
+        return result.toArray(NO_HANDLERS);
+    }
+    
+    private void invalidate() {
+        dispatchCache = new ConcurrentHashMap<>();
+    }
+    
+    private static EventHandler[] insertSorted(EventHandler[] current, EventHandler handler) {
+        int index = current.length;
+        while (index > 0 && current[index - 1].priority() > handler.priority()) {
+            index--;
+        }
+        EventHandler[] result = new EventHandler[current.length + 1];
+        System.arraycopy(current, 0, result, 0, index);
+        result[index] = handler;
+        System.arraycopy(current, index, result, index + 1, current.length - index);
+        return result;
+    }
+    
+    private static EventHandler[] without(EventHandler[] current, EventHandler handler) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == handler) {
+                EventHandler[] result = new EventHandler[current.length - 1];
+                System.arraycopy(current, 0, result, 0, i);
+                System.arraycopy(current, i + 1, result, i, current.length - i - 1);
+                return result;
+            }
+        }
+        return current;
+    }
+}
\ No newline at end of file
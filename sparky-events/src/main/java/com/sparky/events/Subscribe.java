@@ -20,6 +20,20 @@ public @interface Subscribe {
     
     /**
      * Чи обробляти подію асинхронно.
+     * <p>
+     * Асинхронні обробники одного слухача виконуються послідовно, у порядку подій.
+     * Черга слухача обмежена (1024 події у виконавця за замовчуванням); коли
+     * вона заповнена, відкидається найстаріша подія, а відправник не чекає.
+     * Інша політика задається через {@link EventBus#setAsyncExecutor(AsyncEventExecutor)}.
      */
     boolean async() default false;
+    
+    /**
+     * Чи отримує обробник пакет подій замість окремої події.
+     * <p>
+     * Метод має приймати {@code List<E>}; події типу {@code E} та його підтипів,
+     * поставлені в чергу через {@link EventBus#enqueue(Object)}, доставляються
+     * одним списком для кожного класу події при {@link EventBus#flush()}.
+     */
+    boolean batch() default false;
 }
\ No newline at end of file
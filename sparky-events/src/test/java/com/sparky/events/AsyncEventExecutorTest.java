@@ -0,0 +1,164 @@
+package com.sparky.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для виконавця асинхронних обробників.
+ *
+ * @author Андрій Будильников
+ */
+class AsyncEventExecutorTest {
+    
+    @Test
+    void testTasksOfOneListenerRunInOrderAndNeverConcurrently() throws InterruptedException {
+        AsyncEventExecutor executor = new AsyncEventExecutor(4, 16, AsyncEventExecutor.RejectionPolicy.BLOCK);
+        Object listener = new Object();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        
+        // Черга значно менша за кількість подій, тож відправник постійно впирається в місткість
+        for (int i = 0; i < 2_000; i++) {
+            int value = i;
+            executor.execute(listener, () -> {
+                if (running.incrementAndGet() > 1) {
+                    overlaps.incrementAndGet();
+                }
+                order.add(value);
+                running.decrementAndGet();
+            });
+        }
+        awaitCompleted(executor, 2_000);
+        
+        assertEquals(0, overlaps.get());
+        assertEquals(2_000, order.size());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, order.get(i).intValue());
+        }
+        assertTrue(executor.getPeakQueueDepth() <= 16);
+        executor.shutdown();
+    }
+    
+    @Test
+    void testDropPoliciesWhenMailboxIsFull() throws InterruptedException {
+        for (AsyncEventExecutor.RejectionPolicy policy : List.of(
+                AsyncEventExecutor.RejectionPolicy.DROP_NEWEST, AsyncEventExecutor.RejectionPolicy.DROP_OLDEST)) {
+            AsyncEventExecutor executor = new AsyncEventExecutor(1, 2, policy);
+            Object listener = new Object();
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            executor.execute(listener, () -> {
+                started.countDown();
+                await(release);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i <= 4; i++) {
+                int value = i;
+                executor.execute(listener, () -> order.add(value));
+            }
+            release.countDown();
+            awaitCompleted(executor, 3);
+            
+            assertEquals(2, executor.getRejectedCount());
+            assertEquals(policy == AsyncEventExecutor.RejectionPolicy.DROP_NEWEST ? List.of(1, 2) : List.of(3, 4), order);
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    void testBlockingHandlersOverflowInsteadOfDeadlocking() throws InterruptedException {
+        // Один потік і скриньки, що відправляють події одна одній: очікування тут зависло б
+        AsyncEventExecutor executor = new AsyncEventExecutor(1, 1, AsyncEventExecutor.RejectionPolicy.BLOCK);
+        Object first = new Object();
+        Object second = new Object();
+        AtomicInteger delivered = new AtomicInteger();
+        executor.execute(first, () -> {
+            for (int i = 0; i < 10; i++) {
+                executor.execute(second, () -> {
+                    delivered.incrementAndGet();
+                    executor.execute(first, delivered::incrementAndGet);
+                });
+                executor.execute(first, delivered::incrementAndGet);
+            }
+        });
+        awaitCompleted(executor, 31);
+        
+        assertEquals(30, delivered.get());
+        assertTrue(executor.getOverflowCount() > 0);
+        executor.shutdown();
+    }
+    
+    @Test
+    void testShutdownRunsAlreadyQueuedTasks() throws InterruptedException {
+        AsyncEventExecutor executor = new AsyncEventExecutor(1, 1_000, AsyncEventExecutor.RejectionPolicy.BLOCK);
+        Object listener = new Object();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executed = new AtomicInteger();
+        executor.execute(listener, () -> await(release));
+        // Більше задач, ніж скринька виконує за один захід, тож вона мусить поступитися потоком
+        for (int i = 0; i < 500; i++) {
+            executor.execute(listener, executed::incrementAndGet);
+        }
+        executor.shutdown();
+        executor.execute(listener, executed::incrementAndGet);
+        release.countDown();
+        awaitCompleted(executor, 501);
+        
+        assertEquals(500, executed.get());
+        assertEquals(1, executor.getRejectedCount());
+        assertEquals(0, executor.getQueuedCount());
+    }
+    
+    @Test
+    void testReleaseOfBusyMailboxKeepsTasksSerial() throws InterruptedException {
+        AsyncEventExecutor executor = new AsyncEventExecutor(4, 1_000, AsyncEventExecutor.RejectionPolicy.BLOCK);
+        Object listener = new Object();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        Runnable task = () -> {
+            if (running.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            Thread.onSpinWait();
+            running.decrementAndGet();
+        };
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 20; i++) {
+                executor.execute(listener, task);
+            }
+            // Слухача забувають, поки його скринька ще виконується, і одразу знову відправляють йому події
+            executor.release(listener);
+        }
+        awaitCompleted(executor, 4_000);
+        
+        assertEquals(0, overlaps.get());
+        assertEquals(0, executor.getMailboxCount());
+        executor.shutdown();
+    }
+    
+    private static void awaitCompleted(AsyncEventExecutor executor, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getCompletedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expected, executor.getCompletedCount());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,354 @@
+package com.sparky.events;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для шини подій.
+ *
+ * @author Андрій Будильников
+ */
+class EventBusTest {
+    private final EventBus bus = EventBus.getInstance();
+    private final List<Object> listeners = new ArrayList<>();
+    
+    @AfterEach
+    void tearDown() {
+        for (Object listener : listeners) {
+            bus.unregisterListener(listener);
+        }
+    }
+    
+    @Test
+    void testSlowAsyncListenerDoesNotBlockPost() throws InterruptedException {
+        AsyncEventExecutor executor = bus.getAsyncExecutor();
+        assertEquals(AsyncEventExecutor.RejectionPolicy.DROP_OLDEST, executor.getRejectionPolicy());
+        SlowListener listener = register(new SlowListener());
+        long rejectedBefore = executor.getRejectedCount();
+        
+        // Відправник не чекає, хоча слухач не виконав жодної події, а його черга давно заповнена
+        long start = System.nanoTime();
+        for (int i = 0; i < executor.getMailboxCapacity() * 3; i++) {
+            bus.post(new SlowEvent(i));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        listener.release.countDown();
+        
+        assertTrue(elapsedMillis < 5_000);
+        assertTrue(executor.getRejectedCount() - rejectedBefore >= executor.getMailboxCapacity());
+    }
+    
+    @Test
+    void testSupertypeAndInterfaceHandlersReceiveSubclassEvent() {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        register(new HierarchyListener(received));
+        
+        bus.post(new ChildEvent());
+        assertEquals(List.of("child", "base", "tagged"), received);
+        
+        received.clear();
+        bus.post(new BaseEvent());
+        assertEquals(List.of("base", "tagged"), received);
+    }
+    
+    @Test
+    void testDispatchCacheFollowsRegisterAndUnregister() {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        HierarchyListener first = register(new HierarchyListener(received));
+        bus.post(new ChildEvent());
+        assertEquals(3, received.size());
+        
+        // Кеш для ChildEvent уже заповнено; новий слухач має потрапити в нього
+        HierarchyListener second = register(new HierarchyListener(received));
+        received.clear();
+        bus.post(new ChildEvent());
+        assertEquals(6, received.size());
+        
+        bus.unregisterListener(first);
+        bus.unregisterListener(second);
+        received.clear();
+        bus.post(new ChildEvent());
+        bus.post(new BaseEvent());
+        assertTrue(received.isEmpty());
+        assertTrue(bus.getHandlerMetrics(first).isEmpty());
+    }
+    
+    @Test
+    void testPriorityOrderSurvivesRegisterAndUnregister() {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        register(new LateListener(received));
+        EarlyListener early = register(new EarlyListener(received));
+        register(new DefaultListener(received, "default-1"));
+        register(new DefaultListener(received, "default-2"));
+        
+        bus.post(new OrderEvent());
+        assertEquals(List.of("early", "default-1", "default-2", "late"), received);
+        
+        bus.unregisterListener(early);
+        register(new DefaultListener(received, "default-3"));
+        register(new EarlyListener(received));
+        received.clear();
+        bus.post(new OrderEvent());
+        assertEquals(List.of("early", "default-1", "default-2", "default-3", "late"), received);
+    }
+    
+    @Test
+    void testBatchHandlerReceivesQueuedEventsPerClass() {
+        BatchListener listener = register(new BatchListener());
+        ChildEvent child = new ChildEvent();
+        BaseEvent base = new BaseEvent();
+        BaseEvent secondBase = new BaseEvent();
+        
+        bus.enqueue(base);
+        bus.enqueue(child);
+        bus.enqueue(secondBase);
+        bus.post(new BaseEvent());
+        assertTrue(listener.batches.isEmpty());
+        assertEquals(1, listener.single.size());
+        
+        bus.flush();
+        
+        assertEquals(2, listener.batches.size());
+        assertTrue(listener.batches.contains(List.of(base, secondBase)));
+        assertTrue(listener.batches.contains(List.of(child)));
+        assertThrows(UnsupportedOperationException.class, () -> listener.batches.get(0).add(base));
+        assertEquals(4, listener.single.size());
+        
+        bus.flush();
+        assertEquals(2, listener.batches.size());
+    }
+    
+    @Test
+    void testCoalescingDeliversLastEventPerKeyAtFirstPosition() {
+        bus.setCoalescing(PositionEvent.class, PositionEvent::entity);
+        List<PositionEvent> received = Collections.synchronizedList(new ArrayList<>());
+        register(new PositionListener(received));
+        
+        bus.enqueue(new PositionEvent(1, 10));
+        bus.enqueue(new PositionEvent(2, 20));
+        bus.enqueue(new PositionEvent(1, 11));
+        bus.enqueue(new PositionEvent(3, 30));
+        bus.enqueue(new PositionEvent(1, 12));
+        bus.flush();
+        
+        assertEquals(List.of(new PositionEvent(1, 12), new PositionEvent(2, 20), new PositionEvent(3, 30)), received);
+        
+        received.clear();
+        bus.enqueue(new PositionEvent(2, 21));
+        bus.flush();
+        assertEquals(List.of(new PositionEvent(2, 21)), received);
+    }
+    
+    @Test
+    void testPrivateListenerClassUsesGeneratedInvoker() throws Exception {
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        PrivateListener listener = register(new PrivateListener(received));
+        
+        bus.post(new BaseEvent());
+        
+        assertEquals(List.of("private"), received);
+        Method method = PrivateListener.class.getDeclaredMethod("onEvent", BaseEvent.class);
+        EventInvoker invoker = EventInvokers.compile(listener, method);
+        assertTrue(invoker.getClass().getName().startsWith(PrivateListener.class.getName()));
+    }
+    
+    @Test
+    void testListenerFromIsolatedClassLoaderFallsBackToMethodHandle() throws Exception {
+        // Завантажувач не бачить EventInvoker, тож згенерувати реалізацію в класі слухача неможливо
+        Class<?> isolatedClass = new IsolatingClassLoader().loadClass(PluginListener.class.getName());
+        assertFalse(isolatedClass == PluginListener.class);
+        Object listener = register(isolatedClass.getConstructor().newInstance());
+        
+        bus.post("event");
+        
+        @SuppressWarnings("unchecked")
+        List<Object> received = ((Supplier<List<Object>>) listener).get();
+        assertEquals(List.of("event"), received);
+        Method method = isolatedClass.getMethod("onEvent", String.class);
+        EventInvoker invoker = EventInvokers.compile(listener, method);
+        assertTrue(invoker.getClass().getName().startsWith(EventInvokers.class.getName()));
+    }
+    
+    private <T> T register(T listener) {
+        bus.registerListener(listener);
+        listeners.add(listener);
+        return listener;
+    }
+    
+    record SlowEvent(int value) {
+    }
+    
+    interface Tagged {
+    }
+    
+    static class BaseEvent implements Tagged {
+    }
+    
+    static class ChildEvent extends BaseEvent {
+    }
+    
+    record OrderEvent() {
+    }
+    
+    record PositionEvent(int entity, int x) {
+    }
+    
+    static class HierarchyListener {
+        private final List<String> received;
+        
+        HierarchyListener(List<String> received) {
+            this.received = received;
+        }
+        
+        @Subscribe(priority = 1)
+        void onTagged(Tagged event) {
+            received.add("tagged");
+        }
+        
+        @Subscribe
+        void onBase(BaseEvent event) {
+            received.add("base");
+        }
+        
+        @Subscribe(priority = -1)
+        void onChild(ChildEvent event) {
+            received.add("child");
+        }
+    }
+    
+    static class EarlyListener {
+        private final List<String> received;
+        
+        EarlyListener(List<String> received) {
+            this.received = received;
+        }
+        
+        @Subscribe(priority = -10)
+        void onEvent(OrderEvent event) {
+            received.add("early");
+        }
+    }
+    
+    static class DefaultListener {
+        private final List<String> received;
+        private final String name;
+        
+        DefaultListener(List<String> received, String name) {
+            this.received = received;
+            this.name = name;
+        }
+        
+        @Subscribe
+        void onEvent(OrderEvent event) {
+            received.add(name);
+        }
+    }
+    
+    static class LateListener {
+        private final List<String> received;
+        
+        LateListener(List<String> received) {
+            this.received = received;
+        }
+        
+        @Subscribe(priority = 10)
+        void onEvent(OrderEvent event) {
+            received.add("late");
+        }
+    }
+    
+    static class BatchListener {
+        final List<List<BaseEvent>> batches = Collections.synchronizedList(new ArrayList<>());
+        final List<BaseEvent> single = Collections.synchronizedList(new ArrayList<>());
+        
+        @Subscribe(batch = true)
+        void onBatch(List<BaseEvent> events) {
+            batches.add(events);
+        }
+        
+        @Subscribe
+        void onEvent(BaseEvent event) {
+            single.add(event);
+        }
+    }
+    
+    static class PositionListener {
+        private final List<PositionEvent> received;
+        
+        PositionListener(List<PositionEvent> received) {
+            this.received = received;
+        }
+        
+        @Subscribe
+        void onEvent(PositionEvent event) {
+            received.add(event);
+        }
+    }
+    
+    private static class PrivateListener {
+        private final List<String> received;
+        
+        private PrivateListener(List<String> received) {
+            this.received = received;
+        }
+        
+        @Subscribe
+        private void onEvent(BaseEvent event) {
+            received.add("private");
+        }
+    }
+    
+    /**
+     * Завантажувач класів плагіна, який сам визначає {@link PluginListener} і не бачить {@link EventInvoker}.
+     */
+    private static final class IsolatingClassLoader extends ClassLoader {
+        IsolatingClassLoader() {
+            super(EventBusTest.class.getClassLoader());
+        }
+        
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(EventInvoker.class.getName())) {
+                throw new ClassNotFoundException(name);
+            }
+            if (!name.equals(PluginListener.class.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        byte[] bytes = in.readAllBytes();
+                        loaded = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return loaded;
+            }
+        }
+    }
+    
+    static class SlowListener {
+        final CountDownLatch release = new CountDownLatch(1);
+        
+        @Subscribe(async = true)
+        void onEvent(SlowEvent event) throws InterruptedException {
+            release.await();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.sparky.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для журналу подій.
+ *
+ * @author Андрій Будильников
+ */
+class EventJournalTest {
+    
+    @Test
+    void testReplayKeepsOnlyLatestEvents() {
+        EventJournal journal = new EventJournal(6);
+        assertEquals(8, journal.getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new EventJournal(0));
+        assertEquals(List.of(), journal.snapshot());
+        
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, journal.publish("event-" + i));
+        }
+        assertEquals(20, journal.getCursor());
+        assertEquals(12, journal.getOldestSequence());
+        
+        List<Object> snapshot = journal.snapshot();
+        assertEquals(8, snapshot.size());
+        assertEquals("event-12", snapshot.get(0));
+        assertEquals("event-19", snapshot.get(7));
+        
+        List<Long> sequences = new ArrayList<>();
+        assertEquals(20, journal.replay(15, (sequence, timestamp, event) -> {
+            assertEquals("event-" + sequence, event);
+            sequences.add(sequence);
+        }));
+        assertEquals(List.of(15L, 16L, 17L, 18L, 19L), sequences);
+    }
+    
+    @Test
+    void testReplayByEventType() {
+        EventJournal journal = new EventJournal(16);
+        journal.publish("text");
+        journal.publish(1);
+        journal.publish(2L);
+        journal.publish("more");
+        
+        List<Number> numbers = new ArrayList<>();
+        assertEquals(4, journal.replay(Number.class, 0, numbers::add));
+        assertEquals(List.of(1, 2L), numbers);
+    }
+    
+    @Test
+    void testConcurrentWritersAndReplay() throws InterruptedException {
+        // Маленький буфер, щоб відправники постійно обганяли один одного по колу
+        EventJournal journal = new EventJournal(8);
+        Map<Long, Object> published = new ConcurrentHashMap<>();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        
+        List<Long> deliveredSequences = new ArrayList<>();
+        List<Object> deliveredEvents = new ArrayList<>();
+        Thread reader = new Thread(() -> {
+            long next = 0;
+            while (writing.get() || next < journal.getCursor()) {
+                next = journal.replay(next, (sequence, timestamp, event) -> {
+                    long last = deliveredSequences.isEmpty() ? -1 : deliveredSequences.get(deliveredSequences.size() - 1);
+                    if (sequence <= last) {
+                        failure.compareAndSet(null, "sequence " + sequence + " after " + last);
+                    }
+                    deliveredSequences.add(sequence);
+                    deliveredEvents.add(event);
+                });
+            }
+        });
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            writers.add(new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    Object event = new Object();
+                    published.put(journal.publish(event), event);
+                    if (i % 64 == 0) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        reader.start();
+        writers.forEach(Thread::start);
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writing.set(false);
+        reader.join(10_000);
+        
+        assertTrue(!reader.isAlive());
+        assertNull(failure.get());
+        // Кожна доставлена подія - саме та, що отримала цей номер
+        for (int i = 0; i < deliveredSequences.size(); i++) {
+            assertSame(published.get(deliveredSequences.get(i)), deliveredEvents.get(i));
+        }
+        // Після завершення всіх відправників жоден слот не лишається недоступним
+        List<Long> tail = new ArrayList<>();
+        long end = journal.replay(0, (sequence, timestamp, event) -> {
+            assertSame(published.get(sequence), event);
+            tail.add(sequence);
+        });
+        assertEquals(200_000, end);
+        assertEquals(8, tail.size());
+        assertEquals(199_992L, (long) tail.get(0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.sparky.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для метрик обробників подій.
+ *
+ * @author Андрій Будильников
+ */
+class HandlerMetricsTest {
+    
+    @Test
+    void testConcurrentSlowCallsGetDistinctNumbers() throws InterruptedException {
+        HandlerMetrics metrics = new HandlerMetrics("Listener#onEvent");
+        Set<Long> numbers = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    numbers.add(metrics.recordSlow());
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        // Кожен номер видано рівно один раз, тож попередження "кожне N-те" не дублюються і не губляться
+        assertEquals(40_000, numbers.size());
+        assertEquals(40_000, metrics.getSlowInvocationCount());
+        metrics.reset();
+        assertEquals(1, metrics.recordSlow());
+    }
+    
+    @Test
+    void testRecordCountsCallsAndErrors() {
+        HandlerMetrics metrics = new HandlerMetrics("Listener#onEvent");
+        metrics.record(1_000, false);
+        metrics.record(3_000, true);
+        assertEquals(2, metrics.getInvocationCount());
+        assertEquals(1, metrics.getErrorCount());
+        assertEquals(3_000, metrics.getLatency().getMax());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.sparky.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Слухач для {@link EventBusTest}, який тест завантажує окремим завантажувачем класів,
+ * як клас плагіна. Тому він окремий публічний клас і використовує лише публічні типи.
+ *
+ * @author Андрій Будильников
+ */
+public class PluginListener implements Supplier<List<Object>> {
+    private final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+    
+    @Subscribe
+    public void onEvent(String event) {
+        received.add(event);
+    }
+    
+    @Override
+    public List<Object> get() {
+        return received;
+    }
+}
\ No newline at end of file
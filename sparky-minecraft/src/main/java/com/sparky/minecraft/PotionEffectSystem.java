@@ -282,11 +282,37 @@ public class PotionEffectSystem extends System {
         return new HashSet<>();
     }
     
+    /**
+     * Отримує набір компонентів, які система лише читає.
+     *
+     * @return набір компонентів для читання
+     */
+    @Override
+    public Set<Class<? extends Component>> getReadComponents() {
+        return new HashSet<>();
+    }
+    
+    /**
+     * Отримує набір компонентів, які система змінює.
+     * <p>
+     * Система працює лише зі станом ефектів зілля, тому може виконуватися
+     * паралельно з системами, що не торкаються цих компонентів.
+     *
+     * @return набір компонентів для запису
+     */
+    @Override
+    public Set<Class<? extends Component>> getWriteComponents() {
+        Set<Class<? extends Component>> write = new HashSet<>();
+        write.add(PotionEffectComponent.class);
+        return write;
+    }
+    
     /**
      * Встановлює менеджер сутностей.
      */
     @Override
     public void setEntityManager(EntityManager entityManager) {
+        super.setEntityManager(entityManager);
         this.entityManager = entityManager;
     }
 }
\ No newline at end of file
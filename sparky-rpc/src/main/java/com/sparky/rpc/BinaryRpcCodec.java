@@ -0,0 +1,233 @@
+package com.sparky.rpc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.CorruptedFrameException;
+
+/**
+ * Компактний двійковий кодек повідомлень.
+ * <p>
+ * Формат: байт версії, метод і ідентифікатор як рядки, далі параметри
+ * як значення з тегом типу. Рядки - довжина у varint і байти UTF-8, що
+ * пишуться прямо в буфер; цілі числа - zigzag varint. Підтримуються
+ * {@code null}, Boolean, Integer (а також Byte і Short), Long, Float,
+ * Double, String, byte[], Map з рядковими ключами та List. Інші об'єкти
+ * перед записом перетворюються Jackson на мапи, списки та прості значення,
+ * тобто приймаються в тому ж вигляді, що й після JSON.
+ *
+ * @author Андрій Будильников
+ */
+public class BinaryRpcCodec implements RpcCodec {
+    static final BinaryRpcCodec INSTANCE = new BinaryRpcCodec();
+    
+    private static final byte VERSION = 1;
+    private static final int MAX_DEPTH = 64;
+    
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_FALSE = 1;
+    private static final byte TAG_TRUE = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_STRING = 7;
+    private static final byte TAG_MAP = 8;
+    private static final byte TAG_LIST = 9;
+    private static final byte TAG_BYTES = 10;
+    
+    private final ObjectMapper mapper = new ObjectMapper();
+    
+    @Override
+    public void encode(RpcMessage message, ByteBuf out) {
+        out.writeByte(VERSION);
+        writeString(out, message.getMethod());
+        writeString(out, message.getId());
+        writeValue(out, message.getParams(), 0);
+    }
+    
+    @Override
+    public RpcMessage decode(ByteBuf in) {
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new CorruptedFrameException("Unsupported RPC message version: " + version);
+        }
+        String method = readString(in);
+        String id = readString(in);
+        Object params = readValue(in, 0);
+        if (params != null && !(params instanceof Map)) {
+            throw new CorruptedFrameException("RPC params must be a map");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> paramsMap = (Map<String, Object>) params;
+        return new RpcMessage(method, paramsMap, id);
+    }
+    
+    private void writeValue(ByteBuf out, Object value, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("RPC value nesting is deeper than " + MAX_DEPTH);
+        }
+        if (value == null) {
+            out.writeByte(TAG_NULL);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(bool ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TAG_INT);
+            writeVarLong(out, zigzag(((Number) value).intValue()));
+        } else if (value instanceof Long number) {
+            out.writeByte(TAG_LONG);
+            writeVarLong(out, zigzag(number));
+        } else if (value instanceof Float number) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloatLE(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDoubleLE(number);
+        } else if (value instanceof CharSequence text) {
+            out.writeByte(TAG_STRING);
+            writeString(out, text.toString());
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(TAG_BYTES);
+            writeVarLong(out, bytes.length);
+            out.writeBytes(bytes);
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(TAG_MAP);
+            writeVarLong(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue(), depth + 1);
+            }
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TAG_LIST);
+            writeVarLong(out, list.size());
+            for (Object element : list) {
+                writeValue(out, element, depth + 1);
+            }
+        } else {
+            // Інші типи - як їх бачить JSON: мапа, список або просте значення
+            writeValue(out, mapper.convertValue(value, Object.class), depth + 1);
+        }
+    }
+    
+    private Object readValue(ByteBuf in, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new CorruptedFrameException("RPC value nesting is deeper than " + MAX_DEPTH);
+        }
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_INT:
+                return (int) unzigzag(readVarLong(in));
+            case TAG_LONG:
+                return unzigzag(readVarLong(in));
+            case TAG_FLOAT:
+                return in.readFloatLE();
+            case TAG_DOUBLE:
+                return in.readDoubleLE();
+            case TAG_STRING:
+                return readString(in);
+            case TAG_BYTES: {
+                byte[] bytes = new byte[readLength(in, 1)];
+                in.readBytes(bytes);
+                return bytes;
+            }
+            case TAG_MAP: {
+                int size = readLength(in, 2);
+                Map<String, Object> map = new LinkedHashMap<>(size * 4 / 3 + 1);
+                for (int i = 0; i < size; i++) {
+                    String key = readString(in);
+                    map.put(key, readValue(in, depth + 1));
+                }
+                return map;
+            }
+            case TAG_LIST: {
+                int size = readLength(in, 1);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, depth + 1));
+                }
+                return list;
+            }
+            default:
+                throw new CorruptedFrameException("Unknown RPC value tag: " + tag);
+        }
+    }
+    
+    /**
+     * Рядок: 0 - {@code null}, інакше довжина в байтах + 1 і байти UTF-8.
+     */
+    private static void writeString(ByteBuf out, String value) {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        writeVarLong(out, ByteBufUtil.utf8Bytes(value) + 1L);
+        ByteBufUtil.writeUtf8(out, value);
+    }
+    
+    private static String readString(ByteBuf in) {
+        long encoded = readVarLong(in);
+        if (encoded == 0) {
+            return null;
+        }
+        int length = checkLength(in, encoded - 1, 1);
+        String value = in.toString(in.readerIndex(), length, StandardCharsets.UTF_8);
+        in.skipBytes(length);
+        return value;
+    }
+    
+    /**
+     * Читає кількість елементів, кожен з яких займає щонайменше {@code minBytes} байтів.
+     */
+    private static int readLength(ByteBuf in, int minBytes) {
+        return checkLength(in, readVarLong(in), minBytes);
+    }
+    
+    private static int checkLength(ByteBuf in, long length, int minBytes) {
+        // Пошкоджений кадр не повинен змусити виділити більше пам'яті, ніж він займає
+        if (length < 0 || length * minBytes > in.readableBytes()) {
+            throw new CorruptedFrameException("RPC length " + length + " exceeds frame size");
+        }
+        return (int) length;
+    }
+    
+    private static void writeVarLong(ByteBuf out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+    
+    private static long readVarLong(ByteBuf in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new CorruptedFrameException("Malformed varint in RPC message");
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
\ No newline at end of file
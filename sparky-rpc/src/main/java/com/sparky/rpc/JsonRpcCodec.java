@@ -0,0 +1,40 @@
+package com.sparky.rpc;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+
+/**
+ * Кодек, що передає повідомлення як JSON у кодуванні UTF-8.
+ * <p>
+ * JSON пишеться прямо в буфер кадру і читається з нього без проміжних рядків.
+ * Додаткові властивості підкласів (наприклад, {@code entityId} у
+ * {@link com.sparky.rpc.ecs.EntitySyncMessage}) при читанні ігноруються -
+ * їхні значення вже містяться в параметрах.
+ *
+ * @author Андрій Будильников
+ */
+public class JsonRpcCodec implements RpcCodec {
+    static final JsonRpcCodec INSTANCE = new JsonRpcCodec();
+    
+    private final ObjectMapper mapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    
+    @Override
+    public void encode(RpcMessage message, ByteBuf out) throws Exception {
+        OutputStream stream = new ByteBufOutputStream(out);
+        mapper.writeValue(stream, message);
+    }
+    
+    @Override
+    public RpcMessage decode(ByteBuf in) throws Exception {
+        InputStream stream = new ByteBufInputStream(in);
+        return mapper.readValue(stream, RpcMessage.class);
+    }
+}
\ No newline at end of file
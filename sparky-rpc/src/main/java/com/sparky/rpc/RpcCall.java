@@ -0,0 +1,98 @@
+package com.sparky.rpc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * Один або кілька запитів клієнта разом з їхніми майбутніми відповідями.
+ * <p>
+ * Ідентифікатори запитів ідуть підряд, починаючи з {@code firstId}. Вміст -
+ * {@link RpcMessage} або вже закодовані кадри; лічильник посилань делегується
+ * вмісту, щоб Netty звільнила буфер, якщо запис не дійде до обробника.
+ *
+ * @author Андрій Будильников
+ */
+final class RpcCall implements ReferenceCounted {
+    private final long firstId;
+    private final List<CompletableFuture<RpcMessage>> futures;
+    private final Object payload;
+    // Чи зареєстрував обробник ці запити; доступ лише з циклу подій каналу
+    private boolean registered;
+    
+    RpcCall(long firstId, List<CompletableFuture<RpcMessage>> futures, Object payload) {
+        this.firstId = firstId;
+        this.futures = futures;
+        this.payload = payload;
+    }
+    
+    long firstId() {
+        return firstId;
+    }
+    
+    List<CompletableFuture<RpcMessage>> futures() {
+        return futures;
+    }
+    
+    Object payload() {
+        return payload;
+    }
+    
+    boolean isRegistered() {
+        return registered;
+    }
+    
+    void markRegistered() {
+        registered = true;
+    }
+    
+    /**
+     * Завершує з помилкою всі ще не завершені майбутні відповіді.
+     */
+    void fail(Throwable cause) {
+        for (CompletableFuture<RpcMessage> future : futures) {
+            future.completeExceptionally(cause);
+        }
+    }
+    
+    @Override
+    public int refCnt() {
+        return payload instanceof ReferenceCounted counted ? counted.refCnt() : 1;
+    }
+    
+    @Override
+    public RpcCall retain() {
+        ReferenceCountUtil.retain(payload);
+        return this;
+    }
+    
+    @Override
+    public RpcCall retain(int increment) {
+        ReferenceCountUtil.retain(payload, increment);
+        return this;
+    }
+    
+    @Override
+    public RpcCall touch() {
+        ReferenceCountUtil.touch(payload);
+        return this;
+    }
+    
+    @Override
+    public RpcCall touch(Object hint) {
+        ReferenceCountUtil.touch(payload, hint);
+        return this;
+    }
+    
+    @Override
+    public boolean release() {
+        return ReferenceCountUtil.release(payload);
+    }
+    
+    @Override
+    public boolean release(int decrement) {
+        return ReferenceCountUtil.release(payload, decrement);
+    }
+}
\ No newline at end of file
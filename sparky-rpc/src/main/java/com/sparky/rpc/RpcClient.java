@@ -1,100 +1,263 @@
 package com.sparky.rpc;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.sparky.core.SparkyLogger;
 
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.Channel;
-import io.netty.channel.ChannelInitializer;
-import io.netty.channel.ChannelPipeline;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
 
 /**
  * Клієнт для RPC з'єднань.
+ * <p>
+ * Використовує той самий кадровий протокол, що й {@link RpcServer};
+ * кодек має збігатися з кодеком сервера.
+ * <p>
+ * Клієнт тримає пул з'єднань (одне за замовчуванням), кожне з яких
+ * обслуговує свій цикл подій і має власну мапу очікуваних запитів.
+ * Кожен виклик надсилається з'єднанням, вибраним за {@link Selection};
+ * втрачені з'єднання перепідключаються автоматично, а поки з'єднання
+ * немає, виклики йдуть іншими з'єднаннями пулу.
+ * <p>
+ * За замовчуванням увімкнене пакетування запису: виклики, зроблені з
+ * будь-яких потоків до чергової ітерації циклу подій, скидаються в сокет
+ * одним системним викликом замість одного на кожен запит. Затримка при
+ * цьому не зростає - скидання виконується одразу після поставлених записів.
  *
  * @author Андрій Будильников
  */
 public class RpcClient {
     private static final SparkyLogger logger = SparkyLogger.getLogger(RpcClient.class);
     
+    /**
+     * Спосіб вибору з'єднання пулу для виклику.
+     */
+    public enum Selection {
+        /**
+         * З'єднання по черзі.
+         */
+        ROUND_ROBIN,
+        /**
+         * З'єднання з найменшою кількістю запитів без відповіді.
+         */
+        LEAST_PENDING
+    }
+    
     private final String host;
     private final int port;
+    private final RpcCodec codec;
     private final EventLoopGroup group = new NioEventLoopGroup();
-    private Channel channel;
-    private final AtomicInteger nextId = new AtomicInteger(1);
-    private final ConcurrentHashMap<String, CompletableFuture<RpcMessage>> pendingRequests = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicInteger nextConnection = new AtomicInteger();
+    private boolean writeBatching = true;
+    private int poolSize = 1;
+    private Selection selection = Selection.ROUND_ROBIN;
+    private volatile RpcConnection[] connections = new RpcConnection[0];
+    private volatile boolean closed;
     
     public RpcClient(String host, int port) {
+        this(host, port, RpcCodec.binary());
+    }
+    
+    public RpcClient(String host, int port, RpcCodec codec) {
         this.host = host;
         this.port = port;
+        this.codec = codec;
+    }
+    
+    /**
+     * Вмикає або вимикає пакетування запису. Діє для наступного {@link #connect()}.
+     */
+    public void setWriteBatching(boolean writeBatching) {
+        this.writeBatching = writeBatching;
+    }
+    
+    /**
+     * Встановлює кількість з'єднань пулу. Діє для наступного {@link #connect()}.
+     */
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + poolSize);
+        }
+        this.poolSize = poolSize;
+    }
+    
+    /**
+     * Встановлює спосіб вибору з'єднання для викликів.
+     */
+    public void setSelection(Selection selection) {
+        this.selection = selection;
     }
     
     /**
-     * Підключається до сервера.
+     * Підключається до сервера всіма з'єднаннями пулу. Якщо хоч одне
+     * з'єднання не встановлено, вже відкриті з'єднання закриваються, а
+     * виклик можна повторити.
+     *
+     * @throws IllegalStateException якщо клієнт уже підключений або закритий
      */
-    public void connect() throws InterruptedException {
-        Bootstrap bootstrap = new Bootstrap();
-        bootstrap.group(group)
+    public synchronized void connect() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("RPC client is closed");
+        }
+        if (connections.length > 0) {
+            throw new IllegalStateException("RPC client is already connected");
+        }
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
                 .channel(NioSocketChannel.class)
-                .handler(new ChannelInitializer<SocketChannel>() {
-                    @Override
-                    protected void initChannel(SocketChannel ch) {
-                        ChannelPipeline pipeline = ch.pipeline();
-                        pipeline.addLast(new StringDecoder());
-                        pipeline.addLast(new StringEncoder());
-                        pipeline.addLast(new RpcClientHandler(RpcClient.this));
-                    }
-                });
+                .remoteAddress(host, port);
         
-        channel = bootstrap.connect(host, port).sync().channel();
+        RpcConnection[] pool = new RpcConnection[poolSize];
+        List<ChannelFuture> connecting = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            pool[i] = new RpcConnection(this, bootstrap, codec, writeBatching);
+            connecting.add(pool[i].connect());
+        }
+        try {
+            for (ChannelFuture future : connecting) {
+                future.sync();
+            }
+        } catch (Throwable e) {
+            for (RpcConnection connection : pool) {
+                connection.close();
+            }
+            throw e;
+        }
+        connections = pool;
     }
     
     /**
      * Викликає віддалений метод.
      */
     public CompletableFuture<RpcMessage> call(String method, RpcMessage params) {
-        String id = String.valueOf(nextId.getAndIncrement());
-        RpcMessage message = new RpcMessage(method, params.getParams(), id);
+        long id = nextId.getAndIncrement();
+        RpcMessage message = new RpcMessage(method, params.getParams(), String.valueOf(id));
         
         CompletableFuture<RpcMessage> future = new CompletableFuture<>();
-        pendingRequests.put(id, future);
-        
-        channel.writeAndFlush(message.toJson());
+        send(new RpcCall(id, List.of(future), message));
         
         return future;
     }
     
     /**
-     * Обробляє відповідь від сервера.
+     * Викликає кілька віддалених методів одним записом.
+     * <p>
+     * Кадри всіх запитів кодуються в потоці, що викликає, в один буфер і
+     * передаються одним записом і одним скиданням через одне з'єднання.
+     * Кожен запит бере метод і параметри з відповідного повідомлення;
+     * майбутні результати повертаються в тому ж порядку.
      */
-    public void handleResponse(RpcMessage response) {
-        String id = response.getId();
-        CompletableFuture<RpcMessage> future = pendingRequests.remove(id);
-        if (future != null) {
-            future.complete(response);
+    public List<CompletableFuture<RpcMessage>> callBatch(List<? extends RpcMessage> requests) {
+        List<CompletableFuture<RpcMessage>> futures = new ArrayList<>(requests.size());
+        if (requests.isEmpty()) {
+            return futures;
         }
+        
+        long firstId = nextId.getAndAdd(requests.size());
+        ByteBuf batch = ByteBufAllocator.DEFAULT.buffer();
+        try {
+            long id = firstId;
+            for (RpcMessage request : requests) {
+                RpcFrameEncoder.writeFrame(codec, new RpcMessage(request.getMethod(), request.getParams(), String.valueOf(id++)), batch);
+            }
+        } catch (Exception e) {
+            batch.release();
+            throw new IllegalArgumentException("Failed to encode RPC batch", e);
+        }
+        
+        for (int i = 0; i < requests.size(); i++) {
+            futures.add(new CompletableFuture<>());
+        }
+        send(new RpcCall(firstId, futures, batch));
+        
+        return futures;
+    }
+    
+    /**
+     * Повертає кількість з'єднань пулу, підключених зараз.
+     */
+    public int getActiveConnectionCount() {
+        int active = 0;
+        for (RpcConnection connection : connections) {
+            if (connection.isActive()) {
+                active++;
+            }
+        }
+        return active;
+    }
+    
+    /**
+     * Повертає кількість викликів, що ще чекають на відповідь.
+     */
+    public int getPendingCount() {
+        int pending = 0;
+        for (RpcConnection connection : connections) {
+            pending += connection.getPendingCount();
+        }
+        return pending;
     }
     
     /**
      * Закриває з'єднання.
      */
     public void close() {
-        if (channel != null) {
-            channel.close();
+        closed = true;
+        for (RpcConnection connection : connections) {
+            connection.close();
         }
         group.shutdownGracefully();
     }
     
-    // Package-private method for handler to access pending requests
-    ConcurrentHashMap<String, CompletableFuture<RpcMessage>> getPendingRequests() {
-        return pendingRequests;
+    boolean isClosed() {
+        return closed;
+    }
+    
+    private void send(RpcCall call) {
+        RpcConnection connection = select();
+        if (connection == null) {
+            logger.warn("No active RPC connection to " + host + ":" + port);
+            call.fail(new IllegalStateException("No active RPC connection to " + host + ":" + port));
+            call.release();
+            return;
+        }
+        connection.send(call);
+    }
+    
+    /**
+     * Вибирає активне з'єднання, або повертає {@code null}, якщо таких немає.
+     * Перегляд починається з наступного по черзі з'єднання, тому за рівної
+     * кількості запитів {@link Selection#LEAST_PENDING} теж чергує з'єднання.
+     */
+    private RpcConnection select() {
+        RpcConnection[] pool = connections;
+        int size = pool.length;
+        int start = Math.floorMod(nextConnection.getAndIncrement(), Math.max(size, 1));
+        RpcConnection best = null;
+        int bestPending = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            RpcConnection connection = pool[(start + i) % size];
+            if (!connection.isActive()) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                return connection;
+            }
+            int pending = connection.getPendingCount();
+            if (pending < bestPending) {
+                best = connection;
+                bestPending = pending;
+            }
+        }
+        return best;
     }
 }
\ No newline at end of file
@@ -1,32 +1,87 @@
 package com.sparky.rpc;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import com.sparky.core.SparkyLogger;
 
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.collection.LongObjectHashMap;
 
 /**
  * Обробник повідомлень для RPC клієнта.
+ * <p>
+ * Очікувані запити каналу зберігаються в мапі з ключами {@code long},
+ * доступ до якої є лише з циклу подій каналу: запити реєструються,
+ * коли їхній запис проходить через обробник, а відповіді знаходять
+ * свій запит за ідентифікатором.
  *
  * @author Андрій Будильников
  */
-public class RpcClientHandler extends SimpleChannelInboundHandler<String> {
+public class RpcClientHandler extends ChannelDuplexHandler {
     private static final SparkyLogger logger = SparkyLogger.getLogger(RpcClientHandler.class);
     
-    private final RpcClient client;
+    private final RpcConnection connection;
+    private final LongObjectHashMap<CompletableFuture<RpcMessage>> pending = new LongObjectHashMap<>();
     
-    public RpcClientHandler(RpcClient client) {
-        this.client = client;
+    RpcClientHandler(RpcConnection connection) {
+        this.connection = connection;
     }
     
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String msg) {
-        try {
-            RpcMessage response = RpcMessage.fromJson(msg);
-            client.handleResponse(response);
-        } catch (Exception e) {
-            logger.error("Failed to parse RPC response: " + msg, e);
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+        if (!(msg instanceof RpcCall call)) {
+            ctx.write(msg, promise);
+            return;
+        }
+        List<CompletableFuture<RpcMessage>> futures = call.futures();
+        for (int i = 0; i < futures.size(); i++) {
+            pending.put(call.firstId() + i, futures.get(i));
         }
+        call.markRegistered();
+        promise.addListener(result -> {
+            if (!result.isSuccess()) {
+                int removed = 0;
+                for (int i = 0; i < futures.size(); i++) {
+                    if (pending.remove(call.firstId() + i) != null) {
+                        removed++;
+                    }
+                }
+                connection.completed(removed);
+            }
+        });
+        ctx.write(call.payload(), promise);
+    }
+    
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (!(msg instanceof RpcMessage response)) {
+            ctx.fireChannelRead(msg);
+            return;
+        }
+        CompletableFuture<RpcMessage> future = pending.remove(parseId(response.getId()));
+        if (future != null) {
+            connection.completed(1);
+            future.complete(response);
+        } else {
+            logger.warn("Received RPC response for unknown request: " + response.getId());
+        }
+    }
+    
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        if (!pending.isEmpty()) {
+            connection.completed(pending.size());
+            IllegalStateException cause = new IllegalStateException("RPC connection closed");
+            for (CompletableFuture<RpcMessage> future : pending.values()) {
+                future.completeExceptionally(cause);
+            }
+            pending.clear();
+        }
+        connection.disconnected(ctx.channel());
+        ctx.fireChannelInactive();
     }
     
     @Override
@@ -34,4 +89,15 @@ public class RpcClientHandler extends SimpleChannelInboundHandler<String> {
         logger.error("RPC client handler exception", cause);
         ctx.close();
     }
+    
+    private static long parseId(String id) {
+        if (id == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
\ No newline at end of file
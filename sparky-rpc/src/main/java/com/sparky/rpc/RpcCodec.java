@@ -0,0 +1,39 @@
+package com.sparky.rpc;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Кодек, що перетворює {@link RpcMessage} на тіло кадру і назад.
+ * <p>
+ * Кадрування (префікс довжини) виконують {@link RpcFrameEncoder} і
+ * {@link RpcFrameDecoder}, тому кодек працює лише з одним повним
+ * повідомленням. Обидві сторони з'єднання мають використовувати той самий кодек.
+ *
+ * @author Андрій Будильников
+ */
+public interface RpcCodec {
+    
+    /**
+     * Записує повідомлення в буфер.
+     */
+    void encode(RpcMessage message, ByteBuf out) throws Exception;
+    
+    /**
+     * Читає повідомлення з буфера, що містить рівно один кадр.
+     */
+    RpcMessage decode(ByteBuf in) throws Exception;
+    
+    /**
+     * Компактний двійковий кодек, що використовується за замовчуванням.
+     */
+    static RpcCodec binary() {
+        return BinaryRpcCodec.INSTANCE;
+    }
+    
+    /**
+     * JSON кодек для налагодження: кадри можна прочитати у дампі трафіку.
+     */
+    static RpcCodec json() {
+        return JsonRpcCodec.INSTANCE;
+    }
+}
\ No newline at end of file
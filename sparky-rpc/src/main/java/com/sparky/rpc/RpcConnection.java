@@ -0,0 +1,149 @@
+package com.sparky.rpc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sparky.core.SparkyLogger;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+/**
+ * Одне з'єднання пулу {@link RpcClient} з автоматичним перепідключенням.
+ * <p>
+ * Після втрати з'єднання всі його очікувані запити завершуються з
+ * помилкою, а нове з'єднання встановлюється з експоненційною затримкою
+ * від {@value #MIN_RECONNECT_DELAY_MILLIS} до {@value #MAX_RECONNECT_DELAY_MILLIS} мс.
+ *
+ * @author Андрій Будильников
+ */
+final class RpcConnection {
+    private static final SparkyLogger logger = SparkyLogger.getLogger(RpcConnection.class);
+    
+    static final long MIN_RECONNECT_DELAY_MILLIS = 100;
+    static final long MAX_RECONNECT_DELAY_MILLIS = 5_000;
+    
+    private final RpcClient client;
+    private final Bootstrap bootstrap;
+    // Запити, надіслані цим з'єднанням і ще не завершені
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile Channel channel;
+    private volatile long reconnectDelayMillis = MIN_RECONNECT_DELAY_MILLIS;
+    private volatile boolean closed;
+    
+    RpcConnection(RpcClient client, Bootstrap bootstrap, RpcCodec codec, boolean writeBatching) {
+        this.client = client;
+        this.bootstrap = bootstrap.clone().handler(new ChannelInitializer<SocketChannel>() {
+            @Override
+            protected void initChannel(SocketChannel ch) {
+                ChannelPipeline pipeline = ch.pipeline();
+                if (writeBatching) {
+                    pipeline.addLast(new FlushConsolidationHandler(
+                            FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true));
+                }
+                pipeline.addLast(new RpcFrameDecoder(codec));
+                pipeline.addLast(new RpcFrameEncoder(codec));
+                pipeline.addLast(new RpcClientHandler(RpcConnection.this));
+            }
+        });
+    }
+    
+    /**
+     * Починає підключення новим каналом.
+     */
+    ChannelFuture connect() {
+        ChannelFuture future = bootstrap.connect();
+        channel = future.channel();
+        future.addListener((ChannelFuture result) -> {
+            // З'єднання закрили, поки канал підключався
+            if (result.isSuccess() && isClosed()) {
+                result.channel().close();
+            }
+        });
+        return future;
+    }
+    
+    boolean isActive() {
+        Channel current = channel;
+        return current != null && current.isActive();
+    }
+    
+    int getPendingCount() {
+        return pendingCount.get();
+    }
+    
+    /**
+     * Надсилає запити поточним каналом.
+     */
+    void send(RpcCall call) {
+        pendingCount.addAndGet(call.futures().size());
+        channel.writeAndFlush(call).addListener(result -> {
+            if (!result.isSuccess()) {
+                logger.error("Failed to send RPC request", result.cause());
+                // Зареєстровані запити обробник прибирає сам
+                if (!call.isRegistered()) {
+                    completed(call.futures().size());
+                }
+                call.fail(result.cause());
+            }
+        });
+    }
+    
+    /**
+     * Зменшує кількість очікуваних запитів, коли обробник прибирає їх зі своєї мапи.
+     */
+    void completed(int count) {
+        pendingCount.addAndGet(-count);
+    }
+    
+    /**
+     * Викликається обробником, коли канал закрився.
+     */
+    void disconnected(Channel lost) {
+        if (lost != channel || isClosed()) {
+            return;
+        }
+        logger.warn("RPC connection to " + lost.remoteAddress() + " lost, reconnecting");
+        scheduleReconnect();
+    }
+    
+    /**
+     * Закриває канал і вимикає перепідключення.
+     */
+    void close() {
+        closed = true;
+        Channel current = channel;
+        if (current != null) {
+            current.close();
+        }
+    }
+    
+    private void scheduleReconnect() {
+        long delay = reconnectDelayMillis;
+        reconnectDelayMillis = Math.min(delay * 2, MAX_RECONNECT_DELAY_MILLIS);
+        bootstrap.config().group().schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
+    
+    private boolean isClosed() {
+        return closed || client.isClosed();
+    }
+    
+    private void reconnect() {
+        if (isClosed()) {
+            return;
+        }
+        connect().addListener((ChannelFuture result) -> {
+            if (result.isSuccess()) {
+                reconnectDelayMillis = MIN_RECONNECT_DELAY_MILLIS;
+                logger.info("RPC connection to " + result.channel().remoteAddress() + " restored");
+            } else if (!isClosed()) {
+                scheduleReconnect();
+            }
+        });
+    }
+}
\ No newline at end of file
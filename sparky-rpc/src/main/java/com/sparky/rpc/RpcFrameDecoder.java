@@ -0,0 +1,44 @@
+package com.sparky.rpc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Збирає кадри з префіксом довжини з потоку TCP і декодує кожен у {@link RpcMessage}.
+ * <p>
+ * Повідомлення, розбите між кількома читаннями або злите з іншими в одному
+ * читанні, декодується лише після надходження повного кадру.
+ *
+ * @author Андрій Будильников
+ */
+public class RpcFrameDecoder extends LengthFieldBasedFrameDecoder {
+    /**
+     * Найбільший розмір тіла кадру за замовчуванням.
+     */
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+    
+    private final RpcCodec codec;
+    
+    public RpcFrameDecoder(RpcCodec codec) {
+        this(codec, DEFAULT_MAX_FRAME_LENGTH);
+    }
+    
+    public RpcFrameDecoder(RpcCodec codec, int maxFrameLength) {
+        super(maxFrameLength, 0, 4, 0, 4);
+        this.codec = codec;
+    }
+    
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, ByteBuf in) throws Exception {
+        ByteBuf frame = (ByteBuf) super.decode(ctx, in);
+        if (frame == null) {
+            return null;
+        }
+        try {
+            return codec.decode(frame);
+        } finally {
+            frame.release();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.sparky.rpc;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * Записує {@link RpcMessage} як кадр: 4 байти довжини тіла і тіло, закодоване {@link RpcCodec}.
+ * <p>
+ * Повідомлення кодується прямо в буфер з пулу каналу, а довжина
+ * дописується на зарезервоване місце після кодування. Готові буфери
+ * (наприклад, пакет кадрів від {@link RpcClient#callBatch}) проходять без змін.
+ *
+ * @author Андрій Будильников
+ */
+public class RpcFrameEncoder extends MessageToByteEncoder<RpcMessage> {
+    private final RpcCodec codec;
+    
+    public RpcFrameEncoder(RpcCodec codec) {
+        super(RpcMessage.class);
+        this.codec = codec;
+    }
+    
+    @Override
+    protected void encode(ChannelHandlerContext ctx, RpcMessage message, ByteBuf out) throws Exception {
+        writeFrame(codec, message, out);
+    }
+    
+    /**
+     * Дописує кадр повідомлення в кінець буфера.
+     */
+    static void writeFrame(RpcCodec codec, RpcMessage message, ByteBuf out) throws Exception {
+        int lengthIndex = out.writerIndex();
+        out.writeInt(0);
+        codec.encode(message, out);
+        out.setInt(lengthIndex, out.writerIndex() - lengthIndex - 4);
+    }
+}
\ No newline at end of file
@@ -15,11 +15,15 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
 
 /**
  * Сервер для RPC з'єднань.
+ * <p>
+ * Повідомлення передаються кадрами з префіксом довжини; тіло кадру
+ * кодується {@link RpcCodec} (двійковий за замовчуванням). Клієнт має
+ * використовувати той самий кодек. Відповіді на запити, прочитані за одне
+ * читання з сокета, скидаються в мережу разом після його завершення.
  *
  * @author Андрій Будильников
  */
@@ -27,13 +31,19 @@ public class RpcServer {
     private static final SparkyLogger logger = SparkyLogger.getLogger(RpcServer.class);
     
     private final int port;
+    private final RpcCodec codec;
     private final EventLoopGroup bossGroup = new NioEventLoopGroup();
     private final EventLoopGroup workerGroup = new NioEventLoopGroup();
     private Channel channel;
     private final Map<String, Function<RpcMessage, RpcMessage>> handlers = new ConcurrentHashMap<>();
     
     public RpcServer(int port) {
+        this(port, RpcCodec.binary());
+    }
+    
+    public RpcServer(int port, RpcCodec codec) {
         this.port = port;
+        this.codec = codec;
     }
     
     /**
@@ -54,8 +64,9 @@ public class RpcServer {
                     @Override
                     protected void initChannel(SocketChannel ch) {
                         ChannelPipeline pipeline = ch.pipeline();
-                        pipeline.addLast(new StringDecoder());
-                        pipeline.addLast(new StringEncoder());
+                        pipeline.addLast(new FlushConsolidationHandler());
+                        pipeline.addLast(new RpcFrameDecoder(codec));
+                        pipeline.addLast(new RpcFrameEncoder(codec));
                         pipeline.addLast(new RpcServerHandler(RpcServer.this));
                     }
                 })
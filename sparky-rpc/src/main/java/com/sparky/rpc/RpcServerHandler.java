@@ -11,7 +11,7 @@ import java.util.function.Function;
  *
  * @author Андрій Будильников
  */
-public class RpcServerHandler extends SimpleChannelInboundHandler<String> {
+public class RpcServerHandler extends SimpleChannelInboundHandler<RpcMessage> {
     private static final SparkyLogger logger = SparkyLogger.getLogger(RpcServerHandler.class);
     
     private final RpcServer server;
@@ -21,31 +21,25 @@ public class RpcServerHandler extends SimpleChannelInboundHandler<String> {
     }
     
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String msg) {
-        try {
-            RpcMessage request = RpcMessage.fromJson(msg);
-            String method = request.getMethod();
-            
-            Function<RpcMessage, RpcMessage> handler = server.getHandlers().get(method);
-            if (handler != null) {
-                try {
-                    RpcMessage response = handler.apply(request);
-                    response.setId(request.getId());
-                    ctx.writeAndFlush(response.toJson());
-                } catch (Exception e) {
-                    logger.error("Error handling RPC method: " + method, e);
-                    // Send error response
-                    RpcMessage errorResponse = new RpcMessage("error", null, request.getId());
-                    ctx.writeAndFlush(errorResponse.toJson());
-                }
-            } else {
-                logger.warn("No handler found for RPC method: " + method);
+    protected void channelRead0(ChannelHandlerContext ctx, RpcMessage request) {
+        String method = request.getMethod();
+        
+        Function<RpcMessage, RpcMessage> handler = server.getHandlers().get(method);
+        if (handler != null) {
+            RpcMessage response;
+            try {
+                response = handler.apply(request);
+                response.setId(request.getId());
+            } catch (Exception e) {
+                logger.error("Error handling RPC method: " + method, e);
                 // Send error response
-                RpcMessage errorResponse = new RpcMessage("method_not_found", null, request.getId());
-                ctx.writeAndFlush(errorResponse.toJson());
+                response = new RpcMessage("error", null, request.getId());
             }
-        } catch (Exception e) {
-            logger.error("Failed to parse RPC request: " + msg, e);
+            ctx.writeAndFlush(response);
+        } else {
+            logger.warn("No handler found for RPC method: " + method);
+            // Send error response
+            ctx.writeAndFlush(new RpcMessage("method_not_found", null, request.getId()));
         }
     }
     
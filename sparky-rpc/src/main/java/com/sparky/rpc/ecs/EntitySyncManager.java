@@ -5,8 +5,10 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+import com.sparky.ecs.Component;
 import com.sparky.ecs.Entity;
 import com.sparky.ecs.EntityManager;
+import com.sparky.ecs.Query;
 import com.sparky.rpc.RpcClient;
 import com.sparky.rpc.RpcMessage;
 import com.sparky.rpc.RpcServer;
@@ -23,11 +25,13 @@ public class EntitySyncManager {
     private final Map<Integer, Integer> entityNetworkIds; // локальний ID -> мережевий ID
     private final Map<Integer, Integer> networkEntityIds; // мережевий ID -> локальний ID
     private Consumer<EntitySyncMessage> syncHandler;
+    private final Map<SyncKey, Long> lastSyncTicks; // (запит, тип компонента) -> тік попередньої синхронізації
     
     public EntitySyncManager(EntityManager entityManager) {
         this.entityManager = entityManager;
         this.entityNetworkIds = new ConcurrentHashMap<>();
         this.networkEntityIds = new ConcurrentHashMap<>();
+        this.lastSyncTicks = new ConcurrentHashMap<>();
     }
     
     /**
@@ -242,6 +246,37 @@ public class EntitySyncManager {
         }
     }
     
+    /**
+     * Синхронізує оновлення лише тих сутностей запиту, чий компонент змінився
+     * з попереднього виклику цього методу для того ж запиту і типу компонента.
+     * <p>
+     * Тік попередньої синхронізації зберігається окремо для кожної пари
+     * запит/тип, тому кілька типів компонентів можна синхронізувати один
+     * за одним без втрати змін.
+     * <p>
+     * Незмінні сутності відсікаються за тіками змін колонок архетипів, тому
+     * вартість виклику для нерухомих сутностей - одне порівняння на сутність.
+     * Поки RPC клієнт не встановлено, зміни накопичуються до наступного виклику.
+     *
+     * @param query запит сутностей для синхронізації
+     * @param componentType тип компонента, зміни якого відстежуються
+     * @return кількість синхронізованих сутностей
+     */
+    public int syncChangedEntities(Query query, Class<? extends Component> componentType) {
+        if (rpcClient == null) {
+            return 0;
+        }
+        SyncKey key = new SyncKey(query, componentType);
+        long sinceTick = lastSyncTicks.getOrDefault(key, 0L);
+        lastSyncTicks.put(key, entityManager.advanceChangeTick());
+        int[] synced = new int[1];
+        query.forEachChanged(componentType, sinceTick, entity -> {
+            syncEntityUpdate(entity);
+            synced[0]++;
+        });
+        return synced[0];
+    }
+    
     /**
      * Синхронізує видалення сутності з сервером.
      */
@@ -259,4 +294,10 @@ public class EntitySyncManager {
             }
         }
     }
+    
+    /**
+     * Ключ тіку синхронізації: запити кешуються менеджером сутностей, тому порівнюються за посиланням.
+     */
+    private record SyncKey(Query query, Class<? extends Component> componentType) {
+    }
 }
\ No newline at end of file
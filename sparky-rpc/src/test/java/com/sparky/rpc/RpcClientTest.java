@@ -0,0 +1,240 @@
+package com.sparky.rpc;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.GlobalEventExecutor;
+
+/**
+ * Тест для викликів RPC клієнта через loopback з'єднання.
+ *
+ * @author Андрій Будильников
+ */
+class RpcClientTest {
+    private RpcServer server;
+    private int port;
+    
+    @BeforeEach
+    void setUp() throws IOException, InterruptedException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        startServer();
+    }
+    
+    private void startServer() throws InterruptedException {
+        server = new RpcServer(port);
+        server.registerHandler("square", request -> {
+            int value = (Integer) request.getParams().get("value");
+            return new RpcMessage("result", Map.of("value", value * value), null);
+        });
+        server.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+    
+    @Test
+    void testCallBatchCompletesFuturesInOrder() throws Exception {
+        RpcClient client = new RpcClient("127.0.0.1", port);
+        client.connect();
+        try {
+            List<RpcMessage> requests = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                requests.add(new RpcMessage("square", Map.of("value", i), null));
+            }
+            requests.add(new RpcMessage("missing", Map.of(), null));
+            
+            List<CompletableFuture<RpcMessage>> futures = client.callBatch(requests);
+            assertEquals(requests.size(), futures.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i * i, futures.get(i).get(5, TimeUnit.SECONDS).getParams().get("value"));
+            }
+            assertEquals("method_not_found", futures.get(100).get(5, TimeUnit.SECONDS).getMethod());
+            assertEquals(0, client.callBatch(List.of()).size());
+        } finally {
+            client.close();
+        }
+    }
+    
+    @Test
+    void testConcurrentCallsWithAndWithoutWriteBatching() throws Exception {
+        for (boolean writeBatching : new boolean[] {true, false}) {
+            RpcClient client = new RpcClient("127.0.0.1", port);
+            client.setWriteBatching(writeBatching);
+            client.connect();
+            try {
+                List<List<CompletableFuture<RpcMessage>>> results = new ArrayList<>();
+                List<Thread> callers = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    int base = t * 1_000;
+                    List<CompletableFuture<RpcMessage>> futures = new ArrayList<>();
+                    results.add(futures);
+                    Thread caller = new Thread(() -> {
+                        for (int i = 0; i < 250; i++) {
+                            futures.add(client.call("square", new RpcMessage(null, Map.of("value", base + i), null)));
+                        }
+                    });
+                    callers.add(caller);
+                    caller.start();
+                }
+                for (Thread caller : callers) {
+                    caller.join();
+                }
+                for (int t = 0; t < results.size(); t++) {
+                    for (int i = 0; i < 250; i++) {
+                        int value = t * 1_000 + i;
+                        RpcMessage response = results.get(t).get(i).get(5, TimeUnit.SECONDS);
+                        assertEquals(value * value, response.getParams().get("value"));
+                    }
+                }
+                assertEquals(0, client.getPendingCount());
+            } finally {
+                client.close();
+            }
+        }
+    }
+    
+    @Test
+    void testPoolReconnectsAfterServerRestart() throws Exception {
+        RpcClient client = new RpcClient("127.0.0.1", port);
+        client.setPoolSize(3);
+        client.setSelection(RpcClient.Selection.LEAST_PENDING);
+        client.connect();
+        try {
+            assertEquals(3, client.getActiveConnectionCount());
+            List<CompletableFuture<RpcMessage>> futures = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                futures.add(client.call("square", new RpcMessage(null, Map.of("value", i), null)));
+            }
+            for (int i = 0; i < 30; i++) {
+                assertEquals(i * i, futures.get(i).get(5, TimeUnit.SECONDS).getParams().get("value"));
+            }
+            
+            server.stop();
+            awaitActiveConnections(client, 0);
+            CompletableFuture<RpcMessage> offline = client.call("square", new RpcMessage(null, Map.of("value", 1), null));
+            assertThrows(ExecutionException.class, () -> offline.get(5, TimeUnit.SECONDS));
+            
+            startServer();
+            awaitActiveConnections(client, 3);
+            assertEquals(49, client.call("square", new RpcMessage(null, Map.of("value", 7), null))
+                    .get(5, TimeUnit.SECONDS).getParams().get("value"));
+            assertEquals(0, client.getPendingCount());
+        } finally {
+            client.close();
+        }
+    }
+    
+    @Test
+    void testRefusedConnectCanBeRetriedAndSecondConnectIsRejected() throws Exception {
+        int refusedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            refusedPort = socket.getLocalPort();
+        }
+        RpcClient client = new RpcClient("127.0.0.1", refusedPort);
+        client.setPoolSize(3);
+        try {
+            assertThrows(ConnectException.class, client::connect);
+            assertEquals(0, client.getActiveConnectionCount());
+            
+            RpcServer refusedServer = new RpcServer(refusedPort);
+            refusedServer.start();
+            try {
+                client.connect();
+                assertEquals(3, client.getActiveConnectionCount());
+                assertThrows(IllegalStateException.class, client::connect);
+                assertEquals(3, client.getActiveConnectionCount());
+            } finally {
+                refusedServer.stop();
+            }
+        } finally {
+            client.close();
+        }
+        assertThrows(IllegalStateException.class, client::connect);
+    }
+    
+    @Test
+    void testFailedConnectClosesOpenedConnections() throws Exception {
+        EventLoopGroup serverGroup = new NioEventLoopGroup(1);
+        ChannelGroup open = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+        AtomicInteger accepted = new AtomicInteger();
+        try {
+            Channel listener = new ServerBootstrap()
+                    .group(serverGroup)
+                    .channel(NioServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<SocketChannel>() {
+                        @Override
+                        protected void initChannel(SocketChannel ch) {
+                            accepted.incrementAndGet();
+                            open.add(ch);
+                        }
+                    })
+                    .bind("127.0.0.1", 0).sync().channel();
+            int listenerPort = ((InetSocketAddress) listener.localAddress()).getPort();
+            
+            RpcClient client = new RpcClient("127.0.0.1", listenerPort);
+            client.setPoolSize(8);
+            try {
+                // Переривання обриває очікування посеред пулу, коли частина з'єднань уже підключається
+                Thread.currentThread().interrupt();
+                assertThrows(InterruptedException.class, client::connect);
+                assertFalse(Thread.interrupted());
+                
+                // Сервер може прийняти вже закрите клієнтом з'єднання із запізненням
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                int acceptedAfterFailure = -1;
+                while ((!open.isEmpty() || acceptedAfterFailure != accepted.get()) && System.nanoTime() < deadline) {
+                    acceptedAfterFailure = accepted.get();
+                    Thread.sleep(50);
+                }
+                // Довше за найменшу затримку перепідключення: жодне з'єднання не має повернутися
+                Thread.sleep(RpcConnection.MIN_RECONNECT_DELAY_MILLIS * 3);
+                assertTrue(open.isEmpty());
+                assertEquals(acceptedAfterFailure, accepted.get());
+                assertEquals(0, client.getActiveConnectionCount());
+            } finally {
+                client.close();
+            }
+        } finally {
+            open.close();
+            serverGroup.shutdownGracefully();
+        }
+    }
+    
+    private static void awaitActiveConnections(RpcClient client, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (client.getActiveConnectionCount() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, client.getActiveConnectionCount());
+    }
+}
\ No newline at end of file
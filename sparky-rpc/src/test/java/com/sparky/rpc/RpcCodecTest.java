@@ -0,0 +1,128 @@
+package com.sparky.rpc;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.sparky.rpc.ecs.EntitySyncMessage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderException;
+
+/**
+ * Тест для кадрового протоколу та кодеків RPC.
+ *
+ * @author Андрій Будильников
+ */
+class RpcCodecTest {
+    
+    @Test
+    void testBinaryRoundTripPreservesTypes() throws Exception {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("x", 1.5f);
+        nested.put("tags", List.of("a", "б", "🙂"));
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("int", -42);
+        params.put("long", Long.MIN_VALUE);
+        params.put("double", 0.1);
+        params.put("flag", true);
+        params.put("none", null);
+        params.put("bytes", new byte[] {1, 2, 3});
+        params.put("nested", nested);
+        
+        RpcMessage decoded = roundTrip(RpcCodec.binary(), new RpcMessage("move", params, "7"));
+        
+        assertEquals("move", decoded.getMethod());
+        assertEquals("7", decoded.getId());
+        Map<String, Object> actual = decoded.getParams();
+        assertEquals(-42, actual.get("int"));
+        assertEquals(Long.MIN_VALUE, actual.get("long"));
+        assertEquals(0.1, actual.get("double"));
+        assertEquals(Boolean.TRUE, actual.get("flag"));
+        assertTrue(actual.containsKey("none"));
+        assertNull(actual.get("none"));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) actual.get("bytes"));
+        assertEquals(nested, actual.get("nested"));
+    }
+    
+    @Test
+    void testJsonRoundTripIgnoresSubclassProperties() throws Exception {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("hp", 20);
+        RpcMessage message = EntitySyncMessage.updateEntityMessage(5, data, "1");
+        
+        for (RpcCodec codec : List.of(RpcCodec.json(), RpcCodec.binary())) {
+            RpcMessage decoded = roundTrip(codec, message);
+            assertEquals(EntitySyncMessage.METHOD_UPDATE_ENTITY, decoded.getMethod());
+            assertEquals(5, decoded.getParams().get("entityId"));
+            assertEquals(data, decoded.getParams().get("componentData"));
+        }
+    }
+    
+    @Test
+    void testSplitAndCoalescedFrames() {
+        EmbeddedChannel sender = new EmbeddedChannel(new RpcFrameEncoder(RpcCodec.binary()));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(sender.writeOutbound(new RpcMessage("ping", Map.of("n", i), String.valueOf(i))));
+        }
+        ByteBuf stream = Unpooled.buffer();
+        for (ByteBuf frame; (frame = sender.readOutbound()) != null; ) {
+            stream.writeBytes(frame);
+            frame.release();
+        }
+        
+        // Перший кадр приходить по одному байту, решта - одним читанням
+        EmbeddedChannel receiver = new EmbeddedChannel(new RpcFrameDecoder(RpcCodec.binary()));
+        int firstFrame = stream.getInt(0) + 4;
+        for (int i = 0; i < firstFrame - 1; i++) {
+            assertFalse(receiver.writeInbound(stream.readRetainedSlice(1)));
+        }
+        assertTrue(receiver.writeInbound(stream.readRetainedSlice(stream.readableBytes())));
+        stream.release();
+        
+        for (int i = 0; i < 3; i++) {
+            RpcMessage message = receiver.readInbound();
+            assertEquals(String.valueOf(i), message.getId());
+            assertEquals(i, message.getParams().get("n"));
+        }
+        assertNull(receiver.readInbound());
+        assertFalse(receiver.finish());
+    }
+    
+    @Test
+    void testCorruptedFrameIsRejected() {
+        ByteBuf frame = Unpooled.buffer();
+        frame.writeInt(7);
+        // Версія, порожні метод та id, мапа із заявленим мільйоном елементів
+        frame.writeBytes(new byte[] {1, 0, 0, 8, (byte) 0xC0, (byte) 0x84, 0x3D});
+        EmbeddedChannel receiver = new EmbeddedChannel(new RpcFrameDecoder(RpcCodec.binary()));
+        assertThrows(CorruptedFrameException.class, () -> receiver.writeInbound(frame));
+        
+        ByteBuf oversized = Unpooled.buffer();
+        oversized.writeInt(RpcFrameDecoder.DEFAULT_MAX_FRAME_LENGTH + 1);
+        assertThrows(DecoderException.class, () -> receiver.writeInbound(oversized));
+    }
+    
+    private static RpcMessage roundTrip(RpcCodec codec, RpcMessage message) throws Exception {
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            codec.encode(message, buffer);
+            RpcMessage decoded = codec.decode(buffer);
+            assertEquals(0, buffer.readableBytes());
+            return decoded;
+        } finally {
+            buffer.release();
+        }
+    }
+}
\ No newline at end of file
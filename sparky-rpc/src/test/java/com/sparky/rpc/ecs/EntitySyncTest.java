@@ -1,5 +1,7 @@
 package com.sparky.rpc.ecs;
 
+import java.util.Set;
+
 import static java.lang.System.out;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -9,6 +11,10 @@ import org.junit.jupiter.api.Test;
 
 import com.sparky.ecs.Entity;
 import com.sparky.ecs.EntityManager;
+import com.sparky.ecs.PositionComponent;
+import com.sparky.ecs.Query;
+import com.sparky.ecs.VelocityComponent;
+import com.sparky.rpc.RpcClient;
 
 /**
  * Тест для синхронізації сутностей ECS.
@@ -69,4 +75,31 @@ class EntitySyncTest {
         
         out.println("Entity sync manager with entity manager test passed!");
     }
+    
+    @Test
+    void testChangedEntitiesAreTrackedPerComponentType() {
+        EntityManager entityManager = new EntityManager();
+        EntitySyncManager syncManager = new EntitySyncManager(entityManager);
+        // Клієнт без з'єднання: сутності без мережевого ID лише рахуються
+        RpcClient client = new RpcClient("localhost", 0);
+        syncManager.setRpcClient(client);
+        try {
+            Query query = entityManager.getQuery(Set.of(PositionComponent.class, VelocityComponent.class));
+            for (int i = 0; i < 3; i++) {
+                Entity entity = entityManager.createEntity();
+                entity.addComponent(new PositionComponent(i, 0, 0));
+                entity.addComponent(new VelocityComponent(1, 0, 0));
+            }
+            assertEquals(3, syncManager.syncChangedEntities(query, PositionComponent.class));
+            assertEquals(3, syncManager.syncChangedEntities(query, VelocityComponent.class));
+            
+            // Зміна швидкості не губиться через синхронізацію позицій перед нею
+            entityManager.getAllEntities().get(0).addComponent(new VelocityComponent(2, 0, 0));
+            assertEquals(0, syncManager.syncChangedEntities(query, PositionComponent.class));
+            assertEquals(1, syncManager.syncChangedEntities(query, VelocityComponent.class));
+            assertEquals(0, syncManager.syncChangedEntities(query, VelocityComponent.class));
+        } finally {
+            client.close();
+        }
+    }
 }
\ No newline at end of file
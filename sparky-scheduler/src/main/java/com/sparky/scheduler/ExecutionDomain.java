@@ -0,0 +1,32 @@
+package com.sparky.scheduler;
+
+import java.util.Objects;
+
+/**
+ * Місце виконання задачі в межах тіку.
+ * <p>
+ * {@link #MAIN} - потік, що викликає {@link Scheduler#tick()};
+ * {@link #ASYNC} - будь-який потік пулу; {@link #lane(Object)} - послідовна
+ * смуга з ключем (наприклад, світ або чанк): задачі однієї смуги
+ * виконуються по черзі, різні смуги - паралельно.
+ *
+ * @author Андрій Будильников
+ */
+public record ExecutionDomain(Kind kind, Object key) {
+    
+    public enum Kind {
+        MAIN,
+        ASYNC,
+        LANE
+    }
+    
+    public static final ExecutionDomain MAIN = new ExecutionDomain(Kind.MAIN, null);
+    public static final ExecutionDomain ASYNC = new ExecutionDomain(Kind.ASYNC, null);
+    
+    /**
+     * Створює послідовну смугу з ключем.
+     */
+    public static ExecutionDomain lane(Object key) {
+        return new ExecutionDomain(Kind.LANE, Objects.requireNonNull(key, "key"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.sparky.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.sparky.core.SparkyLogger;
+
+/**
+ * Ланцюжки задач на {@link CompletableFuture} поверх будь-якого {@link Scheduler}.
+ * <p>
+ * Продовження, що мають виконуватися в основному потоці, з інших потоків
+ * потрапляють у неблокуючу чергу, яку одна повторювана задача
+ * планувальника вичерпує раз на тік, - без блокування планувальника на
+ * кожне завершення. Якщо продовження вже виконується в основному потоці,
+ * воно виконується одразу, без переходу через чергу:
+ * <pre>{@code
+ * futures.supplyAsync(() -> database.loadPlayer(id))
+ *         .thenApplyAsync(data -> world.spawn(data), futures.mainThread())
+ *         .thenCompose(futures.delayed(20))
+ *         .thenAccept(entity -> entity.sendMessage("Welcome"));
+ * }</pre>
+ * Основний потік - той, що викликає {@link Scheduler#tick()}; він
+ * визначається на першому тіку після створення.
+ * <p>
+ * Після {@link #close()} виконавець основного потоку відхиляє нові задачі
+ * з {@link RejectedExecutionException}, тож відповідні {@code *Async}-етапи
+ * завершуються з помилкою замість того, щоб чекати вічно.
+ *
+ * @author Андрій Будильников
+ */
+public class FutureScheduler {
+    private final SparkyLogger logger = SparkyLogger.getLogger(FutureScheduler.class);
+    
+    private final Scheduler scheduler;
+    private final Executor asyncExecutor;
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final Executor mainThreadExecutor = this::executeOnMainThread;
+    private final int drainTaskId;
+    private volatile Thread mainThread;
+    private volatile boolean closed;
+    // Останнє вичерпання черги після закриття вже почалося
+    private volatile boolean drained;
+    
+    /**
+     * Створює обгортку, що виконує асинхронні задачі в {@link ForkJoinPool#commonPool()}.
+     */
+    public FutureScheduler(Scheduler scheduler) {
+        this(scheduler, ForkJoinPool.commonPool());
+    }
+    
+    public FutureScheduler(Scheduler scheduler, Executor asyncExecutor) {
+        this.scheduler = scheduler;
+        this.asyncExecutor = asyncExecutor;
+        this.drainTaskId = scheduler.scheduleRepeating(this::drainInbox, 0, 1);
+    }
+    
+    /**
+     * Виконавець, що запускає задачі в основному потоці: одразу, якщо виклик
+     * уже в основному потоці, інакше - на найближчому тіку.
+     */
+    public Executor mainThread() {
+        return mainThreadExecutor;
+    }
+    
+    /**
+     * Виконавець асинхронних задач.
+     */
+    public Executor async() {
+        return asyncExecutor;
+    }
+    
+    /**
+     * Обчислює значення асинхронно.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, asyncExecutor);
+    }
+    
+    /**
+     * Обчислює значення в основному потоці.
+     */
+    public <T> CompletableFuture<T> supplySync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, mainThreadExecutor);
+    }
+    
+    /**
+     * Повертає future, що завершується в основному потоці через {@code ticks} тіків.
+     * Тіки відраховуються від моменту виклику з будь-якого потоку; після
+     * {@link #close()} future одразу завершується з {@link RejectedExecutionException}.
+     */
+    public CompletableFuture<Void> delay(long ticks) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Runnable complete = () -> future.complete(null);
+        try {
+            // Планувальник змінюється лише з основного потоку. Черга вичерпується вже під час
+            // найближчого тіку, тож перехід з іншого потоку забирає один тік із затримки
+            long hop = isMainThread() ? 0 : 1;
+            executeOnMainThread(() -> scheduler.schedule(complete, ticks - hop));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+    
+    /**
+     * Повертає функцію для {@link CompletableFuture#thenCompose}, що передає значення далі через {@code ticks} тіків.
+     */
+    public <T> Function<T, CompletableFuture<T>> delayed(long ticks) {
+        return value -> delay(ticks).thenApply(ignored -> value);
+    }
+    
+    /**
+     * Перевіряє, чи поточний потік виконує тіки планувальника.
+     */
+    public boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+    
+    /**
+     * Повертає кількість продовжень, що чекають наступного тіку.
+     */
+    public int getPendingCount() {
+        return inbox.size();
+    }
+    
+    /**
+     * Закриває обгортку: нові задачі основного потоку відхиляються, а
+     * продовження, що вже в черзі, виконуються востаннє і задача вичерпання
+     * знімається з планувальника - одразу, якщо виклик в основному потоці,
+     * інакше на найближчому тіку.
+     */
+    public void close() {
+        closed = true;
+        if (isMainThread()) {
+            drainInbox();
+        }
+    }
+    
+    private void executeOnMainThread(Runnable task) {
+        if (closed) {
+            throw new RejectedExecutionException("FutureScheduler is closed");
+        }
+        if (Thread.currentThread() == mainThread) {
+            task.run();
+            return;
+        }
+        inbox.offer(task);
+        // close() і останнє вичерпання могли статися між перевіркою і додаванням у чергу;
+        // якщо задачу ще не забрано, вона вже не виконається
+        if (drained && inbox.remove(task)) {
+            throw new RejectedExecutionException("FutureScheduler is closed");
+        }
+    }
+    
+    private void drainInbox() {
+        mainThread = Thread.currentThread();
+        if (closed && !drained) {
+            // Планувальник змінюється лише з основного потоку, тому задача знімає себе сама
+            scheduler.cancel(drainTaskId);
+            drained = true;
+        }
+        Runnable task;
+        while ((task = inbox.poll()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Error executing main thread continuation", e);
+            }
+        }
+    }
+}
\ No newline at end of file
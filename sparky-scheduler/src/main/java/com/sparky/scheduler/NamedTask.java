@@ -0,0 +1,16 @@
+package com.sparky.scheduler;
+
+/**
+ * Задача з ім'ям для звітів {@link TickProfiler}.
+ * <p>
+ * Задачі без імені у звіті об'єднуються за класом, у якому їх оголошено.
+ *
+ * @author Андрій Будильников
+ */
+public record NamedTask(String name, Runnable task) implements Runnable {
+    
+    @Override
+    public void run() {
+        task.run();
+    }
+}
\ No newline at end of file
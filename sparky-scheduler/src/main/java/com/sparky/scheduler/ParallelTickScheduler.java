@@ -0,0 +1,249 @@
+package com.sparky.scheduler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sparky.core.SparkyLogger;
+
+/**
+ * Планувальник, що виконує задачі тіку в різних {@link ExecutionDomain} паралельно.
+ * <p>
+ * Час задач відраховує вкладений планувальник (наприклад,
+ * {@link TimingWheelScheduler}), але задачі, що настали, не виконуються
+ * одразу: вони розкладаються за доменами. Потім задачі {@link ExecutionDomain#ASYNC}
+ * і смуги передаються в пул потоків (кожна смуга - однією задачею, що
+ * виконує свої задачі по черзі), задачі {@link ExecutionDomain#MAIN}
+ * виконуються в потоці, що викликав {@link #tick()}, і тік завершується
+ * лише після завершення всіх задач цього тіку.
+ * <p>
+ * Методи планування безпечно викликати з будь-якого потоку. Задачі,
+ * заплановані під час виконання тіку, виконуються не раніше наступного тіку.
+ *
+ * @author Андрій Будильников
+ */
+public class ParallelTickScheduler implements Scheduler {
+    private final SparkyLogger logger = SparkyLogger.getLogger(ParallelTickScheduler.class);
+    
+    private final Scheduler delegate;
+    private final ExecutorService workers;
+    // Задачі, що настали в поточному тіку; заповнюються під монітором планувальника
+    private final List<Runnable> mainTasks = new ArrayList<>();
+    private final List<Runnable> asyncTasks = new ArrayList<>();
+    private final Map<Object, List<Runnable>> laneTasks = new LinkedHashMap<>();
+    private volatile Thread mainThread;
+    private volatile TickProfiler profiler;
+    // Домен задач, які зараз виконує потік
+    private final ThreadLocal<ExecutionDomain> currentDomain = new ThreadLocal<>();
+    
+    /**
+     * Створює планувальник на власному пулі з {@code threads} потоків-демонів.
+     */
+    public ParallelTickScheduler(Scheduler delegate, int threads) {
+        this(delegate, Executors.newFixedThreadPool(threads, workerThreadFactory()));
+    }
+    
+    public ParallelTickScheduler(Scheduler delegate, ExecutorService workers) {
+        this.delegate = delegate;
+        this.workers = workers;
+    }
+    
+    @Override
+    public int schedule(Runnable task, long delay) {
+        return schedule(ExecutionDomain.MAIN, task, delay);
+    }
+    
+    @Override
+    public int scheduleRepeating(Runnable task, long delay, long period) {
+        return scheduleRepeating(ExecutionDomain.MAIN, task, delay, period);
+    }
+    
+    /**
+     * Планує виконання задачі в домені з вказаною затримкою.
+     */
+    public synchronized int schedule(ExecutionDomain domain, Runnable task, long delay) {
+        return delegate.schedule(() -> route(domain, task), delay);
+    }
+    
+    /**
+     * Планує повторювану задачу в домені.
+     */
+    public synchronized int scheduleRepeating(ExecutionDomain domain, Runnable task, long delay, long period) {
+        return delegate.scheduleRepeating(() -> route(domain, task), delay, period);
+    }
+    
+    /**
+     * Виконує задачу в пулі на наступному тіку.
+     */
+    public int runAsync(Runnable task) {
+        return schedule(ExecutionDomain.ASYNC, task, 0);
+    }
+    
+    /**
+     * Виконує задачу в основному потоці на наступному тіку.
+     */
+    public int runSync(Runnable task) {
+        return schedule(ExecutionDomain.MAIN, task, 0);
+    }
+    
+    /**
+     * Повертає виконавець для домену. Задача, передана з потоку, що вже
+     * виконує цей домен, виконується одразу; інакше - на наступному тіку.
+     */
+    public Executor executor(ExecutionDomain domain) {
+        return task -> {
+            if (domain.equals(currentDomain.get())) {
+                task.run();
+            } else {
+                schedule(domain, task, 0);
+            }
+        };
+    }
+    
+    @Override
+    public synchronized void cancel(int taskId) {
+        delegate.cancel(taskId);
+    }
+    
+    @Override
+    public void tick() {
+        mainThread = Thread.currentThread();
+        TickProfiler tickProfiler = profiler;
+        long start = tickProfiler != null ? System.nanoTime() : 0;
+        List<Runnable> main;
+        List<Runnable> async;
+        Map<Object, List<Runnable>> lanes;
+        synchronized (this) {
+            // Вкладений планувальник лише розкладає задачі, що настали, за доменами
+            delegate.tick();
+            main = new ArrayList<>(mainTasks);
+            async = new ArrayList<>(asyncTasks);
+            lanes = new LinkedHashMap<>(laneTasks);
+            mainTasks.clear();
+            asyncTasks.clear();
+            laneTasks.clear();
+        }
+        
+        CountDownLatch barrier = new CountDownLatch(async.size() + lanes.size());
+        for (Runnable task : async) {
+            submit(ExecutionDomain.ASYNC, List.of(task), barrier);
+        }
+        for (Map.Entry<Object, List<Runnable>> lane : lanes.entrySet()) {
+            submit(ExecutionDomain.lane(lane.getKey()), lane.getValue(), barrier);
+        }
+        runTasks(ExecutionDomain.MAIN, main);
+        awaitBarrier(barrier);
+        
+        if (tickProfiler != null) {
+            int tasks = main.size() + async.size();
+            for (List<Runnable> lane : lanes.values()) {
+                tasks += lane.size();
+            }
+            tickProfiler.recordTick(System.nanoTime() - start, tasks, -1);
+        }
+    }
+    
+    /**
+     * Вмикає профілювання тіків; {@code null} вимикає. Час задач у пулі
+     * записується разом з часом задач основного потоку.
+     */
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+    
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Перевіряє, чи поточний потік виконує тіки планувальника.
+     */
+    public boolean isMainThread() {
+        return Thread.currentThread() == mainThread;
+    }
+    
+    /**
+     * Зупиняє пул потоків.
+     */
+    public void shutdown() {
+        workers.shutdown();
+    }
+    
+    private void route(ExecutionDomain domain, Runnable task) {
+        switch (domain.kind()) {
+            case MAIN -> mainTasks.add(task);
+            case ASYNC -> asyncTasks.add(task);
+            case LANE -> laneTasks.computeIfAbsent(domain.key(), k -> new ArrayList<>()).add(task);
+        }
+    }
+    
+    private void submit(ExecutionDomain domain, List<Runnable> tasks, CountDownLatch barrier) {
+        Runnable work = () -> {
+            try {
+                runTasks(domain, tasks);
+            } finally {
+                barrier.countDown();
+            }
+        };
+        try {
+            workers.execute(work);
+        } catch (RejectedExecutionException e) {
+            // Пул зупинено - виконуємо в основному потоці, щоб не втратити задачі тіку
+            work.run();
+        }
+    }
+    
+    private void runTasks(ExecutionDomain domain, List<Runnable> tasks) {
+        ExecutionDomain previous = currentDomain.get();
+        currentDomain.set(domain);
+        TickProfiler tickProfiler = profiler;
+        try {
+            for (Runnable task : tasks) {
+                boolean sampled = tickProfiler != null && tickProfiler.sampleTask();
+                long taskStart = sampled ? System.nanoTime() : 0;
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    logger.error("Error executing scheduled task", e);
+                }
+                if (sampled) {
+                    tickProfiler.recordTask(task, System.nanoTime() - taskStart);
+                }
+            }
+        } finally {
+            currentDomain.set(previous);
+        }
+    }
+    
+    private void awaitBarrier(CountDownLatch barrier) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                barrier.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "sparky-tick-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
\ No newline at end of file
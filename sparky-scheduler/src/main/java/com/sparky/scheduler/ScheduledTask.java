@@ -10,18 +10,33 @@ public class ScheduledTask implements Comparable<ScheduledTask> {
     private final Runnable task;
     private final long executionTick;
     private final long period;
+    private final int priority;
     private boolean cancelled = false;
+    // Тік, коли задача настала, і ключ черги готових задач з урахуванням старіння, див. SimpleScheduler
+    long readyTick;
+    long readyKey;
+    long readySequence;
     
     public ScheduledTask(int id, Runnable task, long executionTick, long period) {
+        this(id, task, executionTick, period, 0);
+    }
+    
+    public ScheduledTask(int id, Runnable task, long executionTick, long period, int priority) {
         this.id = id;
         this.task = task;
         this.executionTick = executionTick;
         this.period = period;
+        this.priority = priority;
     }
     
     @Override
     public int compareTo(ScheduledTask other) {
-        return Long.compare(this.executionTick, other.executionTick);
+        int byTick = Long.compare(this.executionTick, other.executionTick);
+        if (byTick != 0) {
+            return byTick;
+        }
+        int byPriority = Integer.compare(this.priority, other.priority);
+        return byPriority != 0 ? byPriority : Integer.compare(this.id, other.id);
     }
     
     // Getters
@@ -41,6 +56,13 @@ public class ScheduledTask implements Comparable<ScheduledTask> {
         return period;
     }
     
+    /**
+     * Пріоритет задачі (менше значення = вищий пріоритет).
+     */
+    public int priority() {
+        return priority;
+    }
+    
     public boolean isCancelled() {
         return cancelled;
     }
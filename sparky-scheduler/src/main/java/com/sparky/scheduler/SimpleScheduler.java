@@ -1,6 +1,9 @@
 package com.sparky.scheduler;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 
@@ -8,6 +11,13 @@ import com.sparky.core.SparkyLogger;
 
 /**
  * Проста реалізація планувальника задач.
+ * <p>
+ * Задачі, що настали, виконуються в порядку пріоритету (менше значення =
+ * вищий пріоритет). Якщо задано бюджет тіку ({@link #setTickBudget(long)}),
+ * після його вичерпання решта задач відкладається на наступний тік.
+ * Відкладені задачі старіють: кожні {@link #setAgingTicks(int) agingTicks}
+ * тіків очікування підвищують їхній пріоритет на одиницю, тому задачі з
+ * низьким пріоритетом не голодують під постійним навантаженням.
  *
  * @author Андрій Будильников
  */
@@ -15,14 +25,38 @@ public class SimpleScheduler implements Scheduler {
     private final SparkyLogger logger = SparkyLogger.getLogger(SimpleScheduler.class);
     
     private final PriorityQueue<ScheduledTask> taskQueue = new PriorityQueue<>();
+    // Задачі, що настали, за пріоритетом з урахуванням старіння
+    private final PriorityQueue<ScheduledTask> readyQueue = new PriorityQueue<>(
+            Comparator.comparingLong((ScheduledTask task) -> task.readyKey)
+                    .thenComparingLong(task -> task.readySequence));
     private final Map<Integer, ScheduledTask> taskMap = new HashMap<>();
     private int nextTaskId = 1;
     private long currentTick = 0;
+    private long readySequence = 0;
+    
+    // 0 - без обмеження
+    private long tickBudgetNanos = 0;
+    private int agingTicks = 20;
+    
+    private long ticks;
+    private long overrunTicks;
+    private long deferredTicks;
+    private long deferredTasks;
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private TickProfiler profiler;
     
     @Override
     public int schedule(Runnable task, long delay) {
+        return schedule(task, delay, 0);
+    }
+    
+    /**
+     * Планує виконання задачі з пріоритетом (менше значення = вищий пріоритет).
+     */
+    public int schedule(Runnable task, long delay, int priority) {
         int taskId = nextTaskId++;
-        ScheduledTask scheduledTask = new ScheduledTask(taskId, task, currentTick + delay, -1);
+        ScheduledTask scheduledTask = new ScheduledTask(taskId, task, currentTick + delay, -1, priority);
         taskQueue.add(scheduledTask);
         taskMap.put(taskId, scheduledTask);
         return taskId;
@@ -30,8 +64,15 @@ public class SimpleScheduler implements Scheduler {
     
     @Override
     public int scheduleRepeating(Runnable task, long delay, long period) {
+        return scheduleRepeating(task, delay, period, 0);
+    }
+    
+    /**
+     * Планує повторювану задачу з пріоритетом (менше значення = вищий пріоритет).
+     */
+    public int scheduleRepeating(Runnable task, long delay, long period, int priority) {
         int taskId = nextTaskId++;
-        ScheduledTask scheduledTask = new ScheduledTask(taskId, task, currentTick + delay, period);
+        ScheduledTask scheduledTask = new ScheduledTask(taskId, task, currentTick + delay, period, priority);
         taskQueue.add(scheduledTask);
         taskMap.put(taskId, scheduledTask);
         return taskId;
@@ -48,9 +89,21 @@ public class SimpleScheduler implements Scheduler {
     @Override
     public void tick() {
         currentTick++;
+        long start = System.nanoTime();
+        long budget = tickBudgetNanos;
+        TickProfiler tickProfiler = profiler;
+        int executed = 0;
         
-        while (!taskQueue.isEmpty() && taskQueue.peek().executionTick() <= currentTick) {
-            ScheduledTask task = taskQueue.poll();
+        while (true) {
+            promoteDueTasks();
+            if (readyQueue.isEmpty()) {
+                break;
+            }
+            // Хоча б одна задача виконується в кожному тіку, щоб черга просувалась
+            if (budget > 0 && executed > 0 && System.nanoTime() - start >= budget) {
+                break;
+            }
+            ScheduledTask task = readyQueue.poll();
             
             // Skip cancelled tasks
             if (task.isCancelled()) {
@@ -58,19 +111,30 @@ public class SimpleScheduler implements Scheduler {
                 continue;
             }
             
+            boolean sampled = tickProfiler != null && tickProfiler.sampleTask();
+            long taskStart = sampled ? System.nanoTime() : 0;
             try {
                 task.task().run();
             } catch (Exception e) {
                 logger.error("Error executing scheduled task", e);
             }
+            if (sampled) {
+                tickProfiler.recordTask(task.task(), System.nanoTime() - taskStart);
+                tickProfiler.recordDrift(currentTick - task.readyTick);
+            }
+            executed++;
             
-            // Reschedule repeating tasks
+            // Reschedule repeating tasks unless the task cancelled itself
+            if (task.isCancelled()) {
+                continue;
+            }
             if (task.period() > 0) {
                 ScheduledTask rescheduledTask = new ScheduledTask(
                     task.id(), 
                     task.task(), 
                     currentTick + task.period(), 
-                    task.period()
+                    task.period(),
+                    task.priority()
                 );
                 taskQueue.add(rescheduledTask);
                 taskMap.put(task.id(), rescheduledTask);
@@ -78,6 +142,105 @@ public class SimpleScheduler implements Scheduler {
                 taskMap.remove(task.id());
             }
         }
+        
+        long elapsed = System.nanoTime() - start;
+        recordTick(elapsed, budget);
+        if (tickProfiler != null) {
+            tickProfiler.recordTick(elapsed, executed, taskQueue.size() + readyQueue.size());
+        }
+    }
+    
+    /**
+     * Переносить задачі, що настали, до черги готових.
+     */
+    private void promoteDueTasks() {
+        while (!taskQueue.isEmpty() && taskQueue.peek().executionTick() <= currentTick) {
+            ScheduledTask task = taskQueue.poll();
+            // Порядок за priority - (currentTick - readyTick) / agingTicks не змінюється з часом,
+            // тому старіння зводиться до незмінного ключа
+            task.readyTick = currentTick;
+            task.readyKey = readyKey(task);
+            task.readySequence = readySequence++;
+            readyQueue.add(task);
+        }
+    }
+    
+    private long readyKey(ScheduledTask task) {
+        return (long) task.priority() * agingTicks + task.readyTick;
+    }
+    
+    private void recordTick(long elapsed, long budget) {
+        ticks++;
+        lastTickNanos = elapsed;
+        maxTickNanos = Math.max(maxTickNanos, elapsed);
+        if (budget > 0 && elapsed > budget) {
+            overrunTicks++;
+        }
+        if (!readyQueue.isEmpty()) {
+            deferredTicks++;
+            deferredTasks += readyQueue.size();
+        }
+    }
+    
+    /**
+     * Задає бюджет часу на один тік у наносекундах; 0 знімає обмеження.
+     */
+    public void setTickBudget(long budgetNanos) {
+        if (budgetNanos < 0) {
+            throw new IllegalArgumentException("Tick budget must not be negative: " + budgetNanos);
+        }
+        this.tickBudgetNanos = budgetNanos;
+    }
+    
+    public long getTickBudget() {
+        return tickBudgetNanos;
+    }
+    
+    /**
+     * Задає, за скільки тіків очікування пріоритет відкладеної задачі зростає на одиницю.
+     * Діє й для задач, що вже чекають виконання: їхній вік рахується від тіку, коли вони настали.
+     */
+    public void setAgingTicks(int agingTicks) {
+        if (agingTicks <= 0) {
+            throw new IllegalArgumentException("Aging ticks must be positive: " + agingTicks);
+        }
+        this.agingTicks = agingTicks;
+        if (!readyQueue.isEmpty()) {
+            List<ScheduledTask> ready = new ArrayList<>(readyQueue);
+            readyQueue.clear();
+            for (ScheduledTask task : ready) {
+                task.readyKey = readyKey(task);
+                readyQueue.add(task);
+            }
+        }
+    }
+    
+    /**
+     * Вмикає профілювання тіків; {@code null} вимикає.
+     */
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+    
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Повертає статистику тіків з моменту створення або останнього скидання.
+     */
+    public TickStatistics getStatistics() {
+        return new TickStatistics(ticks, overrunTicks, deferredTicks, deferredTasks, readyQueue.size(),
+                lastTickNanos, maxTickNanos);
+    }
+    
+    public void resetStatistics() {
+        ticks = 0;
+        overrunTicks = 0;
+        deferredTicks = 0;
+        deferredTasks = 0;
+        lastTickNanos = 0;
+        maxTickNanos = 0;
     }
     
     /**
@@ -0,0 +1,36 @@
+package com.sparky.scheduler;
+
+import com.sparky.core.LatencyHistogram;
+
+/**
+ * Час виконання задач з одним ім'ям у {@link TickProfiler}.
+ *
+ * @author Андрій Будильников
+ */
+public class TaskProfile {
+    private final String name;
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+    
+    TaskProfile(String name) {
+        this.name = name;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * Повертає гістограму часу виконання в наносекундах.
+     */
+    public LatencyHistogram getExecutionTime() {
+        return executionTime;
+    }
+    
+    public long getCount() {
+        return executionTime.getCount();
+    }
+    
+    public long getTotalNanos() {
+        return executionTime.getTotal();
+    }
+}
\ No newline at end of file
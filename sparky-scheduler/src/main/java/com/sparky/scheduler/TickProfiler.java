@@ -0,0 +1,226 @@
+package com.sparky.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.sparky.core.LatencyHistogram;
+
+/**
+ * Профілювальник тіків планувальника: час тіку, кількість задач за тік,
+ * глибина черги, запізнення задач у тіках і час виконання кожної задачі.
+ * <p>
+ * Усі значення записуються в заздалегідь виділені {@link LatencyHistogram},
+ * тому запис не виділяє пам'яті. Задачі групуються за ім'ям
+ * {@link NamedTask}, а задачі без імені - за класом, у якому оголошено
+ * лямбду або який реалізує задачу. {@link #rollReport(int)} повертає звіт
+ * за вікно з моменту попереднього скидання і починає нове вікно.
+ * <p>
+ * Показники тіку записуються завжди, а час задач можна вимірювати лише
+ * для кожної {@code sampleEvery}-ї задачі: для дрібних задач саме виміри
+ * часу задачі визначають накладні витрати. Кількість викликів і сумарний
+ * час у звіті тоді екстраполюються.
+ * <p>
+ * Підключається через {@code setProfiler} у {@link SimpleScheduler},
+ * {@link TimingWheelScheduler} та {@link ParallelTickScheduler}.
+ *
+ * @author Андрій Будильников
+ */
+public class TickProfiler {
+    private final LatencyHistogram tickTime = new LatencyHistogram();
+    private final LatencyHistogram tasksPerTick = new LatencyHistogram(1 << 20, 4);
+    private final LatencyHistogram queueDepth = new LatencyHistogram(1 << 24, 4);
+    private final LatencyHistogram drift = new LatencyHistogram(1 << 20, 4);
+    // Клас задачі або ім'я NamedTask -> профіль
+    private final Map<Object, TaskProfile> profilesByKey = new ConcurrentHashMap<>();
+    private final Map<String, TaskProfile> profilesByName = new ConcurrentHashMap<>();
+    private final int sampleEvery;
+    // Лічильник для вибірки; гонки між потоками лише зсувають вибірку
+    private int sampleCounter;
+    private volatile long windowStart = System.nanoTime();
+    
+    /**
+     * Створює профілювальник, що вимірює кожну задачу.
+     */
+    public TickProfiler() {
+        this(1);
+    }
+    
+    /**
+     * @param sampleEvery вимірювати час кожної {@code sampleEvery}-ї задачі
+     */
+    public TickProfiler(int sampleEvery) {
+        if (sampleEvery <= 0) {
+            throw new IllegalArgumentException("Sample interval must be positive: " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+    
+    /**
+     * Вирішує, чи вимірювати час наступної задачі.
+     */
+    public boolean sampleTask() {
+        if (sampleEvery == 1) {
+            return true;
+        }
+        int counter = sampleCounter + 1;
+        if (counter >= sampleEvery) {
+            counter = 0;
+        }
+        sampleCounter = counter;
+        return counter == 0;
+    }
+    
+    /**
+     * Записує виконання задачі, для якої {@link #sampleTask()} повернув {@code true}.
+     */
+    public void recordTask(Runnable task, long durationNanos) {
+        profileFor(task).getExecutionTime().record(durationNanos);
+    }
+    
+    /**
+     * Записує, на скільки тіків пізніше запланованого виконано задачу.
+     */
+    public void recordDrift(long ticks) {
+        drift.record(ticks);
+    }
+    
+    /**
+     * Записує завершений тік.
+     *
+     * @param queueDepth кількість запланованих задач після тіку або -1, якщо невідома
+     */
+    public void recordTick(long durationNanos, int tasks, int queueDepth) {
+        tickTime.record(durationNanos);
+        tasksPerTick.record(tasks);
+        if (queueDepth >= 0) {
+            this.queueDepth.record(queueDepth);
+        }
+    }
+    
+    /**
+     * Повертає профіль задачі, створюючи його при першому зверненні.
+     */
+    public TaskProfile profileFor(Runnable task) {
+        Object key = task instanceof NamedTask named ? named.name() : task.getClass();
+        TaskProfile profile = profilesByKey.get(key);
+        if (profile == null) {
+            String name = task instanceof NamedTask named ? named.name() : ownerName(task.getClass());
+            profile = profilesByName.computeIfAbsent(name, TaskProfile::new);
+            profilesByKey.putIfAbsent(key, profile);
+        }
+        return profile;
+    }
+    
+    public LatencyHistogram getTickTime() {
+        return tickTime;
+    }
+    
+    public LatencyHistogram getTasksPerTick() {
+        return tasksPerTick;
+    }
+    
+    public LatencyHistogram getQueueDepth() {
+        return queueDepth;
+    }
+    
+    /**
+     * Повертає гістограму запізнення задач у тіках.
+     */
+    public LatencyHistogram getDrift() {
+        return drift;
+    }
+    
+    /**
+     * Повертає профілі задач, відсортовані за сумарним часом виконання.
+     */
+    public List<TaskProfile> getTaskProfiles() {
+        List<TaskProfile> result = new ArrayList<>(profilesByName.values());
+        result.sort((a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return result;
+    }
+    
+    /**
+     * Скидає всі гістограми і починає нове вікно.
+     */
+    public void reset() {
+        tickTime.reset();
+        tasksPerTick.reset();
+        queueDepth.reset();
+        drift.reset();
+        for (TaskProfile profile : profilesByName.values()) {
+            profile.getExecutionTime().reset();
+        }
+        windowStart = System.nanoTime();
+    }
+    
+    /**
+     * Повертає звіт за поточне вікно і починає нове.
+     */
+    public String rollReport(int topTasks) {
+        String report = report(topTasks);
+        reset();
+        return report;
+    }
+    
+    /**
+     * Формує текстовий звіт за поточне вікно з {@code topTasks} найдорожчими задачами.
+     */
+    public String report(int topTasks) {
+        StringBuilder out = new StringBuilder();
+        double windowSeconds = (System.nanoTime() - windowStart) / 1e9;
+        long ticks = tickTime.getCount();
+        out.append(String.format(Locale.ROOT, "Tick profile: %d ticks in %.1f s (%.2f TPS)%s%n",
+                ticks, windowSeconds, windowSeconds > 0 ? ticks / windowSeconds : 0.0,
+                sampleEvery > 1 ? ", task times sampled 1/" + sampleEvery : ""));
+        out.append(String.format(Locale.ROOT,
+                "  tick ms: avg %.3f  p50 %.3f  p95 %.3f  p99 %.3f  max %.3f%n",
+                tickTime.getMean() / 1e6, millis(tickTime.getValueAtPercentile(50)),
+                millis(tickTime.getValueAtPercentile(95)), millis(tickTime.getValueAtPercentile(99)),
+                millis(tickTime.getMax())));
+        out.append(String.format(Locale.ROOT,
+                "  tasks/tick: avg %.1f  max %d   queue depth: avg %.0f  max %d   drift ticks: p99 %d  max %d%n",
+                tasksPerTick.getMean(), tasksPerTick.getMax(), queueDepth.getMean(), queueDepth.getMax(),
+                drift.getValueAtPercentile(99), drift.getMax()));
+        
+        long tickTotal = tickTime.getTotal();
+        out.append(String.format(Locale.ROOT, "  %-40s %10s %10s %7s %9s %9s %9s%n",
+                "task", "calls", "total ms", "% tick", "avg us", "p99 us", "max us"));
+        int shown = 0;
+        for (TaskProfile profile : getTaskProfiles()) {
+            if (shown++ >= topTasks || profile.getCount() == 0) {
+                break;
+            }
+            LatencyHistogram time = profile.getExecutionTime();
+            long totalNanos = profile.getTotalNanos() * sampleEvery;
+            out.append(String.format(Locale.ROOT, "  %-40s %10d %10.2f %7.2f %9.1f %9.1f %9.1f%n",
+                    profile.getName(), profile.getCount() * sampleEvery, millis(totalNanos),
+                    tickTotal > 0 ? 100.0 * totalNanos / tickTotal : 0.0,
+                    time.getMean() / 1e3, time.getValueAtPercentile(99) / 1e3, time.getMax() / 1e3));
+        }
+        return out.toString();
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+    
+    /**
+     * Ім'я класу, що оголосив задачу: для лямбд і вкладених класів - зовнішній клас.
+     */
+    private static String ownerName(Class<?> type) {
+        String name = type.getName();
+        int lambda = name.indexOf("$$Lambda");
+        if (lambda >= 0) {
+            name = name.substring(0, lambda);
+        }
+        int nested = name.indexOf('$');
+        if (nested >= 0 && type.isAnonymousClass()) {
+            name = name.substring(0, nested);
+        }
+        int packageEnd = name.lastIndexOf('.');
+        return packageEnd >= 0 ? name.substring(packageEnd + 1) : name;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.sparky.scheduler;
+
+/**
+ * Статистика виконання тіків планувальника з бюджетом часу.
+ *
+ * @param ticks кількість виконаних тіків
+ * @param overrunTicks тіки, що тривали довше за бюджет
+ * @param deferredTicks тіки, після яких частину задач відкладено
+ * @param deferredTasks скільки разів задачу було відкладено на наступний тік
+ * @param backlog задачі, що настали, але ще чекають виконання
+ * @param lastTickNanos тривалість останнього тіку
+ * @param maxTickNanos найдовший тік
+ *
+ * @author Андрій Будильников
+ */
+public record TickStatistics(long ticks, long overrunTicks, long deferredTicks, long deferredTasks, int backlog,
+        long lastTickNanos, long maxTickNanos) {
+}
\ No newline at end of file
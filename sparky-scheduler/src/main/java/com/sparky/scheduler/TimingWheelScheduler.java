@@ -0,0 +1,262 @@
+package com.sparky.scheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sparky.core.SparkyLogger;
+
+/**
+ * Планувальник задач на ієрархічному колесі таймерів.
+ * <p>
+ * Чотири рівні по {@value #WHEEL_SIZE} слотів покривають 64, 4096, 262144
+ * і 16777216 тіків; задачі з більшою затримкою зберігаються на
+ * верхньому рівні й переносяться, доки не наблизяться до строку. Слоти -
+ * двозв'язні списки, тому планування та скасування коштують O(1), а
+ * скасована задача одразу вилучається з колеса. Повторювана задача
+ * переставляється в колесі на місці, без створення нового об'єкта.
+ * <p>
+ * Семантика тіків така ж, як у {@link SimpleScheduler}: задача з
+ * затримкою {@code d} виконується на тіку {@code currentTick + d}, задачі
+ * із затримкою 0 або від'ємною - на наступному тіку, а задачі, заплановані
+ * під час тіку з такою затримкою, - в цьому ж тіку. Задачі одного тіку
+ * виконуються в порядку пріоритету (менше значення = вищий пріоритет), а з
+ * однаковим пріоритетом - в порядку постановки на цей тік. Слот упорядковано
+ * за пріоритетом, і вставка шукає місце з кінця, тож за однакових
+ * пріоритетів вона лишається O(1). Колесо не має бюджету тіку і не
+ * відкладає задачі, тому старіння пріоритетів тут не потрібне.
+ *
+ * @author Андрій Будильников
+ */
+public class TimingWheelScheduler implements Scheduler {
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    
+    private final SparkyLogger logger = SparkyLogger.getLogger(TimingWheelScheduler.class);
+    
+    // [рівень][слот] -> перша задача слоту
+    private final TimerTask[][] heads = new TimerTask[LEVELS][WHEEL_SIZE];
+    private final TimerTask[][] tails = new TimerTask[LEVELS][WHEEL_SIZE];
+    private final Map<Integer, TimerTask> taskMap = new HashMap<>();
+    private int nextTaskId = 1;
+    private long currentTick = 0;
+    private boolean ticking;
+    private TickProfiler profiler;
+    
+    @Override
+    public int schedule(Runnable task, long delay) {
+        return add(task, delay, -1, 0);
+    }
+    
+    /**
+     * Планує виконання задачі з пріоритетом (менше значення = вищий пріоритет).
+     */
+    public int schedule(Runnable task, long delay, int priority) {
+        return add(task, delay, -1, priority);
+    }
+    
+    @Override
+    public int scheduleRepeating(Runnable task, long delay, long period) {
+        return add(task, delay, period, 0);
+    }
+    
+    /**
+     * Планує повторювану задачу з пріоритетом (менше значення = вищий пріоритет).
+     */
+    public int scheduleRepeating(Runnable task, long delay, long period, int priority) {
+        return add(task, delay, period, priority);
+    }
+    
+    private int add(Runnable task, long delay, long period, int priority) {
+        int taskId = nextTaskId++;
+        TimerTask timerTask = new TimerTask(taskId, task, period, priority);
+        timerTask.executionTick = currentTick + delay;
+        taskMap.put(taskId, timerTask);
+        insert(timerTask);
+        return taskId;
+    }
+    
+    @Override
+    public void cancel(int taskId) {
+        TimerTask task = taskMap.remove(taskId);
+        if (task != null) {
+            task.cancelled = true;
+            // Задача, що зараз виконується, вже вилучена зі слоту
+            if (task.level >= 0) {
+                unlink(task);
+            }
+        }
+    }
+    
+    @Override
+    public void tick() {
+        currentTick++;
+        TickProfiler tickProfiler = profiler;
+        long start = tickProfiler != null ? System.nanoTime() : 0;
+        int executed = 0;
+        ticking = true;
+        try {
+            cascade();
+            int slot = (int) (currentTick & WHEEL_MASK);
+            TimerTask task;
+            // Задачі, додані в цей слот під час виконання, виконуються в цьому ж тіку згідно з пріоритетом
+            while ((task = heads[0][slot]) != null) {
+                unlink(task);
+                run(task, tickProfiler);
+                executed++;
+            }
+        } finally {
+            ticking = false;
+        }
+        if (tickProfiler != null) {
+            tickProfiler.recordTick(System.nanoTime() - start, executed, taskMap.size());
+        }
+    }
+    
+    private void run(TimerTask task, TickProfiler tickProfiler) {
+        boolean sampled = tickProfiler != null && tickProfiler.sampleTask();
+        long taskStart = sampled ? System.nanoTime() : 0;
+        try {
+            task.task.run();
+        } catch (Exception e) {
+            logger.error("Error executing scheduled task", e);
+        }
+        if (sampled) {
+            // Колесо не відкладає задачі, тому запізнення не записується
+            tickProfiler.recordTask(task.task, System.nanoTime() - taskStart);
+        }
+        
+        if (task.cancelled) {
+            return;
+        }
+        // Повторювана задача переставляється на місці
+        if (task.period > 0) {
+            task.executionTick = currentTick + task.period;
+            insert(task);
+        } else {
+            taskMap.remove(task.id);
+        }
+    }
+    
+    /**
+     * Переносить задачі верхніх рівнів, чий блок тіків почався, на нижчі рівні.
+     */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * WHEEL_BITS;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >>> shift) & WHEEL_MASK);
+            TimerTask task = heads[level][slot];
+            heads[level][slot] = null;
+            tails[level][slot] = null;
+            while (task != null) {
+                TimerTask next = task.next;
+                task.prev = null;
+                task.next = null;
+                insert(task);
+                task = next;
+            }
+        }
+    }
+    
+    private void insert(TimerTask task) {
+        // Прострочена задача виконується в поточному тіку, якщо він ще триває, інакше - в наступному
+        long due = Math.max(task.executionTick, ticking ? currentTick : currentTick + 1);
+        long delta = due - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << ((level + 1) * WHEEL_BITS)) {
+            level++;
+        }
+        int slot = (int) ((due >>> (level * WHEEL_BITS)) & WHEEL_MASK);
+        task.level = level;
+        task.slot = slot;
+        // Після останньої задачі з не нижчим пріоритетом
+        TimerTask prev = tails[level][slot];
+        while (prev != null && prev.priority > task.priority) {
+            prev = prev.prev;
+        }
+        TimerTask next = prev != null ? prev.next : heads[level][slot];
+        task.prev = prev;
+        task.next = next;
+        if (prev == null) {
+            heads[level][slot] = task;
+        } else {
+            prev.next = task;
+        }
+        if (next == null) {
+            tails[level][slot] = task;
+        } else {
+            next.prev = task;
+        }
+    }
+    
+    private void unlink(TimerTask task) {
+        int level = task.level;
+        int slot = task.slot;
+        if (task.prev == null) {
+            heads[level][slot] = task.next;
+        } else {
+            task.prev.next = task.next;
+        }
+        if (task.next == null) {
+            tails[level][slot] = task.prev;
+        } else {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+        task.level = -1;
+    }
+    
+    /**
+     * Вмикає профілювання тіків; {@code null} вимикає.
+     */
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+    
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Отримує поточний тік.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+    
+    /**
+     * Повертає кількість запланованих задач.
+     */
+    public int getTaskCount() {
+        return taskMap.size();
+    }
+    
+    /**
+     * Задача в колесі - вузол двозв'язного списку свого слоту.
+     */
+    private static final class TimerTask {
+        final int id;
+        final Runnable task;
+        final long period;
+        final int priority;
+        long executionTick;
+        boolean cancelled;
+        // -1 - задача не в колесі
+        int level = -1;
+        int slot;
+        TimerTask prev;
+        TimerTask next;
+        
+        TimerTask(int id, Runnable task, long period, int priority) {
+            this.id = id;
+            this.task = task;
+            this.period = period;
+            this.priority = priority;
+        }
+    }
+}
\ No newline at end of file
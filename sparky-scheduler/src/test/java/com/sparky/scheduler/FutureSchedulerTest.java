@@ -0,0 +1,158 @@
+package com.sparky.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для ланцюжків задач на {@link CompletableFuture} поверх планувальника.
+ *
+ * @author Андрій Будильников
+ */
+class FutureSchedulerTest {
+    private TimingWheelScheduler scheduler;
+    private FutureScheduler futures;
+    
+    @BeforeEach
+    void setUp() {
+        scheduler = new TimingWheelScheduler();
+        futures = new FutureScheduler(scheduler, Runnable::run);
+        // Перший тік визначає основний потік
+        scheduler.tick();
+    }
+    
+    @Test
+    void testContinuationRunsOnMainThreadOnNextTick() throws Exception {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        CompletableFuture<Integer> result = future.thenApplyAsync(value -> {
+            thread.set(Thread.currentThread());
+            return value + 1;
+        }, futures.mainThread());
+        
+        runInOtherThread(() -> future.complete(1));
+        assertFalse(result.isDone());
+        assertEquals(1, futures.getPendingCount());
+        
+        scheduler.tick();
+        
+        assertEquals(2, result.join().intValue());
+        assertSame(Thread.currentThread(), thread.get());
+    }
+    
+    @Test
+    void testDelayCountsTicksFromCallRegardlessOfThread() throws Exception {
+        long start = scheduler.getCurrentTick();
+        AtomicLong fromMain = new AtomicLong();
+        AtomicLong fromOther = new AtomicLong();
+        AtomicLong immediateFromOther = new AtomicLong();
+        futures.delay(3).thenRun(() -> fromMain.set(scheduler.getCurrentTick()));
+        runInOtherThread(() -> {
+            futures.delay(3).thenRun(() -> fromOther.set(scheduler.getCurrentTick()));
+            futures.delay(0).thenRun(() -> immediateFromOther.set(scheduler.getCurrentTick()));
+        });
+        
+        for (int i = 0; i < 5; i++) {
+            scheduler.tick();
+        }
+        
+        assertEquals(start + 3, fromMain.get());
+        assertEquals(start + 3, fromOther.get());
+        assertEquals(start + 1, immediateFromOther.get());
+    }
+    
+    @Test
+    void testCloseRejectsNewMainThreadTasks() throws Exception {
+        runInOtherThread(futures::close);
+        
+        assertThrows(RejectedExecutionException.class, () -> futures.supplySync(() -> 1));
+        CompletableFuture<Integer> stage = CompletableFuture.completedFuture(1)
+                .thenApplyAsync(value -> value + 1, futures.mainThread());
+        CompletableFuture<Void> delay = futures.delay(1);
+        
+        assertTrue(stage.isCompletedExceptionally());
+        CompletionException error = assertThrows(CompletionException.class, stage::join);
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertTrue(delay.isCompletedExceptionally());
+        assertEquals(0, futures.getPendingCount());
+    }
+    
+    @Test
+    void testCloseRunsQueuedContinuationsOnFinalDrain() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        runInOtherThread(() -> {
+            futures.mainThread().execute(() -> ran.set(true));
+            futures.close();
+        });
+        assertFalse(ran.get());
+        
+        scheduler.tick();
+        
+        assertTrue(ran.get());
+        assertEquals(0, futures.getPendingCount());
+        assertEquals(0, scheduler.getTaskCount());
+    }
+    
+    @Test
+    void testCloseOnMainThreadDrainsImmediately() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        runInOtherThread(() -> futures.mainThread().execute(() -> ran.set(true)));
+        
+        futures.close();
+        
+        assertTrue(ran.get());
+        assertThrows(RejectedExecutionException.class, () -> futures.mainThread().execute(() -> { }));
+    }
+    
+    @Test
+    void testNoFutureHangsWhenClosedDuringSubmission() throws Exception {
+        List<CompletableFuture<Integer>> submitted = new ArrayList<>();
+        AtomicLong rejected = new AtomicLong();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                try {
+                    CompletableFuture<Integer> future = futures.supplySync(() -> 1);
+                    synchronized (submitted) {
+                        submitted.add(future);
+                    }
+                } catch (RejectedExecutionException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+        });
+        producer.start();
+        for (int i = 0; i < 50; i++) {
+            scheduler.tick();
+        }
+        futures.close();
+        producer.join();
+        scheduler.tick();
+        
+        synchronized (submitted) {
+            for (CompletableFuture<Integer> future : submitted) {
+                assertEquals(1, future.join().intValue());
+            }
+            assertEquals(20_000, submitted.size() + rejected.get());
+        }
+        assertEquals(0, futures.getPendingCount());
+    }
+    
+    private static void runInOtherThread(Runnable action) throws InterruptedException {
+        Thread thread = new Thread(action);
+        thread.start();
+        thread.join();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package com.sparky.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для планувальника, що виконує задачі тіку за доменами.
+ *
+ * @author Андрій Будильников
+ */
+class ParallelTickSchedulerTest {
+    private ParallelTickScheduler scheduler;
+    
+    @BeforeEach
+    void setUp() {
+        scheduler = new ParallelTickScheduler(new TimingWheelScheduler(), 4);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+    
+    @Test
+    void testTickWaitsForAllTasksOfTheTick() {
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            scheduler.runAsync(() -> {
+                sleep(20);
+                completed.incrementAndGet();
+            });
+        }
+        scheduler.schedule(ExecutionDomain.lane("chunk"), () -> {
+            sleep(20);
+            completed.incrementAndGet();
+        }, 0);
+        scheduler.runSync(completed::incrementAndGet);
+        
+        scheduler.tick();
+        
+        assertEquals(10, completed.get());
+    }
+    
+    @Test
+    void testSameLaneRunsSeriallyAndDifferentLanesInParallel() {
+        // Перші задачі двох смуг чекають одна на одну: це можливо лише при паралельному виконанні смуг
+        CountDownLatch lanesStarted = new CountDownLatch(2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActiveInLane = new AtomicInteger();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Boolean> overlapped = Collections.synchronizedList(new ArrayList<>());
+        for (String lane : List.of("a", "b")) {
+            AtomicInteger laneActive = new AtomicInteger();
+            for (int i = 0; i < 5; i++) {
+                int index = i;
+                scheduler.schedule(ExecutionDomain.lane(lane), () -> {
+                    maxActiveInLane.accumulateAndGet(laneActive.incrementAndGet(), Math::max);
+                    active.incrementAndGet();
+                    if (index == 0) {
+                        lanesStarted.countDown();
+                        overlapped.add(await(lanesStarted));
+                    } else {
+                        sleep(5);
+                    }
+                    order.add(lane + index);
+                    active.decrementAndGet();
+                    laneActive.decrementAndGet();
+                }, 0);
+            }
+        }
+        
+        scheduler.tick();
+        
+        assertEquals(List.of(true, true), overlapped);
+        assertEquals(1, maxActiveInLane.get());
+        assertEquals(0, active.get());
+        for (String lane : List.of("a", "b")) {
+            List<String> laneOrder = new ArrayList<>();
+            for (String entry : order) {
+                if (entry.startsWith(lane)) {
+                    laneOrder.add(entry);
+                }
+            }
+            assertEquals(List.of(lane + 0, lane + 1, lane + 2, lane + 3, lane + 4), laneOrder);
+        }
+    }
+    
+    @Test
+    void testExecutorRunsInlineOnlyInItsOwnDomain() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        ExecutionDomain lane = ExecutionDomain.lane("a");
+        scheduler.runSync(() -> {
+            scheduler.executor(ExecutionDomain.MAIN).execute(() -> events.add("main-inline"));
+            scheduler.executor(ExecutionDomain.ASYNC).execute(() -> events.add("async-deferred"));
+            events.add("main-after");
+        });
+        scheduler.schedule(lane, () -> {
+            scheduler.executor(lane).execute(() -> events.add("lane-inline"));
+            scheduler.executor(ExecutionDomain.lane("b")).execute(() -> events.add("other-lane-deferred"));
+            events.add("lane-after");
+        }, 0);
+        
+        scheduler.tick();
+        List<String> firstTick = new ArrayList<>(events);
+        events.clear();
+        scheduler.tick();
+        
+        assertEquals(4, firstTick.size());
+        assertTrue(firstTick.indexOf("main-inline") < firstTick.indexOf("main-after"));
+        assertTrue(firstTick.indexOf("lane-inline") < firstTick.indexOf("lane-after"));
+        assertEquals(2, events.size());
+        assertTrue(events.containsAll(List.of("async-deferred", "other-lane-deferred")));
+    }
+    
+    @Test
+    void testExecutorOutsideTickDefersToNextTick() {
+        AtomicInteger runs = new AtomicInteger();
+        scheduler.executor(ExecutionDomain.MAIN).execute(runs::incrementAndGet);
+        assertEquals(0, runs.get());
+        
+        scheduler.tick();
+        
+        assertEquals(1, runs.get());
+    }
+    
+    @Test
+    void testRunsTasksInlineWhenPoolRejects() {
+        scheduler.shutdown();
+        AtomicReference<Thread> asyncThread = new AtomicReference<>();
+        AtomicReference<Thread> laneThread = new AtomicReference<>();
+        scheduler.runAsync(() -> asyncThread.set(Thread.currentThread()));
+        scheduler.schedule(ExecutionDomain.lane("a"), () -> laneThread.set(Thread.currentThread()), 0);
+        
+        scheduler.tick();
+        
+        assertSame(Thread.currentThread(), asyncThread.get());
+        assertSame(Thread.currentThread(), laneThread.get());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+    
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
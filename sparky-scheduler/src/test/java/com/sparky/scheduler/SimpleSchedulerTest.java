@@ -0,0 +1,159 @@
+package com.sparky.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для простого планувальника: пріоритети, бюджет тіку, старіння і статистика.
+ *
+ * @author Андрій Будильников
+ */
+class SimpleSchedulerTest {
+    // Бюджет, який вичерпує будь-яка задача: за тік виконується рівно одна
+    private static final long ONE_TASK_BUDGET = 1;
+    
+    @Test
+    void testReadyTasksRunByPriorityThenId() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        List<String> order = new ArrayList<>();
+        scheduler.schedule(() -> order.add("low"), 1, 5);
+        scheduler.schedule(() -> order.add("normal-1"), 1);
+        scheduler.schedule(() -> order.add("high"), 1, -1);
+        scheduler.schedule(() -> order.add("normal-2"), 1);
+        
+        scheduler.tick();
+        
+        assertEquals(List.of("high", "normal-1", "normal-2", "low"), order);
+    }
+    
+    @Test
+    void testBudgetDefersRemainingTasksToNextTick() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        scheduler.setTickBudget(ONE_TASK_BUDGET);
+        List<Long> executedAt = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            scheduler.schedule(() -> {
+                executedAt.add(scheduler.getCurrentTick());
+                spin();
+            }, 1);
+        }
+        
+        scheduler.tick();
+        TickStatistics first = scheduler.getStatistics();
+        scheduler.tick();
+        scheduler.tick();
+        scheduler.tick();
+        TickStatistics statistics = scheduler.getStatistics();
+        
+        assertEquals(List.of(1L, 2L, 3L), executedAt);
+        assertEquals(1, first.ticks());
+        assertEquals(1, first.deferredTicks());
+        assertEquals(2, first.deferredTasks());
+        assertEquals(2, first.backlog());
+        assertEquals(1, first.overrunTicks());
+        
+        assertEquals(4, statistics.ticks());
+        assertEquals(2, statistics.deferredTicks());
+        assertEquals(3, statistics.deferredTasks());
+        assertEquals(0, statistics.backlog());
+        // Порожній четвертий тік теж майже напевно довший за 1 нс
+        assertTrue(statistics.overrunTicks() >= 3);
+        assertTrue(statistics.lastTickNanos() >= 0);
+        assertTrue(statistics.maxTickNanos() >= statistics.lastTickNanos());
+        assertTrue(statistics.maxTickNanos() > 0);
+        
+        scheduler.resetStatistics();
+        assertEquals(new TickStatistics(0, 0, 0, 0, 0, 0, 0), scheduler.getStatistics());
+    }
+    
+    @Test
+    void testAgingLetsLowPriorityTaskRunUnderSteadyHighPriorityLoad() {
+        assertEquals(-1, lowPriorityRunTick(Integer.MAX_VALUE));
+        long ranAt = lowPriorityRunTick(2);
+        assertTrue(ranAt > 0);
+        // Вік 2 тіки на одиницю пріоритету: задача з пріоритетом 10 поступається лише задачам, що настали раніше за тік 21
+        assertTrue(ranAt <= 45);
+    }
+    
+    /**
+     * Запускає задачу з пріоритетом 10 на тлі двох нових задач з пріоритетом 0 щотіку
+     * при виконанні однієї задачі за тік.
+     *
+     * @return тік виконання задачі з низьким пріоритетом або -1, якщо вона так і не виконалась
+     */
+    private static long lowPriorityRunTick(int agingTicks) {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        scheduler.setTickBudget(ONE_TASK_BUDGET);
+        scheduler.setAgingTicks(agingTicks);
+        long[] ranAt = {-1};
+        scheduler.schedule(() -> ranAt[0] = scheduler.getCurrentTick(), 1, 10);
+        for (int tick = 0; tick < 100; tick++) {
+            scheduler.schedule(SimpleSchedulerTest::spin, 1);
+            scheduler.schedule(SimpleSchedulerTest::spin, 1);
+            scheduler.tick();
+        }
+        assertTrue(scheduler.getStatistics().backlog() > 0);
+        return ranAt[0];
+    }
+    
+    @Test
+    void testSetAgingTicksRekeysTasksAlreadyWaiting() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        scheduler.setTickBudget(ONE_TASK_BUDGET);
+        List<String> order = new ArrayList<>();
+        // Задача з пріоритетом 1 настає в тіку 1 і чекає, поки виконуються чотири задачі з пріоритетом 0
+        scheduler.schedule(() -> order.add("aged"), 1, 1);
+        for (int i = 0; i < 4; i++) {
+            scheduler.schedule(SimpleSchedulerTest::spin, 1);
+        }
+        scheduler.schedule(() -> order.add("fresh"), 5);
+        for (int i = 0; i < 4; i++) {
+            scheduler.tick();
+        }
+        
+        // З кроком старіння 20 задача з тіку 1 поступилася б новій задачі з тіку 5; з кроком 1 вже ні
+        scheduler.setAgingTicks(1);
+        scheduler.tick();
+        scheduler.tick();
+        
+        assertEquals(List.of("aged", "fresh"), order);
+        assertThrows(IllegalArgumentException.class, () -> scheduler.setAgingTicks(0));
+    }
+    
+    @Test
+    void testRepeatingTaskThatCancelsItselfDoesNotRunAgain() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        int[] runs = new int[2];
+        int[] ids = new int[2];
+        ids[0] = scheduler.scheduleRepeating(() -> {
+            if (++runs[0] == 2) {
+                scheduler.cancel(ids[0]);
+            }
+        }, 1, 1);
+        // Повторювана задача, яку скасовує інша задача того ж тіку до її виконання
+        ids[1] = scheduler.scheduleRepeating(() -> runs[1]++, 3, 1, 1);
+        scheduler.schedule(() -> scheduler.cancel(ids[1]), 4, 0);
+        
+        for (int i = 0; i < 10; i++) {
+            scheduler.tick();
+        }
+        
+        assertEquals(2, runs[0]);
+        assertEquals(1, runs[1]);
+    }
+    
+    /**
+     * Чекає, поки зміниться значення {@link System#nanoTime()}, щоб задача гарантовано вичерпала бюджет.
+     */
+    private static void spin() {
+        long start = System.nanoTime();
+        while (System.nanoTime() == start) {
+            Thread.onSpinWait();
+        }
+    }
+}
\ No newline at end of file
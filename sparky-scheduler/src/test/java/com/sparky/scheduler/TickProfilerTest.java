@@ -0,0 +1,122 @@
+package com.sparky.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для профілювальника тіків на {@link SimpleScheduler}.
+ *
+ * @author Андрій Будильников
+ */
+class TickProfilerTest {
+    
+    @Test
+    void testTasksAreAttributedByNameOrDeclaringClass() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        TickProfiler profiler = new TickProfiler();
+        scheduler.setProfiler(profiler);
+        scheduler.scheduleRepeating(new NamedTask("physics", () -> busy(200_000)), 1, 1);
+        scheduler.scheduleRepeating(new NamedTask("ai", () -> busy(1_000)), 1, 2);
+        scheduler.scheduleRepeating(() -> busy(1_000), 1, 1);
+        
+        for (int i = 0; i < 10; i++) {
+            scheduler.tick();
+        }
+        
+        assertEquals(10, profiler.getTickTime().getCount());
+        assertEquals(3, profiler.getTasksPerTick().getMax());
+        assertEquals(10, profiler.getQueueDepth().getCount());
+        assertEquals(3, profiler.getQueueDepth().getMax());
+        assertEquals(3, profiler.getTaskProfiles().size());
+        assertEquals("physics", profiler.getTaskProfiles().get(0).getName());
+        assertEquals(10, profiler.profileFor(new NamedTask("physics", () -> { })).getCount());
+        assertEquals(5, profiler.profileFor(new NamedTask("ai", () -> { })).getCount());
+        TaskProfile unnamed = profiler.profileFor(() -> { });
+        assertEquals("TickProfilerTest", unnamed.getName());
+        assertEquals(10, unnamed.getCount());
+        
+        String report = profiler.report(10);
+        assertTrue(report.startsWith("Tick profile: 10 ticks"));
+        assertFalse(report.contains("sampled"));
+        int physics = report.indexOf("physics");
+        assertTrue(physics > 0);
+        assertTrue(physics < report.indexOf("  ai "));
+        assertTrue(report.contains("TickProfilerTest"));
+        // Лише найдорожча задача
+        assertFalse(profiler.report(1).contains("  ai "));
+    }
+    
+    @Test
+    void testSamplingMeasuresEveryNthTaskAndExtrapolatesReport() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        TickProfiler profiler = new TickProfiler(4);
+        scheduler.setProfiler(profiler);
+        scheduler.scheduleRepeating(new NamedTask("sampled", () -> { }), 1, 1);
+        
+        for (int i = 0; i < 40; i++) {
+            scheduler.tick();
+        }
+        
+        TaskProfile profile = profiler.getTaskProfiles().get(0);
+        assertEquals(10, profile.getCount());
+        // Показники тіку записуються для кожного тіку
+        assertEquals(40, profiler.getTickTime().getCount());
+        String report = profiler.report(5);
+        assertTrue(report.contains("task times sampled 1/4"));
+        String line = report.lines().filter(l -> l.contains("sampled ") && !l.startsWith("Tick")).findFirst().orElseThrow();
+        assertEquals("40", line.trim().split("\\s+")[1]);
+    }
+    
+    @Test
+    void testDriftRecordsTicksTasksWaitedPastTheirTick() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        TickProfiler profiler = new TickProfiler();
+        scheduler.setProfiler(profiler);
+        // Бюджет 1 нс: за тік виконується одна задача, решта відкладаються
+        scheduler.setTickBudget(1);
+        for (int i = 0; i < 3; i++) {
+            scheduler.schedule(new NamedTask("deferred", () -> busy(1_000)), 1);
+        }
+        
+        for (int i = 0; i < 3; i++) {
+            scheduler.tick();
+        }
+        
+        assertEquals(3, profiler.getDrift().getCount());
+        assertEquals(3, profiler.getDrift().getTotal());
+        assertEquals(2, profiler.getDrift().getMax());
+        assertTrue(profiler.report(5).contains("drift ticks: p99 2  max 2"));
+    }
+    
+    @Test
+    void testRollReportStartsNewWindow() {
+        SimpleScheduler scheduler = new SimpleScheduler();
+        TickProfiler profiler = new TickProfiler();
+        scheduler.setProfiler(profiler);
+        NamedTask task = new NamedTask("task", () -> { });
+        scheduler.scheduleRepeating(task, 1, 1);
+        scheduler.tick();
+        scheduler.tick();
+        
+        String first = profiler.rollReport(5);
+        assertTrue(first.startsWith("Tick profile: 2 ticks"));
+        assertTrue(first.contains("task"));
+        assertEquals(0, profiler.getTickTime().getCount());
+        assertEquals(0, profiler.profileFor(task).getCount());
+        
+        scheduler.tick();
+        assertTrue(profiler.rollReport(5).startsWith("Tick profile: 1 ticks"));
+        // Профіль задачі той самий між вікнами
+        assertSame(profiler.getTaskProfiles().get(0), profiler.profileFor(task));
+    }
+    
+    private static void busy(long nanos) {
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < nanos) {
+            Thread.onSpinWait();
+        }
+    }
+}
\ No newline at end of file
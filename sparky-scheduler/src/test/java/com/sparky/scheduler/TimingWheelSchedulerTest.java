@@ -0,0 +1,172 @@
+package com.sparky.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Тест для планувальника на колесі таймерів: порівнює його з {@link SimpleScheduler}
+ * на однакових випадкових навантаженнях.
+ *
+ * @author Андрій Будильников
+ */
+class TimingWheelSchedulerTest {
+    // Затримки навколо меж рівнів колеса: 64, 4096 і 262144 тіків
+    private static final long[] BOUNDARY_DELAYS = {
+            -1, 0, 1, 63, 64, 65, 4_095, 4_096, 4_097, 262_143, 262_144, 262_145, 270_000};
+    
+    @Test
+    void testDelaysAndCancellation() {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler();
+        List<Long> executed = new ArrayList<>();
+        for (long delay : new long[] {1, 64, 4_096}) {
+            scheduler.schedule(() -> executed.add(scheduler.getCurrentTick()), delay);
+        }
+        int cancelled = scheduler.schedule(() -> executed.add(-1L), 100);
+        int repeating = scheduler.scheduleRepeating(() -> executed.add(-scheduler.getCurrentTick()), 2, 3000);
+        assertEquals(5, scheduler.getTaskCount());
+        
+        scheduler.cancel(cancelled);
+        for (int i = 0; i < 4_096; i++) {
+            scheduler.tick();
+        }
+        scheduler.cancel(repeating);
+        
+        assertEquals(List.of(1L, -2L, 64L, -3002L, 4_096L), executed);
+        assertEquals(0, scheduler.getTaskCount());
+    }
+    
+    @Test
+    void testPriorityOrderWithinTick() {
+        TimingWheelScheduler scheduler = new TimingWheelScheduler();
+        List<String> executed = new ArrayList<>();
+        scheduler.schedule(() -> executed.add("low"), 5, 2);
+        scheduler.schedule(() -> {
+            executed.add("normal");
+            // Задача з вищим пріоритетом, додана під час тіку, випереджає решту задач слоту
+            scheduler.schedule(() -> executed.add("urgent"), 0, -1);
+            scheduler.schedule(() -> executed.add("normal-nested"), 0, 1);
+        }, 5, 1);
+        scheduler.schedule(() -> executed.add("high"), 5, 0);
+        // Задачі із затримкою понад 64 тіки потрапляють до слоту через перенесення з верхнього рівня
+        scheduler.schedule(() -> executed.add("late-normal"), 69, 0);
+        scheduler.schedule(() -> executed.add("late-low"), 69, 1);
+        scheduler.schedule(() -> executed.add("late-high"), 69, -1);
+        for (int i = 0; i < 70; i++) {
+            scheduler.tick();
+        }
+        
+        assertEquals(List.of("high", "normal", "urgent", "normal-nested", "low", "late-high", "late-normal", "late-low"),
+                executed);
+    }
+    
+    @Test
+    void testMatchesSimpleSchedulerOnRandomWorkload() {
+        for (long seed = 0; seed < 8; seed++) {
+            assertSameExecution(seed, 20_000, 4);
+        }
+    }
+    
+    @Test
+    void testMatchesSimpleSchedulerAcrossLevelBoundaries() {
+        // Рідкі операції, але достатньо тіків, щоб задачі пройшли через усі перенесення між рівнями
+        for (long seed = 100; seed < 102; seed++) {
+            assertSameExecution(seed, 540_000, 200);
+        }
+    }
+    
+    private static void assertSameExecution(long seed, int ticks, int operationEvery) {
+        Map<Long, List<String>> expected = run(new SimpleScheduler(), seed, ticks, operationEvery);
+        Map<Long, List<String>> actual = run(new TimingWheelScheduler(), seed, ticks, operationEvery);
+        assertTrue(expected.size() > 100);
+        assertEquals(expected, actual);
+    }
+    
+    /**
+     * Виконує однакову для заданого зерна послідовність планувань, скасувань і тіків.
+     * Порядок задач з однаковим пріоритетом у межах тіку планувальники визначають
+     * по-різному, тому перевіряється лише те, що пріоритети не спадають.
+     *
+     * @return виконані задачі за тіками; в межах тіку - у відсортованому порядку
+     */
+    private static Map<Long, List<String>> run(Scheduler scheduler, long seed, int ticks, int operationEvery) {
+        Random random = new Random(seed);
+        Map<Long, List<String>> log = new TreeMap<>();
+        long[] now = {0};
+        List<Integer> ids = new ArrayList<>();
+        for (int step = 0; step < ticks; step++) {
+            int operations = step % operationEvery == 0 ? random.nextInt(4) : 0;
+            for (int k = 0; k < operations; k++) {
+                int operation = random.nextInt(10);
+                if (operation < 4) {
+                    long delay = randomDelay(random);
+                    int priority = random.nextInt(4);
+                    boolean nested = random.nextInt(5) == 0;
+                    long nestedDelay = random.nextInt(3) - 1;
+                    int nestedPriority = priority + random.nextInt(3);
+                    int[] id = new int[1];
+                    id[0] = schedule(scheduler, () -> {
+                        record(log, now[0], priority, "once-" + id[0]);
+                        if (nested) {
+                            // Задача, запланована під час тіку із затримкою 0 або -1, виконується в цьому ж тіку
+                            schedule(scheduler, () -> record(log, now[0], nestedPriority, "nested-" + id[0]),
+                                    nestedDelay, nestedPriority);
+                        }
+                    }, delay, priority);
+                    ids.add(id[0]);
+                } else if (operation < 7) {
+                    // Період не коротший за інтервал між операціями, щоб журнал не розростався
+                    long period = random.nextBoolean() ? randomDelay(random) : random.nextInt(100);
+                    int priority = random.nextInt(4);
+                    int[] id = new int[1];
+                    id[0] = scheduleRepeating(scheduler, () -> record(log, now[0], priority, "repeat-" + id[0]),
+                            random.nextInt(50), Math.max(operationEvery, period), priority);
+                    ids.add(id[0]);
+                } else if (!ids.isEmpty()) {
+                    scheduler.cancel(ids.get(random.nextInt(ids.size())));
+                }
+            }
+            now[0]++;
+            scheduler.tick();
+        }
+        for (Map.Entry<Long, List<String>> entry : log.entrySet()) {
+            List<String> executed = entry.getValue();
+            for (int i = 1; i < executed.size(); i++) {
+                assertTrue(executed.get(i - 1).charAt(0) <= executed.get(i).charAt(0),
+                        "Priority order broken on tick " + entry.getKey() + ": " + executed);
+            }
+            Collections.sort(executed);
+        }
+        return log;
+    }
+    
+    private static int schedule(Scheduler scheduler, Runnable task, long delay, int priority) {
+        return scheduler instanceof TimingWheelScheduler
+                ? ((TimingWheelScheduler) scheduler).schedule(task, delay, priority)
+                : ((SimpleScheduler) scheduler).schedule(task, delay, priority);
+    }
+    
+    private static int scheduleRepeating(Scheduler scheduler, Runnable task, long delay, long period, int priority) {
+        return scheduler instanceof TimingWheelScheduler
+                ? ((TimingWheelScheduler) scheduler).scheduleRepeating(task, delay, period, priority)
+                : ((SimpleScheduler) scheduler).scheduleRepeating(task, delay, period, priority);
+    }
+    
+    private static long randomDelay(Random random) {
+        return random.nextBoolean()
+                ? BOUNDARY_DELAYS[random.nextInt(BOUNDARY_DELAYS.length)]
+                : random.nextInt(300_000) - 3;
+    }
+    
+    private static void record(Map<Long, List<String>> log, long tick, int priority, String entry) {
+        // Пріоритет - одна цифра на початку запису
+        log.computeIfAbsent(tick, k -> new ArrayList<>()).add(priority + " " + entry);
+    }
+}
\ No newline at end of file